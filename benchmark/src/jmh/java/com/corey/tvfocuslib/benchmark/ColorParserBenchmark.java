@@ -0,0 +1,90 @@
+package com.corey.tvfocuslib.benchmark;
+
+import com.corey.tvfocuslib.ColorParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.InvalidParameterException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 颜色解析与原来的Utils.hexStr2Integer（每次创建HashMap）的对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ColorParserBenchmark {
+    private static final int COLORS = 1000;
+
+    private final String[] mColors = new String[COLORS];
+    private final int[] mOut = new int[COLORS];
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < COLORS; i++) {
+            mColors[i] = String.format("#%08X", random.nextInt());
+        }
+    }
+
+    @Benchmark
+    public int hashMapHexStr2Integer() {
+        return hexStr2Integer(mColors[mNext++ % COLORS]);
+    }
+
+    @Benchmark
+    public int parseColor() {
+        return ColorParser.parseColor(mColors[mNext++ % COLORS]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] hashMapHexStr2Integer_1000() {
+        for (int i = 0; i < COLORS; i++) {
+            mOut[i] = hexStr2Integer(mColors[i]);
+        }
+        return mOut;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] parseColors_1000() {
+        ColorParser.parseColors(mColors, mOut, 0);
+        return mOut;
+    }
+
+    /**
+     * 原来的实现
+     */
+    private static int hexStr2Integer(String hexStr) {
+        Map<Character, Integer> map = new HashMap<Character, Integer>();
+        String digits = "0123456789abcdef";
+        for (int i = 0; i < digits.length(); i++) {
+            map.put(digits.charAt(i), i);
+            map.put(Character.toUpperCase(digits.charAt(i)), i);
+        }
+        int result = 0;
+        String tmpString = hexStr;
+        if ('#' == tmpString.charAt(0)) {
+            tmpString = hexStr.substring(1, tmpString.length());
+        }
+        for (int i = 0; i < tmpString.length(); i++) {
+            result <<= 4;
+            if (null == map.get(tmpString.charAt(i))) {
+                throw new InvalidParameterException("hexStr2Integer invalid parameter");
+            }
+            result += map.get(tmpString.charAt(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package com.corey.tvfocuslib.benchmark;
+
+import com.corey.tvfocuslib.FocusGrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 焦点查找索引在1000个区域中的查找耗时，与FocusFinder的对比在tvfocuslib的FocusBenchmarkTest中
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class FocusGridBenchmark {
+    private static final int ITEMS = 1000;
+    /**
+     * View.FOCUS_LEFT、FOCUS_UP、FOCUS_RIGHT、FOCUS_DOWN
+     */
+    private static final int[] DIRECTIONS = {17, 33, 66, 130};
+
+    @Param({"grid", "random"})
+    public String layout;
+
+    private final FocusGrid mGrid = new FocusGrid();
+    private final int[][] mRects = new int[ITEMS][];
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        mGrid.reset(0, 0, 3840, 2160, 80);
+        for (int i = 0; i < ITEMS; i++) {
+            int left;
+            int top;
+            int width;
+            int height;
+            if ("grid".equals(layout)) {
+                left = 10 + (i % 40) * 95;
+                top = 10 + (i / 40) * 75;
+                width = 80;
+                height = 60;
+            } else {
+                left = random.nextInt(3700);
+                top = random.nextInt(2000);
+                width = 20 + random.nextInt(120);
+                height = 20 + random.nextInt(120);
+            }
+            mRects[i] = new int[]{left, top, left + width, top + height};
+            mGrid.add(left, top, left + width, top + height);
+        }
+    }
+
+    @Benchmark
+    public int search() {
+        int next = mNext++;
+        int[] rect = mRects[(next * 7) % ITEMS];
+        return mGrid.search(rect[0], rect[1], rect[2], rect[3], DIRECTIONS[next & 3]);
+    }
+}
@@ -0,0 +1,75 @@
+package com.corey.tvfocuslib.benchmark;
+
+import com.corey.tvfocuslib.FixedPoint;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResolutionUtil适配计算的浮点和定点实现对比，每次调用缩放0~4095共4096个值
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ResolutionScaleBenchmark {
+    private static final int VALUES = 4096;
+    private static final float DEFAULT_DENSITY = 160;
+
+    private float mDensity;
+    private float mScaleWidth;
+    private long mWidthFactor;
+    private int[] mPx;
+
+    @Setup
+    public void setUp() {
+        mDensity = 320;
+        mScaleWidth = 1280f / 1920;
+        mWidthFactor = FixedPoint.factor(1280, 1920);
+        mPx = new int[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            mPx[i] = i;
+        }
+    }
+
+    /**
+     * 原来的计算方式：换算为dp再换算回px
+     */
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int floatRoundTrip() {
+        int sum = 0;
+        for (int px : mPx) {
+            float dp = px / (mDensity / DEFAULT_DENSITY);
+            sum += (int) (dp * (mDensity / DEFAULT_DENSITY) * mScaleWidth);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int floatMultiply() {
+        int sum = 0;
+        for (int px : mPx) {
+            sum += (int) (px * mScaleWidth);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int fixedPoint() {
+        int sum = 0;
+        for (int px : mPx) {
+            sum += FixedPoint.scale(px, mWidthFactor);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,70 @@
+package com.corey.tvfocuslib.benchmark;
+
+import com.corey.tvfocuslib.Utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utils中字符串处理方法的基准
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UtilsBenchmark {
+
+    private String mText;
+    private String mEncoded;
+    private String mHexColor;
+    private String[] mParts;
+
+    @Setup
+    public void setUp() {
+        mText = "http://www.example.com/poster/1024x576/movie_detail_12345.jpg";
+        mEncoded = Utils.base64Encode(mText);
+        mHexColor = "#FF33B5E5";
+        mParts = new String[]{"movie", "tv", "variety", "cartoon", "sports", "music", "education", "news"};
+    }
+
+    @Benchmark
+    public String md5() {
+        return Utils.md5(mText);
+    }
+
+    @Benchmark
+    public int hexStr2Integer() {
+        return Utils.hexStr2Integer(mHexColor);
+    }
+
+    @Benchmark
+    public String join() {
+        return Utils.join(mParts, ",");
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return Utils.base64Encode(mText);
+    }
+
+    @Benchmark
+    public String base64Decode() {
+        return Utils.base64Decode(mEncoded);
+    }
+
+    @Benchmark
+    public String getTimeAsString() {
+        return Utils.getTimeAsString();
+    }
+
+    @Benchmark
+    public String now() {
+        return Utils.now();
+    }
+}
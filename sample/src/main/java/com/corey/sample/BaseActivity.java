@@ -11,7 +11,9 @@ import android.view.WindowManager;
 import android.widget.AdapterView;
 import android.widget.ImageView;
 
-import com.corey.tvfocuslib.ContextProvider;
+import com.corey.tvfocuslib.FocusCoalescer;
+import com.corey.tvfocuslib.FocusPrefetcher;
+import com.corey.tvfocuslib.FocusTracker;
 import com.corey.tvfocuslib.FocusUtils;
 import com.corey.tvfocuslib.ResolutionUtil;
 
@@ -34,8 +36,8 @@ public class BaseActivity extends FragmentActivity implements
 
         this.getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
 
-        resolutionUtil = new ResolutionUtil(this);
-        ContextProvider.init(this);
+        resolutionUtil = ResolutionUtil.getInstance(this);
+        FocusUtils.setLocationMode(FocusUtils.LOCATION_MODE_PARENT);
     }
 
     /**焦点框**/
@@ -51,6 +53,18 @@ public class BaseActivity extends FragmentActivity implements
      * 焦点框
      */
     protected ImageView mFocus;
+    /**
+     * 合并同一帧内的焦点变化
+     */
+    private FocusCoalescer mFocusCoalescer;
+    /**
+     * 焦点框跟随容器滚动
+     */
+    private FocusTracker mFocusTracker;
+    /**
+     * 空闲时预取下一个焦点的位置
+     */
+    private FocusPrefetcher mFocusPrefetcher;
 
     private View mFocusView;
 
@@ -103,6 +117,15 @@ public class BaseActivity extends FragmentActivity implements
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (this.mFocusCoalescer != null) {
+            this.mFocusCoalescer.cancel();
+        }
+        if (this.mFocusTracker != null) {
+            this.mFocusTracker.release();
+        }
+        if (this.mFocusPrefetcher != null) {
+            this.mFocusPrefetcher.release();
+        }
         // 移除全局焦点监听
         if (this.mRootView != null) {
             this.mRootView.getViewTreeObserver()
@@ -210,11 +233,15 @@ public class BaseActivity extends FragmentActivity implements
             return;
         }
         BaseActivity.this.mFocus = FocusUtils.getFocusView(BaseActivity.this,R.mipmap.image_focus);
-        FocusUtils.initFocusViewLocation(BaseActivity.this.mFocus, view);
+        // 焦点框位置相对于mRootView计算，需要先添加到mRootView中
         this.mRootView.addView(this.mFocus);
+        this.mFocusTracker = FocusTracker.attach(this.mFocus);
+        this.mFocusPrefetcher = FocusPrefetcher.attach(this.mFocus, this.mRootView);
+        FocusUtils.initFocusViewLocation(BaseActivity.this.mFocus, view);
+        this.mFocusCoalescer = new FocusCoalescer(this.mFocus);
     }
 
     public void moveFocus(final View view) {
-        FocusUtils.setFocusViewLocation(this.mFocus, view);
+        this.mFocusCoalescer.post(view);
     }
 }
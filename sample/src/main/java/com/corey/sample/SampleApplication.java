@@ -0,0 +1,15 @@
+package com.corey.sample;
+
+import android.app.Application;
+
+import com.corey.tvfocuslib.FocusDrawableCache;
+
+public class SampleApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // 焦点框在第一次获得焦点时创建，启动时在后台解码图片，只执行一次
+        FocusDrawableCache.prewarm(this, R.mipmap.image_focus);
+    }
+}
@@ -0,0 +1,425 @@
+package com.corey.tvfocuslib;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Base64编码、解码
+ * 纯Java实现，不依赖android.util.Base64，可以在JVM上测试。
+ * 可以编码到调用方提供的byte数组、ByteBuffer中，大的数据（如bitmap2bytes生成的缩略图）
+ * 使用{@link #newEncoderStream(OutputStream)}边写边编码，不需要整个数据都在内存中。
+ * 解码同时接受标准和URL安全两种字母表，忽略空白字符，末尾的'='可以省略；
+ * 数据不正确时抛出{@link IllegalArgumentException}，说明错误的位置。
+ * 实例不可变，可以在任意线程使用。
+ */
+public final class Base64Codec {
+
+    // 需要在下面的实例之前初始化
+    private static final byte[] STANDARD_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes();
+    private static final byte[] URL_SAFE_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes();
+
+    /**
+     * 标准字母表，'+'和'/'，末尾补'='
+     */
+    public static final Base64Codec STANDARD = new Base64Codec(false, true);
+    /**
+     * URL安全字母表，'-'和'_'，末尾补'='
+     */
+    public static final Base64Codec URL_SAFE = new Base64Codec(true, true);
+    /**
+     * URL安全字母表，末尾不补'='，与android.util.Base64的URL_SAFE | NO_PADDING | NO_WRAP相同
+     */
+    public static final Base64Codec URL_SAFE_NO_PADDING = new Base64Codec(true, false);
+
+    private static final int INVALID = -1;
+    private static final int WHITESPACE = -2;
+    private static final int PADDING = -3;
+    /**
+     * byte对应的6位数值，或INVALID、WHITESPACE、PADDING
+     */
+    private static final int[] DECODE = new int[256];
+
+    static {
+        for (int i = 0; i < DECODE.length; i++) {
+            DECODE[i] = INVALID;
+        }
+        for (int i = 0; i < STANDARD_ALPHABET.length; i++) {
+            DECODE[STANDARD_ALPHABET[i]] = i;
+            DECODE[URL_SAFE_ALPHABET[i]] = i;
+        }
+        DECODE[' '] = WHITESPACE;
+        DECODE['\t'] = WHITESPACE;
+        DECODE['\r'] = WHITESPACE;
+        DECODE['\n'] = WHITESPACE;
+        DECODE['='] = PADDING;
+    }
+
+    private final byte[] mAlphabet;
+    private final boolean mPadding;
+
+    private Base64Codec(boolean urlSafe, boolean padding) {
+        mAlphabet = urlSafe ? URL_SAFE_ALPHABET : STANDARD_ALPHABET;
+        mPadding = padding;
+    }
+
+    /**
+     * 编码length个byte后的长度
+     */
+    public int encodedLength(int length) {
+        long encoded = mPadding ? (length + 2L) / 3 * 4 : (length * 4L + 2) / 3;
+        if (encoded > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Input too large: " + length);
+        }
+        return (int) encoded;
+    }
+
+    /**
+     * 解码length个字符后的最大长度，实际长度可能因为'='和空白字符更短
+     */
+    public static int maxDecodedLength(int length) {
+        return (int) ((length + 3L) / 4 * 3);
+    }
+
+    public byte[] encode(byte[] src) {
+        byte[] dst = new byte[encodedLength(src.length)];
+        encode(src, 0, src.length, dst, 0);
+        return dst;
+    }
+
+    public String encodeToString(byte[] src) {
+        return encodeToString(src, 0, src.length);
+    }
+
+    public String encodeToString(byte[] src, int offset, int length) {
+        char[] chars = new char[encodedLength(length)];
+        byte[] alphabet = mAlphabet;
+        int end = offset + length;
+        int fullEnd = end - length % 3;
+        int d = 0;
+        for (int i = offset; i < fullEnd; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            chars[d++] = (char) alphabet[bits >>> 18];
+            chars[d++] = (char) alphabet[(bits >>> 12) & 0x3F];
+            chars[d++] = (char) alphabet[(bits >>> 6) & 0x3F];
+            chars[d++] = (char) alphabet[bits & 0x3F];
+        }
+        int remaining = end - fullEnd;
+        if (remaining > 0) {
+            int bits = (src[fullEnd] & 0xFF) << 16 | (remaining == 2 ? (src[fullEnd + 1] & 0xFF) << 8 : 0);
+            chars[d++] = (char) alphabet[bits >>> 18];
+            chars[d++] = (char) alphabet[(bits >>> 12) & 0x3F];
+            if (remaining == 2) {
+                chars[d++] = (char) alphabet[(bits >>> 6) & 0x3F];
+            }
+            while (d < chars.length) {
+                chars[d++] = '=';
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 编码到调用方提供的数组中
+     *
+     * @return 写入的byte数，即{@link #encodedLength(int)}
+     * @throws IndexOutOfBoundsException dst剩余空间不足
+     */
+    public int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        checkRange(src.length, offset, length);
+        int encodedLength = encodedLength(length);
+        checkRange(dst.length, dstOffset, encodedLength);
+        byte[] alphabet = mAlphabet;
+        int end = offset + length;
+        int fullEnd = end - length % 3;
+        int d = dstOffset;
+        for (int i = offset; i < fullEnd; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[d++] = alphabet[bits >>> 18];
+            dst[d++] = alphabet[(bits >>> 12) & 0x3F];
+            dst[d++] = alphabet[(bits >>> 6) & 0x3F];
+            dst[d++] = alphabet[bits & 0x3F];
+        }
+        int remaining = end - fullEnd;
+        if (remaining > 0) {
+            int bits = (src[fullEnd] & 0xFF) << 16 | (remaining == 2 ? (src[fullEnd + 1] & 0xFF) << 8 : 0);
+            dst[d++] = alphabet[bits >>> 18];
+            dst[d++] = alphabet[(bits >>> 12) & 0x3F];
+            if (remaining == 2) {
+                dst[d++] = alphabet[(bits >>> 6) & 0x3F];
+            }
+            int dstEnd = dstOffset + encodedLength;
+            while (d < dstEnd) {
+                dst[d++] = '=';
+            }
+        }
+        return encodedLength;
+    }
+
+    /**
+     * 编码src中position到limit的数据，写入dst的position处，两者的position都移动到处理后的位置
+     *
+     * @return 写入的byte数
+     * @throws BufferOverflowException dst剩余空间不足，此时两者都没有修改
+     */
+    public int encode(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        int encodedLength = encodedLength(length);
+        if (dst.remaining() < encodedLength) {
+            throw new BufferOverflowException();
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            encode(src.array(), src.arrayOffset() + src.position(), length,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + encodedLength);
+            return encodedLength;
+        }
+        // 直接内存按3的整数倍分段
+        byte[] in = new byte[Math.min(length, 3 * 1024)];
+        byte[] out = new byte[encodedLength(in.length)];
+        while (src.hasRemaining()) {
+            int count = Math.min(src.remaining(), in.length);
+            src.get(in, 0, count);
+            dst.put(out, 0, encode(in, 0, count, out, 0));
+        }
+        return encodedLength;
+    }
+
+    /**
+     * 解码字符串
+     *
+     * @throws IllegalArgumentException 包含非Base64字符、'='的位置或个数不正确、长度不完整
+     */
+    public byte[] decode(CharSequence src) {
+        int length = src.length();
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            char c = src.charAt(i);
+            // 非ASCII字符映射为一定非法的0xFF
+            bytes[i] = c < 0x80 ? (byte) c : (byte) 0xFF;
+        }
+        return decode(bytes);
+    }
+
+    /**
+     * @throws IllegalArgumentException 数据不是正确的Base64
+     */
+    public byte[] decode(byte[] src) {
+        byte[] dst = new byte[maxDecodedLength(src.length)];
+        int length = decode(src, 0, src.length, dst, 0);
+        if (length == dst.length) {
+            return dst;
+        }
+        byte[] result = new byte[length];
+        System.arraycopy(dst, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * 解码到调用方提供的数组中
+     *
+     * @return 写入的byte数
+     * @throws IllegalArgumentException  数据不是正确的Base64
+     * @throws IndexOutOfBoundsException dst剩余空间不足
+     */
+    public int decode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        checkRange(src.length, offset, length);
+        if (dstOffset < 0 || dstOffset > dst.length) {
+            throw new IndexOutOfBoundsException("dstOffset=" + dstOffset + ", length=" + dst.length);
+        }
+        int bits = 0;
+        int count = 0;
+        // 第一个'='出现时的字符数和'='的个数
+        int countAtPadding = -1;
+        int paddings = 0;
+        int d = dstOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int value = DECODE[src[i] & 0xFF];
+            if (value >= 0) {
+                if (paddings > 0) {
+                    throw new IllegalArgumentException("Base64 data after padding at index " + (i - offset));
+                }
+                bits = bits << 6 | value;
+                if (++count == 4) {
+                    if (d + 3 > dst.length) {
+                        throw new IndexOutOfBoundsException("dst too small: " + dst.length);
+                    }
+                    dst[d++] = (byte) (bits >> 16);
+                    dst[d++] = (byte) (bits >> 8);
+                    dst[d++] = (byte) bits;
+                    bits = 0;
+                    count = 0;
+                }
+            } else if (value == PADDING) {
+                if (paddings++ == 0) {
+                    countAtPadding = count;
+                }
+            } else if (value == INVALID) {
+                throw new IllegalArgumentException("Invalid base64 character 0x"
+                        + Integer.toHexString(src[i] & 0xFF) + " at index " + (i - offset));
+            }
+        }
+        if (paddings > 0 && (countAtPadding < 2 || paddings != 4 - countAtPadding)) {
+            throw new IllegalArgumentException("Invalid base64 padding");
+        }
+        if (count == 1) {
+            throw new IllegalArgumentException("Truncated base64 data");
+        }
+        if (count > 1) {
+            if (d + count - 1 > dst.length) {
+                throw new IndexOutOfBoundsException("dst too small: " + dst.length);
+            }
+            bits <<= 6 * (4 - count);
+            dst[d++] = (byte) (bits >> 16);
+            if (count == 3) {
+                dst[d++] = (byte) (bits >> 8);
+            }
+        }
+        return d - dstOffset;
+    }
+
+    /**
+     * 解码src中position到limit的数据，写入dst的position处，两者的position都移动到处理后的位置
+     *
+     * @return 写入的byte数
+     * @throws IllegalArgumentException 数据不是正确的Base64，此时两者的position不变
+     * @throws BufferOverflowException  dst剩余空间不足，此时两者的position不变
+     */
+    public int decode(ByteBuffer src, ByteBuffer dst) {
+        byte[] in;
+        int offset;
+        int length = src.remaining();
+        if (src.hasArray()) {
+            in = src.array();
+            offset = src.arrayOffset() + src.position();
+        } else {
+            in = new byte[length];
+            src.duplicate().get(in);
+            offset = 0;
+        }
+        int decoded;
+        if (dst.hasArray() && dst.remaining() >= maxDecodedLength(length)) {
+            // 空间一定足够，直接写入dst的数组
+            decoded = decode(in, offset, length, dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + decoded);
+        } else {
+            byte[] out = new byte[maxDecodedLength(length)];
+            decoded = decode(in, offset, length, out, 0);
+            if (decoded > dst.remaining()) {
+                throw new BufferOverflowException();
+            }
+            dst.put(out, 0, decoded);
+        }
+        src.position(src.limit());
+        return decoded;
+    }
+
+    /**
+     * 创建边写边编码的输出流，关闭时写入末尾的数据并关闭out
+     */
+    public EncoderOutputStream newEncoderStream(OutputStream out) {
+        return new EncoderOutputStream(this, out);
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length
+                    + ", array length=" + arrayLength);
+        }
+    }
+
+    /**
+     * 边写边编码的输出流，每凑够3个byte编码一次，{@link #finish()}或{@link #close()}时写入剩余的数据
+     */
+    public static final class EncoderOutputStream extends OutputStream {
+        private static final int CHUNK = 3 * 1024;
+
+        private final Base64Codec mCodec;
+        private final OutputStream mOut;
+        private final byte[] mInput = new byte[CHUNK];
+        private final byte[] mOutput;
+        private int mCount;
+        private boolean mFinished;
+
+        EncoderOutputStream(Base64Codec codec, OutputStream out) {
+            mCodec = codec;
+            mOut = out;
+            mOutput = new byte[codec.encodedLength(CHUNK)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkNotFinished();
+            mInput[mCount++] = (byte) b;
+            if (mCount == CHUNK) {
+                flushInput(CHUNK);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkNotFinished();
+            checkRange(b.length, off, len);
+            while (len > 0) {
+                int count = Math.min(len, CHUNK - mCount);
+                System.arraycopy(b, off, mInput, mCount, count);
+                mCount += count;
+                off += count;
+                len -= count;
+                if (mCount == CHUNK) {
+                    flushInput(CHUNK);
+                }
+            }
+        }
+
+        /**
+         * 写入已凑够3个byte的部分，不足3个的留到之后
+         */
+        @Override
+        public void flush() throws IOException {
+            if (!mFinished) {
+                flushInput(mCount - mCount % 3);
+            }
+            mOut.flush();
+        }
+
+        /**
+         * 写入剩余的数据和'='，不关闭out。之后不能再写入
+         */
+        public void finish() throws IOException {
+            if (mFinished) {
+                return;
+            }
+            flushInput(mCount);
+            mFinished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                mOut.close();
+            }
+        }
+
+        private void flushInput(int count) throws IOException {
+            if (count == 0) {
+                return;
+            }
+            mOut.write(mOutput, 0, mCodec.encode(mInput, 0, count, mOutput, 0));
+            mCount -= count;
+            System.arraycopy(mInput, count, mInput, 0, mCount);
+        }
+
+        private void checkNotFinished() throws IOException {
+            if (mFinished) {
+                throw new IOException("Base64 stream already finished");
+            }
+        }
+    }
+}
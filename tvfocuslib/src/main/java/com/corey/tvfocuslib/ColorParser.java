@@ -0,0 +1,176 @@
+package com.corey.tvfocuslib;
+
+/**
+ * 十六进制颜色解析
+ * 服务端下发的主题、颜色配置一次有上千个颜色字符串，解析时用静态的ASCII查表，不装箱、不创建子串。
+ * 支持#RGB、#ARGB、#RRGGBB、#AARRGGBB，'#'可省略，没有透明度时为不透明，
+ * 短格式每位重复一次，如"#3F0"->0xFF33FF00。可以在任意线程使用。
+ */
+public final class ColorParser {
+
+    /**
+     * ASCII字符对应的十六进制数值，不是十六进制数字时为-1
+     */
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        for (int i = 0; i < DIGITS.length; i++) {
+            DIGITS[i] = -1;
+        }
+        for (int i = 0; i < 10; i++) {
+            DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DIGITS['a' + i] = (byte) (10 + i);
+            DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    /**
+     * 解析失败
+     */
+    private static final long INVALID = -1L;
+
+    private ColorParser() {
+    }
+
+    /**
+     * 十六进制字符对应的数值
+     *
+     * @return 不是十六进制数字时返回-1
+     */
+    public static int digit(char c) {
+        return c < DIGITS.length ? DIGITS[c] : -1;
+    }
+
+    /**
+     * 解析颜色
+     *
+     * @param color 如"#FF33B5E5"、"33B5E5"、"#3BE"
+     * @return ARGB颜色值
+     * @throws IllegalArgumentException 格式不正确
+     */
+    public static int parseColor(CharSequence color) {
+        if (color == null) {
+            throw new IllegalArgumentException("color is null");
+        }
+        return parseColor(color, 0, color.length());
+    }
+
+    /**
+     * 解析字符串中[start, end)范围内的颜色
+     *
+     * @throws IllegalArgumentException 格式不正确
+     */
+    public static int parseColor(CharSequence text, int start, int end) {
+        long color = parse(text, start, end);
+        if (color == INVALID) {
+            throw new IllegalArgumentException("Unknown color: " + text.subSequence(start, end));
+        }
+        return (int) color;
+    }
+
+    /**
+     * 解析颜色，格式不正确时返回默认颜色
+     *
+     * @param color        颜色字符串，可以为null
+     * @param defaultColor 默认颜色
+     */
+    public static int parseColor(CharSequence color, int defaultColor) {
+        if (color == null) {
+            return defaultColor;
+        }
+        long result = parse(color, 0, color.length());
+        return result == INVALID ? defaultColor : (int) result;
+    }
+
+    /**
+     * 批量解析颜色
+     *
+     * @param colors       颜色字符串，元素可以为null
+     * @param defaultColor 格式不正确时使用的颜色
+     * @return 与colors一一对应的颜色值
+     */
+    public static int[] parseColors(CharSequence[] colors, int defaultColor) {
+        int[] out = new int[colors.length];
+        parseColors(colors, out, defaultColor);
+        return out;
+    }
+
+    /**
+     * 批量解析颜色到已有的数组中，可以复用数组
+     *
+     * @param colors       颜色字符串，元素可以为null
+     * @param out          解析结果，长度不能小于colors
+     * @param defaultColor 格式不正确时使用的颜色
+     * @return 格式不正确的个数
+     */
+    public static int parseColors(CharSequence[] colors, int[] out, int defaultColor) {
+        if (out.length < colors.length) {
+            throw new IllegalArgumentException("out.length < colors.length");
+        }
+        int invalid = 0;
+        for (int i = 0; i < colors.length; i++) {
+            CharSequence color = colors[i];
+            long result = color == null ? INVALID : parse(color, 0, color.length());
+            if (result == INVALID) {
+                out[i] = defaultColor;
+                invalid++;
+            } else {
+                out[i] = (int) result;
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * @return 无符号的ARGB值，格式不正确时返回{@link #INVALID}
+     */
+    private static long parse(CharSequence text, int start, int end) {
+        if (start < 0 || end > text.length() || start > end) {
+            throw new IndexOutOfBoundsException("start=" + start + ", end=" + end
+                    + ", length=" + text.length());
+        }
+        if (start < end && text.charAt(start) == '#') {
+            start++;
+        }
+        int length = end - start;
+        if (length != 3 && length != 4 && length != 6 && length != 8) {
+            return INVALID;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0) {
+                return INVALID;
+            }
+            value = (value << 4) | digit;
+        }
+        switch (length) {
+            case 3:
+                value = expand(value) | 0xFF000000;
+                break;
+            case 4:
+                value = expand(value);
+                break;
+            case 6:
+                value |= 0xFF000000;
+                break;
+            default:
+                break;
+        }
+        return value & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 短格式的每一位重复一次，如0x3F0->0x33FF00、0x83F0->0x8833FF00
+     */
+    private static int expand(int value) {
+        int result = 0;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            int digit = (value >>> shift) & 0xF;
+            result = (result << 8) | (digit << 4) | digit;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+package com.corey.tvfocuslib;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+
+/**
+ * 在Application.onCreate之前初始化{@link ContextProvider}，不需要在应用中手动调用init
+ * 只保存application context，不提供任何数据。
+ */
+public class ContextInitProvider extends ContentProvider {
+
+    @Override
+    public boolean onCreate() {
+        if (getContext() != null) {
+            ContextProvider.init(getContext());
+        }
+        return false;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                        String sortOrder) {
+        return null;
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        return null;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        return 0;
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        return 0;
+    }
+}
@@ -11,11 +11,13 @@ import android.content.Context;
 
 /**
  * This class provide a global application context.
+ * The context is initialized automatically by {@link ContextInitProvider} before
+ * Application.onCreate, only the application context is kept.
  *
  * @author liyang
  */
 public final class ContextProvider {
-    private static Context sContext = null;
+    private static volatile Context sContext = null;
 
     public static void initIfNotInited(Context context) {
         if (sContext == null) {
@@ -25,7 +27,8 @@ public final class ContextProvider {
 
     /**
      * NOTE(liyang): This function should be invoked in Application while the
-     * application is been created.
+     * application is been created. It is called by {@link ContextInitProvider}
+     * automatically, call it only for processes where providers are not started.
      *
      * @param context
      */
@@ -33,7 +36,9 @@ public final class ContextProvider {
         if (context == null) {
             throw new NullPointerException("Can not use null initlialized application context");
         }
-        sContext = context;
+        // Never keep an Activity or Service
+        Context appContext = context.getApplicationContext();
+        sContext = appContext != null ? appContext : context;
     }
 
     /**
@@ -42,10 +47,18 @@ public final class ContextProvider {
      * @return
      */
     public static Context getApplicationContext() {
-        if (sContext == null) {
+        Context context = sContext;
+        if (context == null) {
             throw new NullPointerException("Global application uninitialized");
         }
-        return sContext;
+        return context;
+    }
+
+    /**
+     * 恢复为没有初始化的状态，测试使用
+     */
+    static void reset() {
+        sContext = null;
     }
 
     private ContextProvider() {
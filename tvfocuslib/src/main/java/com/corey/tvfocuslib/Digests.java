@@ -0,0 +1,222 @@
+package com.corey.tvfocuslib;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 摘要计算
+ * 每个线程复用一个MessageDigest和缓冲区，字符串按UTF-8分段编码后直接送入MessageDigest，
+ * 不创建整个字符串的byte数组；十六进制结果查表写入char数组，只创建最终的String。
+ * 如图片url生成磁盘缓存的key：
+ * <pre>
+ * String key = Digests.MD5.hex(url);
+ * </pre>
+ * 可以在任意线程使用。
+ */
+public final class Digests {
+
+    public static final Digests MD5 = new Digests("MD5");
+    public static final Digests SHA1 = new Digests("SHA-1");
+    public static final Digests SHA256 = new Digests("SHA-256");
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * 编码和读取流使用的缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 4096;
+
+    private final String mAlgorithm;
+    private final ThreadLocal<State> mState = new ThreadLocal<State>() {
+        @Override
+        protected State initialValue() {
+            return new State(newDigest());
+        }
+    };
+
+    /**
+     * 线程内复用的对象
+     */
+    private static final class State {
+        final MessageDigest digest;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final char[] hex;
+
+        State(MessageDigest digest) {
+            this.digest = digest;
+            this.hex = new char[digest.getDigestLength() * 2];
+        }
+    }
+
+    private Digests(String algorithm) {
+        mAlgorithm = algorithm;
+        // 不支持的算法在类加载时就报错
+        newDigest();
+    }
+
+    /**
+     * @return 算法名，如"MD5"
+     */
+    public String getAlgorithm() {
+        return mAlgorithm;
+    }
+
+    /**
+     * 字符串按UTF-8编码后的摘要
+     */
+    public byte[] digest(CharSequence text) {
+        State state = begin();
+        update(state, text);
+        return state.digest.digest();
+    }
+
+    public byte[] digest(byte[] data) {
+        return digest(data, 0, data.length);
+    }
+
+    public byte[] digest(byte[] data, int offset, int length) {
+        State state = begin();
+        state.digest.update(data, offset, length);
+        return state.digest.digest();
+    }
+
+    /**
+     * buffer中position到limit之间数据的摘要，完成后position等于limit
+     */
+    public byte[] digest(ByteBuffer buffer) {
+        State state = begin();
+        state.digest.update(buffer);
+        return state.digest.digest();
+    }
+
+    /**
+     * 读取到流结束，不关闭流
+     */
+    public byte[] digest(InputStream in) throws IOException {
+        State state = begin();
+        update(state, in);
+        return state.digest.digest();
+    }
+
+    /**
+     * 字符串按UTF-8编码后的摘要，小写十六进制
+     */
+    public String hex(CharSequence text) {
+        State state = begin();
+        update(state, text);
+        return finish(state);
+    }
+
+    public String hex(byte[] data) {
+        return hex(data, 0, data.length);
+    }
+
+    public String hex(byte[] data, int offset, int length) {
+        State state = begin();
+        state.digest.update(data, offset, length);
+        return finish(state);
+    }
+
+    /**
+     * buffer中position到limit之间数据的摘要，完成后position等于limit
+     */
+    public String hex(ByteBuffer buffer) {
+        State state = begin();
+        state.digest.update(buffer);
+        return finish(state);
+    }
+
+    /**
+     * 读取到流结束，不关闭流
+     */
+    public String hex(InputStream in) throws IOException {
+        State state = begin();
+        update(state, in);
+        return finish(state);
+    }
+
+    /**
+     * 把byte数组写为小写十六进制
+     */
+    public static String toHex(byte[] data) {
+        char[] hex = new char[data.length * 2];
+        toHex(data, data.length, hex);
+        return new String(hex);
+    }
+
+    private static void toHex(byte[] data, int length, char[] out) {
+        for (int i = 0, j = 0; i < length; i++) {
+            int b = data[i];
+            out[j++] = HEX_DIGITS[(b >>> 4) & 0xF];
+            out[j++] = HEX_DIGITS[b & 0xF];
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(mAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(mAlgorithm + " not supported", e);
+        }
+    }
+
+    private State begin() {
+        State state = mState.get();
+        // 上一次计算中途抛出异常时可能残留数据
+        state.digest.reset();
+        return state;
+    }
+
+    private static String finish(State state) {
+        byte[] digest = state.digest.digest();
+        toHex(digest, digest.length, state.hex);
+        return new String(state.hex);
+    }
+
+    private static void update(State state, InputStream in) throws IOException {
+        byte[] buffer = state.buffer;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            state.digest.update(buffer, 0, read);
+        }
+    }
+
+    /**
+     * 分段按UTF-8编码，非法的单个代理字符按String.getBytes的方式编码为'?'
+     */
+    private static void update(State state, CharSequence text) {
+        byte[] buffer = state.buffer;
+        // 一个字符最多编码为4个byte
+        int limit = buffer.length - 4;
+        int pos = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (pos > limit) {
+                state.digest.update(buffer, 0, pos);
+                pos = 0;
+            }
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buffer[pos++] = '?';
+            }
+        }
+        state.digest.update(buffer, 0, pos);
+    }
+}
@@ -1,13 +1,43 @@
 package com.corey.tvfocuslib;
 
+import android.content.ComponentCallbacks;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.util.DisplayMetrics;
 
 /**
  * dp、sp 转换为 px 的工具类
+ * density和scaledDensity在第一次使用时从application的DisplayMetrics读取并缓存，
+ * 配置变化（如修改字体大小）后重新读取。0~{@link #DP_TABLE_SIZE}-1的整数dp值直接查表。
  *
  * @author liyang 2015.03.16
  */
 public class DisplayUtil {
+    /**
+     * 预先计算的整数dp值个数
+     */
+    public static final int DP_TABLE_SIZE = 1024;
+
+    /**
+     * 当前配置下的密度，配置变化后置为null
+     */
+    private static volatile Density sDensity;
+    /**
+     * 已注册配置变化回调的application
+     */
+    private static Context sCallbacksContext;
+
+    private static final ComponentCallbacks sCallbacks = new ComponentCallbacks() {
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+            sDensity = null;
+        }
+
+        @Override
+        public void onLowMemory() {
+        }
+    };
+
     /**
      * 将px值转换为dip或dp值，保证尺寸大小不变
      *
@@ -15,11 +45,7 @@ public class DisplayUtil {
      * @return
      */
     public static int px2dp(Context context, float pxValue) {
-        if (context == null) {
-            context = ContextProvider.getApplicationContext();
-        }
-        final float scale = context.getResources().getDisplayMetrics().density;
-        return (int) (pxValue / scale + 0.5f);
+        return (int) (pxValue / obtain(context).density + 0.5f);
     }
 
     /**
@@ -29,11 +55,26 @@ public class DisplayUtil {
      * @return
      */
     public static int dp2px(Context context, float dpValue) {
-        if (context == null) {
-            context = ContextProvider.getApplicationContext();
+        Density density = obtain(context);
+        int dp = (int) dpValue;
+        if (dp == dpValue && dp >= 0 && dp < DP_TABLE_SIZE) {
+            return density.dpTable[dp];
+        }
+        return (int) (dpValue * density.density + 0.5f);
+    }
+
+    /**
+     * 将dip或dp值转换为px值，保证尺寸大小不变
+     *
+     * @param dpValue
+     * @return
+     */
+    public static int dp2px(Context context, int dpValue) {
+        Density density = obtain(context);
+        if (dpValue >= 0 && dpValue < DP_TABLE_SIZE) {
+            return density.dpTable[dpValue];
         }
-        final float scale = context.getResources().getDisplayMetrics().density;
-        return (int) (dpValue * scale + 0.5f);
+        return (int) (dpValue * density.density + 0.5f);
     }
 
     /**
@@ -43,11 +84,7 @@ public class DisplayUtil {
      * @return
      */
     public static int px2sp(Context context, float pxValue) {
-        if (context == null) {
-            context = ContextProvider.getApplicationContext();
-        }
-        final float fontScale = context.getResources().getDisplayMetrics().scaledDensity;
-        return (int) (pxValue / fontScale + 0.5f);
+        return (int) (pxValue / obtain(context).scaledDensity + 0.5f);
     }
 
     /**
@@ -57,10 +94,65 @@ public class DisplayUtil {
      * @return
      */
     public static int sp2px(Context context, float spValue) {
+        return (int) (spValue * obtain(context).scaledDensity + 0.5f);
+    }
+
+    /**
+     * 当前屏幕密度
+     */
+    public static float getDensity(Context context) {
+        return obtain(context).density;
+    }
+
+    /**
+     * 当前字体密度，包含用户设置的字体缩放
+     */
+    public static float getScaledDensity(Context context) {
+        return obtain(context).scaledDensity;
+    }
+
+    /**
+     * 清除缓存的密度，下次转换时重新读取
+     */
+    public static void invalidate() {
+        sDensity = null;
+    }
+
+    private static Density obtain(Context context) {
+        Density density = sDensity;
+        if (density != null) {
+            return density;
+        }
         if (context == null) {
             context = ContextProvider.getApplicationContext();
         }
-        final float fontScale = context.getResources().getDisplayMetrics().scaledDensity;
-        return (int) (spValue * fontScale + 0.5f);
+        Context appContext = context.getApplicationContext();
+        if (appContext == null) {
+            appContext = context;
+        }
+        synchronized (DisplayUtil.class) {
+            if (sCallbacksContext != appContext) {
+                appContext.registerComponentCallbacks(sCallbacks);
+                sCallbacksContext = appContext;
+            }
+        }
+        density = new Density(appContext.getResources().getDisplayMetrics());
+        sDensity = density;
+        return density;
+    }
+
+    private static final class Density {
+        final float density;
+        final float scaledDensity;
+        final int[] dpTable;
+
+        Density(DisplayMetrics dm) {
+            density = dm.density;
+            scaledDensity = dm.scaledDensity;
+            dpTable = new int[DP_TABLE_SIZE];
+            for (int i = 0; i < DP_TABLE_SIZE; i++) {
+                dpTable[i] = (int) (i * density + 0.5f);
+            }
+        }
     }
 }
@@ -0,0 +1,59 @@
+package com.corey.tvfocuslib;
+
+/**
+ * 32位小数的定点数缩放
+ * 缩放系数预先计算为 ceil(分子 * 2^32 / 分母)，每次缩放只需要一次整数乘法和移位，
+ * 结果与精确值 px * 分子 / 分母 向0取整一致，不受浮点误差影响，所有设备上结果相同。
+ */
+public final class FixedPoint {
+    public static final int SHIFT = 32;
+    /**
+     * 定点缩放支持的最大绝对值，超过时使用浮点计算
+     */
+    public static final int MAX_VALUE = 1 << 20;
+
+    /**
+     * 计算numerator / denominator的缩放系数
+     *
+     * @param numerator   如设备宽度
+     * @param denominator 如设计图宽度，需要大于0
+     * @return
+     */
+    public static long factor(int numerator, int denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("denominator must be > 0");
+        }
+        return (((long) numerator << SHIFT) + denominator - 1) / denominator;
+    }
+
+    /**
+     * 计算非整数比例的缩放系数，如包含字体缩放的比例
+     */
+    public static long factor(double scale) {
+        return (long) Math.ceil(scale * (1L << SHIFT));
+    }
+
+    /**
+     * 按缩放系数缩放，结果向0取整
+     *
+     * @param value  绝对值不超过{@link #MAX_VALUE}
+     * @param factor {@link #factor}的返回值
+     * @return
+     */
+    public static int scale(int value, long factor) {
+        if (value >= 0) {
+            return (int) ((value * factor) >>> SHIFT);
+        }
+        return (int) -((-(long) value * factor) >>> SHIFT);
+    }
+
+    /**
+     * 数值是否可以使用定点缩放
+     */
+    public static boolean inRange(int value) {
+        return value <= MAX_VALUE && value >= -MAX_VALUE;
+    }
+
+    private FixedPoint() {
+    }
+}
@@ -0,0 +1,312 @@
+package com.corey.tvfocuslib;
+
+import android.animation.Animator;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * 焦点框移动动画
+ * 每个焦点框只创建一个实例，连续移动时从当前插值位置重新定向到新的目标，
+ * 正在运行的动画直接回到起点继续，按住方向键时不会产生多个同时运行的动画，也不会分配新对象。
+ * 动画期间可选的焦点item使用硬件层，动画结束后恢复，不会一直占用纹理内存。
+ */
+public class FocusAnimator implements ValueAnimator.AnimatorUpdateListener,
+        Animator.AnimatorListener {
+
+    private final View mFocusView;
+    private final ValueAnimator mAnimator;
+    private int mMode = FocusUtils.FOCUS_MOVE_MODE_LAYOUT;
+
+    private float mStartX;
+    private float mStartY;
+    private float mStartWidth;
+    private float mStartHeight;
+
+    private float mEndX;
+    private float mEndY;
+    private float mEndWidth;
+    private float mEndHeight;
+
+    /**
+     * 当前帧焦点框的位置和大小
+     */
+    private float mCurrentX;
+    private float mCurrentY;
+    private float mCurrentWidth;
+    private float mCurrentHeight;
+
+    private boolean mFocusLayerPromoted;
+    /**
+     * 动画期间同时使用硬件层的焦点item
+     */
+    private View mLayerItem;
+    private View mPromotedItem;
+
+    /**
+     * 获取焦点框对应的动画，没有则创建
+     *
+     * @param focusView
+     * @return
+     */
+    public static FocusAnimator get(View focusView) {
+        if (focusView == null) {
+            return null;
+        }
+        Object tag = focusView.getTag(R.id.tv_focus_animator);
+        if (tag instanceof FocusAnimator) {
+            return (FocusAnimator) tag;
+        }
+        FocusAnimator animator = new FocusAnimator(focusView);
+        focusView.setTag(R.id.tv_focus_animator, animator);
+        return animator;
+    }
+
+    /**
+     * @param focusView 焦点框，子类不作用于View属性时可以是焦点框所在的布局
+     */
+    protected FocusAnimator(View focusView) {
+        mFocusView = focusView;
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.addUpdateListener(this);
+        mAnimator.addListener(this);
+    }
+
+    /**
+     * 焦点框是否正在移动，没有创建过动画时返回false
+     */
+    static boolean isRunning(View focusView) {
+        Object tag = focusView.getTag(R.id.tv_focus_animator);
+        return tag instanceof FocusAnimator && ((FocusAnimator) tag).isRunning();
+    }
+
+    public View getFocusView() {
+        return mFocusView;
+    }
+
+    public boolean isRunning() {
+        return mAnimator.isRunning();
+    }
+
+    /**
+     * 是否正在向该目标移动
+     */
+    public boolean isAnimatingTo(float x, float y, float width, float height) {
+        return mAnimator.isRunning() && mEndX == x && mEndY == y
+                && mEndWidth == width && mEndHeight == height;
+    }
+
+    /**
+     * 从当前位置以动画移动到目标位置，正在运行的动画会从当前插值位置继续
+     *
+     * @param mode     {@link FocusUtils#FOCUS_MOVE_MODE_LAYOUT}或{@link FocusUtils#FOCUS_MOVE_MODE_TRANSFORM}
+     * @param x        焦点框x
+     * @param y        焦点框y
+     * @param width    焦点框宽度（含margin）
+     * @param height   焦点框高度（含margin）
+     * @param duration 动画时长
+     */
+    public void animateTo(int mode, float x, float y, float width, float height, long duration) {
+        boolean retarget = mAnimator.isRunning() && mode == mMode;
+        if (retarget) {
+            mStartX = mCurrentX;
+            mStartY = mCurrentY;
+            mStartWidth = mCurrentWidth;
+            mStartHeight = mCurrentHeight;
+        } else {
+            mAnimator.cancel();
+            mMode = mode;
+            readCurrent();
+            mStartX = mCurrentX;
+            mStartY = mCurrentY;
+            mStartWidth = mCurrentWidth;
+            mStartHeight = mCurrentHeight;
+        }
+        mEndX = x;
+        mEndY = y;
+        mEndWidth = width;
+        mEndHeight = height;
+        mAnimator.setDuration(duration);
+        promoteLayers();
+        if (retarget) {
+            // 正在运行的动画直接回到起点，不取消再启动，取消和启动通知监听器时都会复制监听器列表
+            mAnimator.setCurrentPlayTime(0);
+        } else {
+            mAnimator.start();
+        }
+        FocusMetrics.onMoveStarted(true);
+    }
+
+    /**
+     * 设置之后的移动动画使用的插值器
+     *
+     * @param interpolator null表示使用默认插值器
+     */
+    public void setInterpolator(TimeInterpolator interpolator) {
+        mAnimator.setInterpolator(interpolator != null ? interpolator
+                : FocusStyle.DEFAULT_INTERPOLATOR);
+    }
+
+    /**
+     * 设置动画期间同时使用硬件层的焦点item，用于item放大等效果，null表示不使用
+     *
+     * @param item
+     */
+    public void setLayerItem(View item) {
+        mLayerItem = item;
+    }
+
+    /**
+     * 取消动画，直接移动到目标位置
+     */
+    public void jumpTo(int mode, float x, float y, float width, float height) {
+        mAnimator.cancel();
+        mMode = mode;
+        mEndX = x;
+        mEndY = y;
+        mEndWidth = width;
+        mEndHeight = height;
+        applyFrame(x, y, width, height);
+        FocusMetrics.onMoveStarted(false);
+    }
+
+    /**
+     * 平移焦点框，正在运行的动画的起点和终点一起平移，用于跟随容器滚动
+     */
+    public void offsetBy(float dx, float dy) {
+        mStartX += dx;
+        mStartY += dy;
+        mEndX += dx;
+        mEndY += dy;
+        if (!mAnimator.isRunning()) {
+            readCurrent();
+        }
+        applyFrame(mCurrentX + dx, mCurrentY + dy, mCurrentWidth, mCurrentHeight);
+    }
+
+    /**
+     * 取消动画，焦点框停留在当前位置
+     */
+    public void cancel() {
+        mAnimator.cancel();
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        releaseLayers();
+        FocusMetrics.onMoveEnd();
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+    }
+
+    @Override
+    public void onAnimationRepeat(Animator animation) {
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        float fraction = animation.getAnimatedFraction();
+        applyFrame(mStartX + (mEndX - mStartX) * fraction,
+                mStartY + (mEndY - mStartY) * fraction,
+                mStartWidth + (mEndWidth - mStartWidth) * fraction,
+                mStartHeight + (mEndHeight - mStartHeight) * fraction);
+    }
+
+    /**
+     * 该模式下焦点框是否使用硬件层，默认不使用
+     * 两种模式下焦点框的图片大小每帧都会改变，硬件层每帧都要重新绘制；子类只改变View属性时可以返回true
+     */
+    protected boolean useHardwareLayer(int mode) {
+        return false;
+    }
+
+    private void promoteLayers() {
+        if (!FocusUtils.isHardwareLayerEnabled()) {
+            return;
+        }
+        if (!mFocusLayerPromoted && useHardwareLayer(mMode)) {
+            mFocusLayerPromoted = ViewUtil.promoteHardwareLayer(mFocusView);
+        }
+        if (mPromotedItem != mLayerItem) {
+            ViewUtil.releaseHardwareLayer(mPromotedItem);
+            mPromotedItem = ViewUtil.promoteHardwareLayer(mLayerItem) ? mLayerItem : null;
+        }
+    }
+
+    private void releaseLayers() {
+        if (mFocusLayerPromoted) {
+            ViewUtil.releaseHardwareLayer(mFocusView);
+            mFocusLayerPromoted = false;
+        }
+        ViewUtil.releaseHardwareLayer(mPromotedItem);
+        mPromotedItem = null;
+    }
+
+    /**
+     * 读取焦点框当前显示的位置和大小，通过{@link #setCurrent}保存
+     */
+    protected void readCurrent() {
+        float x = mFocusView.getX();
+        float y = mFocusView.getY();
+        ViewGroup.LayoutParams params = mFocusView.getLayoutParams();
+        int width = params != null ? params.width : mFocusView.getWidth();
+        int height = params != null ? params.height : mFocusView.getHeight();
+        FocusFrameDrawable frame = FocusFrameDrawable.peek(mFocusView);
+        if (mMode == FocusUtils.FOCUS_MOVE_MODE_TRANSFORM && frame != null) {
+            setCurrent(x, y, frame.getFrameWidth(), frame.getFrameHeight());
+        } else {
+            setCurrent(x, y, width, height);
+        }
+    }
+
+    protected final void setCurrent(float x, float y, float width, float height) {
+        mCurrentX = x;
+        mCurrentY = y;
+        mCurrentWidth = width;
+        mCurrentHeight = height;
+    }
+
+    private void applyFrame(float x, float y, float width, float height) {
+        setCurrent(x, y, width, height);
+        onApplyFrame(mMode, x, y, width, height);
+        FocusMetrics.onFrameApplied(mFocusView);
+    }
+
+    /**
+     * 将一帧的位置和大小应用到焦点框
+     * 平移模式下焦点框布局大小固定，只改变图片的绘制大小，不会触发layout
+     */
+    protected void onApplyFrame(int mode, float x, float y, float width, float height) {
+        mFocusView.setX(x);
+        mFocusView.setY(y);
+        FocusFrameDrawable frame = FocusFrameDrawable.peek(mFocusView);
+        if (mode == FocusUtils.FOCUS_MOVE_MODE_TRANSFORM) {
+            if (frame != null) {
+                frame.setSize(Math.round(width), Math.round(height));
+            }
+            return;
+        }
+        if (frame != null) {
+            // 从平移模式切换回来，图片恢复为按布局大小绘制
+            frame.clearSize();
+        }
+        ViewGroup.LayoutParams params = mFocusView.getLayoutParams();
+        if (params == null) {
+            return;
+        }
+        int newWidth = Math.round(width);
+        int newHeight = Math.round(height);
+        if (params.width != newWidth || params.height != newHeight) {
+            params.width = newWidth;
+            params.height = newHeight;
+            mFocusView.requestLayout();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.corey.tvfocuslib;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.ImageView;
+
+/**
+ * 焦点变化合并
+ * 按住方向键时每个经过的item都会触发焦点变化，但只有最后一个目标是可见的。
+ * 同一帧内的焦点变化只记录最新的目标，在下一个vsync时才计算位置并移动焦点框。
+ * 按键重复速度超过快速滚动阈值时，直接跳到目标位置，不显示移动动画。
+ * 只能在主线程使用。
+ */
+@SuppressLint("NewApi")
+public class FocusCoalescer implements Choreographer.FrameCallback, Runnable {
+
+    private ImageView mFocusView;
+    private FocusOverlay mFocusOverlay;
+    private View mPendingView;
+    private boolean mScheduled;
+
+    /**
+     * 快速滚动阈值，每秒焦点变化次数，0表示不启用
+     */
+    private int mFastScrollRate;
+    private long mLastPostTime;
+    private boolean mFastScrolling;
+
+    private final Choreographer mChoreographer;
+    private final Handler mHandler;
+
+    public FocusCoalescer(ImageView focusView) {
+        mFocusView = focusView;
+        if (Build.VERSION.SDK_INT >= 16) {
+            mChoreographer = Choreographer.getInstance();
+            mHandler = null;
+        } else {
+            mChoreographer = null;
+            mHandler = new Handler(Looper.getMainLooper());
+        }
+    }
+
+    public FocusCoalescer(FocusOverlay focusOverlay) {
+        this((ImageView) null);
+        mFocusOverlay = focusOverlay;
+    }
+
+    public void setFocusView(ImageView focusView) {
+        mFocusView = focusView;
+    }
+
+    /**
+     * 设置快速滚动阈值，焦点变化频率超过该值时不显示移动动画
+     *
+     * @param keyEventsPerSecond 每秒焦点变化次数，0表示不启用
+     */
+    public void setFastScrollThreshold(int keyEventsPerSecond) {
+        if (keyEventsPerSecond < 0) {
+            throw new IllegalArgumentException("keyEventsPerSecond must be >= 0");
+        }
+        mFastScrollRate = keyEventsPerSecond;
+    }
+
+    /**
+     * 当前是否处于快速滚动状态
+     */
+    public boolean isFastScrolling() {
+        return mFastScrolling;
+    }
+
+    /**
+     * 焦点移动到view，在下一帧处理
+     *
+     * @param view 新的焦点
+     */
+    public void post(View view) {
+        if (view == null) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        mFastScrolling = mFastScrollRate > 0 && mLastPostTime > 0
+                && (now - mLastPostTime) * mFastScrollRate < 1000;
+        mLastPostTime = now;
+        mPendingView = view;
+        FocusMetrics.onFocusChanged();
+        if (mScheduled) {
+            return;
+        }
+        mScheduled = true;
+        if (mChoreographer != null) {
+            mChoreographer.postFrameCallback(this);
+        } else {
+            mHandler.post(this);
+        }
+    }
+
+    /**
+     * 立即处理尚未执行的焦点移动
+     */
+    public void flush() {
+        if (mScheduled) {
+            removeCallback();
+        }
+        View view = mPendingView;
+        mPendingView = null;
+        if (view == null) {
+            return;
+        }
+        if (mFocusOverlay != null) {
+            mFocusOverlay.moveTo(view,
+                    !mFastScrolling && mFocusOverlay.getStyle().isShowAnimation());
+        } else if (mFocusView != null) {
+            FocusStyle style = FocusStyle.of(mFocusView);
+            FocusUtils.setFocusViewLocation(style, mFocusView, view,
+                    !mFastScrolling && style.isShowAnimation());
+        }
+    }
+
+    /**
+     * 取消尚未执行的焦点移动
+     */
+    public void cancel() {
+        if (mScheduled) {
+            removeCallback();
+        }
+        mPendingView = null;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mScheduled = false;
+        flush();
+    }
+
+    @Override
+    public void run() {
+        mScheduled = false;
+        flush();
+    }
+
+    private void removeCallback() {
+        mScheduled = false;
+        if (mChoreographer != null) {
+            mChoreographer.removeFrameCallback(this);
+        } else {
+            mHandler.removeCallbacks(this);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.corey.tvfocuslib;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.os.Process;
+import android.util.SparseArray;
+
+/**
+ * 焦点框图片缓存
+ * 每个图片资源只解码一次，保存解码后的ConstantState，每次获取时通过newDrawable()创建副本，
+ * 多个Activity创建焦点框时共享同一份图片数据，不会重复解码.9图。
+ * 缓存按资源id和屏幕密度区分，密度变化后重新解码。内存不足时（onTrimMemory）清空缓存。
+ * 可以在应用启动时通过{@link #prewarm}在后台线程预先解码。
+ */
+public class FocusDrawableCache {
+
+    /**
+     * 资源id对应的解码结果，一般只有一种密度
+     */
+    private static final SparseArray<Entry> sCache = new SparseArray<Entry>();
+    /**
+     * 已注册内存回调的application
+     */
+    private static Context sCallbacksContext;
+
+    private static final ComponentCallbacks2 sCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                clear();
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            clear();
+        }
+    };
+
+    /**
+     * 获取图片，已缓存时返回共享图片数据的新副本
+     *
+     * @param context
+     * @param resId   图片资源id
+     * @return
+     */
+    public static Drawable get(Context context, int resId) {
+        Resources res = context.getResources();
+        int densityDpi = res.getDisplayMetrics().densityDpi;
+        Drawable.ConstantState state;
+        synchronized (sCache) {
+            Entry entry = sCache.get(resId);
+            state = entry != null && entry.densityDpi == densityDpi ? entry.state : null;
+        }
+        if (state != null) {
+            return state.newDrawable(res);
+        }
+        return decode(context, res, resId, densityDpi);
+    }
+
+    /**
+     * 在后台线程预先解码图片，一般在Application.onCreate中调用
+     * 图片都已经缓存时直接返回，不会启动线程
+     *
+     * @param context
+     * @param resIds  图片资源id
+     * @return 是否启动了后台线程解码
+     */
+    public static boolean prewarm(Context context, int... resIds) {
+        if (context == null || resIds == null || resIds.length == 0) {
+            return false;
+        }
+        final Context appContext = context.getApplicationContext() != null
+                ? context.getApplicationContext() : context;
+        final Resources res = appContext.getResources();
+        final int densityDpi = res.getDisplayMetrics().densityDpi;
+        int missing = 0;
+        int[] pending = new int[resIds.length];
+        for (int resId : resIds) {
+            if (!contains(resId, densityDpi)) {
+                pending[missing++] = resId;
+            }
+        }
+        if (missing == 0) {
+            return false;
+        }
+        final int[] decodeIds = pending;
+        final int decodeCount = missing;
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                for (int i = 0; i < decodeCount; i++) {
+                    if (!contains(decodeIds[i], densityDpi)) {
+                        decode(appContext, res, decodeIds[i], densityDpi);
+                    }
+                }
+            }
+        }, "FocusDrawablePrewarm");
+        thread.start();
+        return true;
+    }
+
+    /**
+     * 清空缓存，已经创建的图片不受影响
+     */
+    public static void clear() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    static boolean contains(int resId, int densityDpi) {
+        synchronized (sCache) {
+            Entry entry = sCache.get(resId);
+            return entry != null && entry.densityDpi == densityDpi;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Drawable decode(Context context, Resources res, int resId, int densityDpi) {
+        Drawable drawable = res.getDrawable(resId);
+        if (drawable == null || drawable.getConstantState() == null) {
+            return drawable;
+        }
+        Context appContext = context.getApplicationContext() != null
+                ? context.getApplicationContext() : context;
+        synchronized (sCache) {
+            if (sCallbacksContext != appContext) {
+                appContext.registerComponentCallbacks(sCallbacks);
+                sCallbacksContext = appContext;
+            }
+            sCache.put(resId, new Entry(densityDpi, drawable.getConstantState()));
+        }
+        return drawable;
+    }
+
+    private static final class Entry {
+        final int densityDpi;
+        final Drawable.ConstantState state;
+
+        Entry(int densityDpi, Drawable.ConstantState state) {
+            this.densityDpi = densityDpi;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.corey.tvfocuslib;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * 焦点框背景图片的包装，按设置的大小从左上角绘制图片，不随焦点框View的大小变化
+ * {@link FocusUtils#FOCUS_MOVE_MODE_TRANSFORM}模式下焦点框的布局大小固定，移动时只改变图片的绘制大小，
+ * 不会触发layout，.9图的边框和阴影也始终按原比例绘制。
+ */
+final class FocusFrameDrawable extends Drawable implements Drawable.Callback {
+
+    /**
+     * 焦点框原来的背景，可以为null
+     */
+    private final Drawable mFrame;
+    /**
+     * 图片的绘制大小，小于0时按View的大小绘制
+     */
+    private int mWidth = -1;
+    private int mHeight = -1;
+
+    /**
+     * 获取焦点框上已有的包装，没有则返回null
+     */
+    static FocusFrameDrawable peek(View focusView) {
+        Drawable background = focusView.getBackground();
+        return background instanceof FocusFrameDrawable ? (FocusFrameDrawable) background : null;
+    }
+
+    /**
+     * 把焦点框的背景替换为包装后的图片，已经替换过时直接返回
+     * 替换背景会触发一次layout，只在初始化焦点框时调用
+     */
+    @SuppressWarnings("deprecation")
+    static FocusFrameDrawable wrap(View focusView) {
+        FocusFrameDrawable drawable = peek(focusView);
+        if (drawable == null) {
+            drawable = new FocusFrameDrawable(focusView.getBackground());
+            focusView.setBackgroundDrawable(drawable);
+        }
+        return drawable;
+    }
+
+    private FocusFrameDrawable(Drawable frame) {
+        mFrame = frame;
+        if (frame != null) {
+            frame.setCallback(this);
+        }
+    }
+
+    /**
+     * 设置图片的绘制大小，大小改变时重绘
+     */
+    void setSize(int width, int height) {
+        if (mWidth == width && mHeight == height) {
+            return;
+        }
+        mWidth = width;
+        mHeight = height;
+        // 与invalidateSelf相同，直接通知焦点框重绘
+        Callback callback = getCallback();
+        if (callback != null) {
+            callback.invalidateDrawable(this);
+        }
+    }
+
+    /**
+     * 恢复为按View的大小绘制
+     */
+    void clearSize() {
+        setSize(-1, -1);
+    }
+
+    int getFrameWidth() {
+        return mWidth >= 0 ? mWidth : getBounds().width();
+    }
+
+    int getFrameHeight() {
+        return mHeight >= 0 ? mHeight : getBounds().height();
+    }
+
+    /**
+     * 被包装的图片，用于测试
+     */
+    Drawable getFrame() {
+        return mFrame;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        if (mFrame == null) {
+            return;
+        }
+        Rect bounds = getBounds();
+        if (mWidth >= 0 && mHeight >= 0) {
+            mFrame.setBounds(bounds.left, bounds.top, bounds.left + mWidth, bounds.top + mHeight);
+        } else {
+            mFrame.setBounds(bounds);
+        }
+        mFrame.draw(canvas);
+    }
+
+    @Override
+    public boolean isStateful() {
+        return mFrame != null && mFrame.isStateful();
+    }
+
+    @Override
+    protected boolean onStateChange(int[] state) {
+        return mFrame != null && mFrame.setState(state);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mFrame != null) {
+            mFrame.setAlpha(alpha);
+        }
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        if (mFrame != null) {
+            mFrame.setColorFilter(colorFilter);
+        }
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public void invalidateDrawable(Drawable who) {
+        invalidateSelf();
+    }
+
+    @Override
+    public void scheduleDrawable(Drawable who, Runnable what, long when) {
+        scheduleSelf(what, when);
+    }
+
+    @Override
+    public void unscheduleDrawable(Drawable who, Runnable what) {
+        unscheduleSelf(what);
+    }
+}
@@ -0,0 +1,496 @@
+package com.corey.tvfocuslib;
+
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * 焦点查找的网格索引
+ * 把容器划分为固定大小的格子，每个区域记录在它覆盖的格子中。查找时从当前焦点所在的列（行）
+ * 开始向目标方向逐列（行）扫描，剩余格子中不可能有更好的候选时停止，只访问焦点附近的少量格子，
+ * 不需要像FocusFinder一样比较所有可获得焦点的view。
+ * 候选的比较规则与FocusFinder一致：先比较是否在焦点的光束（beam）内，再比较加权距离。
+ * 除方向常量外不依赖View，区域使用容器坐标，不是线程安全的。
+ */
+public final class FocusGrid {
+
+    /**
+     * 格子最小边长，px
+     */
+    public static final int MIN_CELL_SIZE = 16;
+
+    private static final int[] EMPTY = new int[0];
+
+    private int mOriginX;
+    private int mOriginY;
+    private int mCellSize = MIN_CELL_SIZE;
+    private int mCols = 1;
+    private int mRows = 1;
+    private int[][] mCells = new int[][]{EMPTY};
+    private int[] mCellCounts = new int[1];
+
+    private int mSize;
+    private int[] mLeft = new int[16];
+    private int[] mTop = new int[16];
+    private int[] mRight = new int[16];
+    private int[] mBottom = new int[16];
+    /**
+     * 区域覆盖的格子范围，包含两端
+     */
+    private int[] mColFrom = new int[16];
+    private int[] mColTo = new int[16];
+    private int[] mRowFrom = new int[16];
+    private int[] mRowTo = new int[16];
+    /**
+     * 一次查找中已经比较过的区域，区域跨多个格子时只比较一次
+     */
+    private int[] mStamps = new int[16];
+    private int mStamp;
+    /**
+     * 查找过程中光束内、外的最佳候选
+     */
+    private int mBestIn;
+    private long mScoreIn;
+    private long mMajorIn;
+    private int mBestOut;
+    private long mScoreOut;
+
+    /**
+     * 清空索引并重新划分格子
+     *
+     * @param left     容器区域
+     * @param top
+     * @param right
+     * @param bottom
+     * @param cellSize 格子边长，一般取区域的平均边长
+     */
+    public void reset(int left, int top, int right, int bottom, int cellSize) {
+        mOriginX = left;
+        mOriginY = top;
+        mCellSize = Math.max(MIN_CELL_SIZE, cellSize);
+        mCols = Math.max(1, (right - left + mCellSize - 1) / mCellSize);
+        mRows = Math.max(1, (bottom - top + mCellSize - 1) / mCellSize);
+        int count = mCols * mRows;
+        if (mCells.length < count) {
+            mCells = new int[count][];
+            mCellCounts = new int[count];
+        }
+        Arrays.fill(mCells, EMPTY);
+        Arrays.fill(mCellCounts, 0);
+        mSize = 0;
+    }
+
+    /**
+     * 清空索引，保留格子划分
+     */
+    public void clear() {
+        Arrays.fill(mCellCounts, 0);
+        mSize = 0;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 添加区域
+     *
+     * @return 区域的编号，从0开始依次递增
+     */
+    public int add(int left, int top, int right, int bottom) {
+        int id = mSize;
+        if (id == mLeft.length) {
+            int capacity = id * 2;
+            mLeft = Arrays.copyOf(mLeft, capacity);
+            mTop = Arrays.copyOf(mTop, capacity);
+            mRight = Arrays.copyOf(mRight, capacity);
+            mBottom = Arrays.copyOf(mBottom, capacity);
+            mColFrom = Arrays.copyOf(mColFrom, capacity);
+            mColTo = Arrays.copyOf(mColTo, capacity);
+            mRowFrom = Arrays.copyOf(mRowFrom, capacity);
+            mRowTo = Arrays.copyOf(mRowTo, capacity);
+            mStamps = Arrays.copyOf(mStamps, capacity);
+        }
+        mSize++;
+        mStamps[id] = mStamp;
+        setBounds(id, left, top, right, bottom);
+        insert(id);
+        return id;
+    }
+
+    /**
+     * 更新区域的位置，覆盖的格子不变时不需要修改格子
+     *
+     * @param id {@link #add}返回的编号
+     */
+    public void set(int id, int left, int top, int right, int bottom) {
+        if (id < 0 || id >= mSize) {
+            throw new IndexOutOfBoundsException("id: " + id + ", size: " + mSize);
+        }
+        int colFrom = col(left);
+        int rowFrom = row(top);
+        if (colFrom == mColFrom[id] && rowFrom == mRowFrom[id]
+                && Math.max(colFrom, col(right - 1)) == mColTo[id]
+                && Math.max(rowFrom, row(bottom - 1)) == mRowTo[id]) {
+            mLeft[id] = left;
+            mTop[id] = top;
+            mRight[id] = right;
+            mBottom[id] = bottom;
+            return;
+        }
+        remove(id);
+        setBounds(id, left, top, right, bottom);
+        insert(id);
+    }
+
+    /**
+     * 区域的左边界
+     *
+     * @param id {@link #add}返回的编号
+     */
+    public int getLeft(int id) {
+        return mLeft[id];
+    }
+
+    /**
+     * 区域的上边界
+     *
+     * @param id {@link #add}返回的编号
+     */
+    public int getTop(int id) {
+        return mTop[id];
+    }
+
+    /**
+     * 查找从source区域向direction方向移动焦点的下一个区域
+     *
+     * @param direction {@link View#FOCUS_LEFT}、{@link View#FOCUS_UP}、
+     *                  {@link View#FOCUS_RIGHT}或{@link View#FOCUS_DOWN}
+     * @return 区域编号，没有时返回-1
+     */
+    public int search(int left, int top, int right, int bottom, int direction) {
+        boolean horizontal;
+        int first;
+        int step;
+        switch (direction) {
+            case View.FOCUS_LEFT:
+                horizontal = true;
+                first = col(right - 1);
+                step = -1;
+                break;
+            case View.FOCUS_RIGHT:
+                horizontal = true;
+                first = col(left);
+                step = 1;
+                break;
+            case View.FOCUS_UP:
+                horizontal = false;
+                first = row(bottom - 1);
+                step = -1;
+                break;
+            case View.FOCUS_DOWN:
+                horizontal = false;
+                first = row(top);
+                step = 1;
+                break;
+            default:
+                throw new IllegalArgumentException("direction must be one of "
+                        + "{FOCUS_UP, FOCUS_DOWN, FOCUS_LEFT, FOCUS_RIGHT}.");
+        }
+        int lineCount = horizontal ? mCols : mRows;
+        int crossCount = horizontal ? mRows : mCols;
+        // 光束包含边缘相接的区域
+        int beamFrom = horizontal ? row(top - 1) : col(left - 1);
+        int beamTo = horizontal ? row(bottom) : col(right);
+        int stamp = ++mStamp;
+        // 光束外的格子按到焦点中心的距离从近到远扫描，候选的次轴距离不小于格子到焦点中心的距离
+        long center = horizontal ? top + (bottom - top) / 2 : left + (right - left) / 2;
+
+        // 光束内和光束外的最佳候选分别查找，最后按FocusFinder的规则比较，结果与候选的顺序无关
+        mBestIn = -1;
+        mScoreIn = Long.MAX_VALUE;
+        mMajorIn = 0;
+        mBestOut = -1;
+        mScoreOut = Long.MAX_VALUE;
+        // 先扫描光束内的格子，找到光束内的最佳候选
+        for (int line = first; line >= 0 && line < lineCount; line += step) {
+            long distance = lineDistance(line, direction, left, top, right, bottom);
+            if (mBestIn >= 0 && 13 * distance * distance > mScoreIn) {
+                break;
+            }
+            for (int cross = beamFrom; cross <= beamTo; cross++) {
+                scanCell(horizontal ? cross * mCols + line : line * mCols + cross, stamp,
+                        direction, horizontal, left, top, right, bottom);
+            }
+        }
+        // 左右移动时光束内的候选总是优先
+        if (horizontal && mBestIn >= 0) {
+            return mBestIn;
+        }
+        // 再扫描所有格子找光束外的最佳候选，上下移动时主轴距离比光束内的最佳候选更远的不会胜出
+        for (int line = first; line >= 0 && line < lineCount; line += step) {
+            long distance = lineDistance(line, direction, left, top, right, bottom);
+            long bound = 13 * distance * distance;
+            if ((mBestOut >= 0 && bound > mScoreOut) || (mBestIn >= 0 && distance > mMajorIn)) {
+                break;
+            }
+            for (int cross = beamFrom; cross <= beamTo; cross++) {
+                scanCell(horizontal ? cross * mCols + line : line * mCols + cross, stamp,
+                        direction, horizontal, left, top, right, bottom);
+            }
+            for (int offset = 1; ; offset++) {
+                int low = beamFrom - offset;
+                int high = beamTo + offset;
+                boolean lowActive = low >= 0 && (mBestOut < 0
+                        || bound + square(crossDistance(low, horizontal, center)) <= mScoreOut);
+                boolean highActive = high < crossCount && (mBestOut < 0
+                        || bound + square(crossDistance(high, horizontal, center)) <= mScoreOut);
+                if (!lowActive && !highActive) {
+                    break;
+                }
+                if (lowActive) {
+                    scanCell(horizontal ? low * mCols + line : line * mCols + low, stamp,
+                            direction, horizontal, left, top, right, bottom);
+                }
+                if (highActive) {
+                    scanCell(horizontal ? high * mCols + line : line * mCols + high, stamp,
+                            direction, horizontal, left, top, right, bottom);
+                }
+            }
+        }
+        int bestIn = mBestIn;
+        int bestOut = mBestOut;
+        if (bestIn < 0 || bestOut < 0) {
+            return bestIn >= 0 ? bestIn : bestOut;
+        }
+        // 对应FocusFinder.beamBeats
+        if (horizontal || !isToDirectionOf(bestOut, direction, left, top, right, bottom)
+                || mMajorIn < farEdgeDistance(bestOut, direction, left, top, right, bottom)) {
+            return bestIn;
+        }
+        return mScoreOut < mScoreIn || (mScoreOut == mScoreIn && bestOut < bestIn)
+                ? bestOut : bestIn;
+    }
+
+    private void scanCell(int cell, int stamp, int direction, boolean horizontal,
+                          int left, int top, int right, int bottom) {
+        int[] items = mCells[cell];
+        for (int k = mCellCounts[cell] - 1; k >= 0; k--) {
+            int id = items[k];
+            if (mStamps[id] == stamp) {
+                continue;
+            }
+            mStamps[id] = stamp;
+            if (!isCandidate(id, direction, left, top, right, bottom)) {
+                continue;
+            }
+            long major = majorDistance(id, direction, left, top, right, bottom);
+            long minor = minorDistance(id, horizontal, left, top, right, bottom);
+            long score = 13 * major * major + minor * minor;
+            // 距离相同时与FocusFinder一样取添加顺序在前的
+            if (beamsOverlap(id, horizontal, left, top, right, bottom)) {
+                if (score < mScoreIn || (score == mScoreIn && id < mBestIn)) {
+                    mBestIn = id;
+                    mScoreIn = score;
+                    mMajorIn = major;
+                }
+            } else if (score < mScoreOut || (score == mScoreOut && id < mBestOut)) {
+                mBestOut = id;
+                mScoreOut = score;
+            }
+        }
+    }
+
+    /**
+     * 第一次在该格子遇到的区域的中心到焦点中心的最小距离，边缘的格子向外无限延伸
+     */
+    private long crossDistance(int cross, boolean horizontal, long center) {
+        long origin = horizontal ? mOriginY : mOriginX;
+        int last = horizontal ? mRows - 1 : mCols - 1;
+        if (cross > 0) {
+            long start = origin + (long) cross * mCellSize;
+            if (center < start) {
+                return start - center;
+            }
+        }
+        if (cross < last) {
+            long end = origin + (long) (cross + 1) * mCellSize;
+            if (center >= end) {
+                return center - end + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static long square(long value) {
+        return value * value;
+    }
+
+    private void setBounds(int id, int left, int top, int right, int bottom) {
+        mLeft[id] = left;
+        mTop[id] = top;
+        mRight[id] = right;
+        mBottom[id] = bottom;
+        mColFrom[id] = col(left);
+        mRowFrom[id] = row(top);
+        mColTo[id] = Math.max(mColFrom[id], col(right - 1));
+        mRowTo[id] = Math.max(mRowFrom[id], row(bottom - 1));
+    }
+
+    private void insert(int id) {
+        for (int row = mRowFrom[id]; row <= mRowTo[id]; row++) {
+            for (int col = mColFrom[id]; col <= mColTo[id]; col++) {
+                int cell = row * mCols + col;
+                int count = mCellCounts[cell];
+                int[] items = mCells[cell];
+                if (count == items.length) {
+                    items = Arrays.copyOf(items, Math.max(4, count * 2));
+                    mCells[cell] = items;
+                }
+                items[count] = id;
+                mCellCounts[cell] = count + 1;
+            }
+        }
+    }
+
+    private void remove(int id) {
+        for (int row = mRowFrom[id]; row <= mRowTo[id]; row++) {
+            for (int col = mColFrom[id]; col <= mColTo[id]; col++) {
+                int cell = row * mCols + col;
+                int[] items = mCells[cell];
+                int count = mCellCounts[cell];
+                for (int k = 0; k < count; k++) {
+                    if (items[k] == id) {
+                        items[k] = items[count - 1];
+                        mCellCounts[cell] = count - 1;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 超出容器的区域记录在边缘的格子中
+     */
+    private int col(int x) {
+        if (x < mOriginX) {
+            return 0;
+        }
+        return Math.min(mCols - 1, (x - mOriginX) / mCellSize);
+    }
+
+    private int row(int y) {
+        if (y < mOriginY) {
+            return 0;
+        }
+        return Math.min(mRows - 1, (y - mOriginY) / mCellSize);
+    }
+
+    /**
+     * 第一次在该列（行）遇到的区域到source的最小主轴距离，边缘的格子向外无限延伸
+     */
+    private long lineDistance(int line, int direction, int left, int top, int right, int bottom) {
+        long distance;
+        switch (direction) {
+            case View.FOCUS_LEFT:
+                distance = line == mCols - 1 ? 0
+                        : left - ((long) mOriginX + (long) (line + 1) * mCellSize);
+                break;
+            case View.FOCUS_RIGHT:
+                distance = line == 0 ? 0 : (long) mOriginX + (long) line * mCellSize - right;
+                break;
+            case View.FOCUS_UP:
+                distance = line == mRows - 1 ? 0
+                        : top - ((long) mOriginY + (long) (line + 1) * mCellSize);
+                break;
+            default:
+                distance = line == 0 ? 0 : (long) mOriginY + (long) line * mCellSize - bottom;
+                break;
+        }
+        return Math.max(0, distance);
+    }
+
+    private boolean isCandidate(int id, int direction, int left, int top, int right, int bottom) {
+        switch (direction) {
+            case View.FOCUS_LEFT:
+                return (right > mRight[id] || left >= mRight[id]) && left > mLeft[id];
+            case View.FOCUS_RIGHT:
+                return (left < mLeft[id] || right <= mLeft[id]) && right < mRight[id];
+            case View.FOCUS_UP:
+                return (bottom > mBottom[id] || top >= mBottom[id]) && top > mTop[id];
+            default:
+                return (top < mTop[id] || bottom <= mTop[id]) && bottom < mBottom[id];
+        }
+    }
+
+    private boolean beamsOverlap(int id, boolean horizontal,
+                                 int left, int top, int right, int bottom) {
+        if (horizontal) {
+            return mBottom[id] >= top && mTop[id] <= bottom;
+        }
+        return mRight[id] >= left && mLeft[id] <= right;
+    }
+
+    private boolean isToDirectionOf(int id, int direction,
+                                    int left, int top, int right, int bottom) {
+        switch (direction) {
+            case View.FOCUS_LEFT:
+                return left >= mRight[id];
+            case View.FOCUS_RIGHT:
+                return right <= mLeft[id];
+            case View.FOCUS_UP:
+                return top >= mBottom[id];
+            default:
+                return bottom <= mTop[id];
+        }
+    }
+
+    private long majorDistance(int id, int direction, int left, int top, int right, int bottom) {
+        long distance;
+        switch (direction) {
+            case View.FOCUS_LEFT:
+                distance = (long) left - mRight[id];
+                break;
+            case View.FOCUS_RIGHT:
+                distance = (long) mLeft[id] - right;
+                break;
+            case View.FOCUS_UP:
+                distance = (long) top - mBottom[id];
+                break;
+            default:
+                distance = (long) mTop[id] - bottom;
+                break;
+        }
+        return Math.max(0, distance);
+    }
+
+    private long farEdgeDistance(int id, int direction, int left, int top, int right, int bottom) {
+        long distance;
+        switch (direction) {
+            case View.FOCUS_LEFT:
+                distance = (long) left - mLeft[id];
+                break;
+            case View.FOCUS_RIGHT:
+                distance = (long) mRight[id] - right;
+                break;
+            case View.FOCUS_UP:
+                distance = (long) top - mTop[id];
+                break;
+            default:
+                distance = (long) mBottom[id] - bottom;
+                break;
+        }
+        return Math.max(1, distance);
+    }
+
+    private long minorDistance(int id, boolean horizontal,
+                               int left, int top, int right, int bottom) {
+        if (horizontal) {
+            return Math.abs((long) (top + (bottom - top) / 2)
+                    - (mTop[id] + (mBottom[id] - mTop[id]) / 2));
+        }
+        return Math.abs((long) (left + (right - left) / 2)
+                - (mLeft[id] + (mRight[id] - mLeft[id]) / 2));
+    }
+}
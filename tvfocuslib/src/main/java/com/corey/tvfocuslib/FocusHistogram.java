@@ -0,0 +1,127 @@
+package com.corey.tvfocuslib;
+
+/**
+ * 固定分桶的直方图，用于统计焦点移动的耗时、丢帧等分布
+ * 记录时只做一次二分查找和计数，不分配对象。只能在主线程使用。
+ */
+public class FocusHistogram {
+
+    private final long[] mUpperBounds;
+    /**
+     * 最后一个桶记录超过最大上界的值
+     */
+    private final long[] mCounts;
+    private long mCount;
+    private long mSum;
+    private long mMax;
+
+    /**
+     * @param upperBounds 各个桶的上界（包含），需要递增
+     */
+    public FocusHistogram(long... upperBounds) {
+        if (upperBounds == null || upperBounds.length == 0) {
+            throw new IllegalArgumentException("upperBounds must not be empty");
+        }
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("upperBounds must be increasing");
+            }
+        }
+        mUpperBounds = upperBounds.clone();
+        mCounts = new long[upperBounds.length + 1];
+    }
+
+    /**
+     * 记录一个值
+     */
+    public void record(long value) {
+        int low = 0;
+        int high = mUpperBounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mUpperBounds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        mCounts[low]++;
+        mCount++;
+        mSum += value;
+        if (value > mMax) {
+            mMax = value;
+        }
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public double getMean() {
+        return mCount == 0 ? 0 : (double) mSum / mCount;
+    }
+
+    /**
+     * 获取百分位数，返回所在桶的上界，超过最大上界时返回最大值
+     *
+     * @param percentile 0~100，如50、90、99
+     * @return 没有记录时返回0
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]");
+        }
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * mCount);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < mUpperBounds.length; i++) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return Math.min(mUpperBounds[i], mMax);
+            }
+        }
+        return mMax;
+    }
+
+    /**
+     * 桶的数量，包含超过最大上界的桶
+     */
+    public int getBucketCount() {
+        return mCounts.length;
+    }
+
+    /**
+     * 桶的上界，最后一个桶返回Long.MAX_VALUE
+     */
+    public long getBucketUpperBound(int index) {
+        return index < mUpperBounds.length ? mUpperBounds[index] : Long.MAX_VALUE;
+    }
+
+    /**
+     * 桶中记录的数量
+     */
+    public long getBucketValueCount(int index) {
+        return mCounts[index];
+    }
+
+    /**
+     * 清空记录
+     */
+    public void reset() {
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+    }
+}
@@ -0,0 +1,584 @@
+package com.corey.tvfocuslib;
+
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * 容器内的焦点查找
+ * 系统的FocusFinder每次按方向键都会收集并比较容器中所有可获得焦点的view，
+ * 可获得焦点的view有几百个时开销明显。FocusIndex把可获得焦点的view的区域保存在{@link FocusGrid}中，
+ * 查找时只比较焦点附近的格子，格子覆盖所有区域的并集。
+ * 与FocusFinder相同，当前焦点通过nextFocusLeftId等指定了下一个焦点时优先使用指定的view。
+ * 索引中的view和它们的各级父布局都监听布局变化，重新布局后在下一次查找时只更新位置或大小改变的区域，
+ * 父布局位置改变时更新其中的所有区域；父布局的子view数量变化、或出现新的可获得焦点的view时重建索引。
+ * 不能获得焦点的view（如每帧改变大小的焦点框）的布局不影响索引。
+ * 有View滚动时不更新索引，查找时按焦点滚动的距离平移查找区域，结果不符合整体平移时（如滚动时加入了新的view）再重建索引。
+ * 在容器的focusSearch中使用：
+ * <pre>
+ * public View focusSearch(View focused, int direction) {
+ *     View next = FocusIndex.attach(this).findNextFocus(focused, direction);
+ *     return next != null ? next : super.focusSearch(focused, direction);
+ * }
+ * </pre>
+ * 只能在主线程使用。
+ */
+public class FocusIndex implements View.OnLayoutChangeListener,
+        ViewTreeObserver.OnScrollChangedListener {
+
+    private final ViewGroup mContainer;
+    private final ViewTreeObserver mObserver;
+    private final FocusGrid mGrid = new FocusGrid();
+    /**
+     * 索引中的view，下标即区域编号
+     */
+    private ArrayList<View> mViews = new ArrayList<View>();
+    private ArrayList<View> mFocusables = new ArrayList<View>();
+    private final Rect mTmpRect = new Rect();
+    private final Rect mResultRect = new Rect();
+    private boolean mDirty = true;
+    /**
+     * 重新布局后位置或大小改变的区域，下一次查找时更新
+     */
+    private int[] mMovedIds = new int[16];
+    private int mMovedCount;
+    /**
+     * 所有区域都需要更新位置
+     */
+    private boolean mAllMoved;
+    /**
+     * 监听布局的view：索引中的view，以及各级父布局中的其他子view
+     */
+    private final ArrayList<View> mWatchedViews = new ArrayList<View>();
+    /**
+     * 索引中的view的各级父布局，包含容器
+     */
+    private final ArrayList<GroupWatcher> mGroupWatchers = new ArrayList<GroupWatcher>();
+    private int mRebuildCount;
+    /**
+     * 索引建立后有View滚动过，索引中的位置可能整体平移
+     */
+    private boolean mScrolled;
+    /**
+     * 上一次查找的焦点在索引中的编号
+     */
+    private int mLastFocusedId = -1;
+
+    /**
+     * 获取容器对应的FocusIndex，没有则创建
+     *
+     * @param container 需要查找焦点的容器
+     * @return
+     */
+    public static FocusIndex attach(ViewGroup container) {
+        if (container == null) {
+            return null;
+        }
+        Object tag = container.getTag(R.id.tv_focus_index);
+        if (tag instanceof FocusIndex) {
+            return (FocusIndex) tag;
+        }
+        FocusIndex index = new FocusIndex(container);
+        container.setTag(R.id.tv_focus_index, index);
+        return index;
+    }
+
+    /**
+     * 获取容器已有的FocusIndex，不创建
+     */
+    static FocusIndex peek(View container) {
+        Object tag = container.getTag(R.id.tv_focus_index);
+        return tag instanceof FocusIndex ? (FocusIndex) tag : null;
+    }
+
+    private FocusIndex(ViewGroup container) {
+        mContainer = container;
+        mObserver = container.getViewTreeObserver();
+        mObserver.addOnScrollChangedListener(this);
+    }
+
+    /**
+     * 查找下一个焦点
+     *
+     * @param focused   当前焦点，需要在容器中
+     * @param direction {@link View#FOCUS_LEFT}、{@link View#FOCUS_UP}、
+     *                  {@link View#FOCUS_RIGHT}或{@link View#FOCUS_DOWN}
+     * @return 容器中没有该方向的焦点、或不支持该方向时返回null，此时使用系统的查找
+     */
+    public View findNextFocus(View focused, int direction) {
+        if (direction != View.FOCUS_LEFT && direction != View.FOCUS_RIGHT
+                && direction != View.FOCUS_UP && direction != View.FOCUS_DOWN) {
+            return null;
+        }
+        if (focused == null || focused == mContainer || !isDescendant(focused)) {
+            return null;
+        }
+        View userSet = findUserSetNextFocus(focused, direction);
+        if (userSet != null) {
+            return userSet;
+        }
+        refresh();
+        Rect rect = mTmpRect;
+        getRect(focused, rect);
+        if (mScrolled) {
+            View next = searchScrolled(focused, rect, direction);
+            if (next != null) {
+                return next;
+            }
+            // 不是整体平移，重建索引后重新查找，refresh会覆盖rect
+            mDirty = true;
+            refresh();
+            getRect(focused, rect);
+        }
+        View next = search(rect, direction);
+        if (next != null && !isAvailable(next)) {
+            // 隐藏、不能获得焦点或已经移除的view不一定引起布局变化，重建索引后重新查找
+            mDirty = true;
+            refresh();
+            getRect(focused, rect);
+            next = search(rect, direction);
+        }
+        return next;
+    }
+
+    private View search(Rect rect, int direction) {
+        int id = mGrid.search(rect.left, rect.top, rect.right, rect.bottom, direction);
+        return id >= 0 ? mViews.get(id) : null;
+    }
+
+    /**
+     * 有View滚动后按焦点移动的距离平移查找区域
+     *
+     * @param rect 焦点当前的区域
+     * @return 结果也平移了相同的距离时返回结果，否则返回null
+     */
+    private View searchScrolled(View focused, Rect rect, int direction) {
+        int focusedId = indexOf(focused);
+        if (focusedId < 0) {
+            return null;
+        }
+        int dx = rect.left - mGrid.getLeft(focusedId);
+        int dy = rect.top - mGrid.getTop(focusedId);
+        int id = mGrid.search(rect.left - dx, rect.top - dy, rect.right - dx, rect.bottom - dy, direction);
+        if (id < 0) {
+            // 可能有新的view滚动进来
+            return null;
+        }
+        View next = mViews.get(id);
+        if (!isAvailable(next)) {
+            return null;
+        }
+        Rect result = mResultRect;
+        getRect(next, result);
+        if (result.left - mGrid.getLeft(id) != dx || result.top - mGrid.getTop(id) != dy) {
+            return null;
+        }
+        return next;
+    }
+
+    /**
+     * 与FocusFinder相同，优先使用nextFocusLeftId等指定的下一个焦点
+     * 8.0开始指定的view不能获得焦点时，继续使用该view指定的下一个焦点，出现循环时停止；
+     * 之前的版本只使用直接指定的view
+     *
+     * @return 没有指定或指定的view不能获得焦点时返回null
+     */
+    private View findUserSetNextFocus(View focused, int direction) {
+        View next = findUserSetNext(focused, direction);
+        if (Build.VERSION.SDK_INT < 26) {
+            return next != null && next.isFocusable()
+                    && (!next.isInTouchMode() || next.isFocusableInTouchMode()) ? next : null;
+        }
+        View cycleCheck = next;
+        boolean cycleStep = true;
+        while (next != null) {
+            if (next.isFocusable() && next.getVisibility() == View.VISIBLE
+                    && (!next.isInTouchMode() || next.isFocusableInTouchMode())) {
+                return next;
+            }
+            next = findUserSetNext(next, direction);
+            cycleStep = !cycleStep;
+            if (cycleStep) {
+                cycleCheck = findUserSetNext(cycleCheck, direction);
+                if (cycleCheck == next) {
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static View findUserSetNext(View view, int direction) {
+        int id;
+        switch (direction) {
+            case View.FOCUS_LEFT:
+                id = view.getNextFocusLeftId();
+                break;
+            case View.FOCUS_RIGHT:
+                id = view.getNextFocusRightId();
+                break;
+            case View.FOCUS_UP:
+                id = view.getNextFocusUpId();
+                break;
+            default:
+                id = view.getNextFocusDownId();
+                break;
+        }
+        if (id == View.NO_ID) {
+            return null;
+        }
+        // 与View.findViewInsideOutShouldExist相同，从view开始向上逐层查找，使用最近的同id的view
+        View current = view;
+        while (true) {
+            View found = current.findViewById(id);
+            if (found != null) {
+                return found;
+            }
+            ViewParent parent = current.getParent();
+            if (!(parent instanceof View)) {
+                return null;
+            }
+            current = (View) parent;
+        }
+    }
+
+    private int indexOf(View view) {
+        int id = mLastFocusedId;
+        if (id < 0 || id >= mViews.size() || mViews.get(id) != view) {
+            id = mViews.indexOf(view);
+            mLastFocusedId = id;
+        }
+        return id;
+    }
+
+    /**
+     * 标记索引需要更新，容器内容变化但没有触发布局时调用
+     */
+    public void invalidate() {
+        mDirty = true;
+    }
+
+    /**
+     * 移除监听并释放索引
+     */
+    public void release() {
+        if (mObserver.isAlive()) {
+            mObserver.removeOnScrollChangedListener(this);
+        }
+        unwatch();
+        mViews.clear();
+        mGrid.clear();
+        mDirty = true;
+        mContainer.setTag(R.id.tv_focus_index, null);
+    }
+
+    /**
+     * 重建索引的次数，测试使用
+     */
+    int getRebuildCount() {
+        return mRebuildCount;
+    }
+
+    /**
+     * 索引中的view、或父布局中的其他子view重新布局
+     */
+    @Override
+    public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        Object tag = v.getTag(R.id.tv_focus_index_id);
+        if (tag instanceof Integer) {
+            if (left != oldLeft || top != oldTop || right != oldRight || bottom != oldBottom) {
+                markMoved((Integer) tag);
+            }
+        } else if (!mDirty && hasFocusables(v)) {
+            // 不在索引中的view变为可见或加入了可获得焦点的view
+            mDirty = true;
+        }
+    }
+
+    @Override
+    public void onScrollChanged() {
+        mScrolled = true;
+    }
+
+    private void refresh() {
+        if (mDirty) {
+            rebuild();
+            return;
+        }
+        if (mMovedCount == 0 && !mAllMoved) {
+            return;
+        }
+        Rect rect = mTmpRect;
+        if (mAllMoved || mScrolled) {
+            // 有滚动时其他区域可能也整体平移了，全部更新
+            for (int i = 0, size = mViews.size(); i < size; i++) {
+                getRect(mViews.get(i), rect);
+                mGrid.set(i, rect.left, rect.top, rect.right, rect.bottom);
+            }
+            mScrolled = false;
+        } else {
+            for (int i = 0; i < mMovedCount; i++) {
+                int id = mMovedIds[i];
+                getRect(mViews.get(id), rect);
+                mGrid.set(id, rect.left, rect.top, rect.right, rect.bottom);
+            }
+        }
+        mMovedCount = 0;
+        mAllMoved = false;
+    }
+
+    private void rebuild() {
+        mDirty = false;
+        mScrolled = false;
+        mMovedCount = 0;
+        mAllMoved = false;
+        mRebuildCount++;
+        ArrayList<View> focusables = mFocusables;
+        focusables.clear();
+        mContainer.addFocusables(focusables, View.FOCUS_DOWN);
+        focusables.remove(mContainer);
+        Rect rect = mTmpRect;
+        if (sameViews(focusables, mViews)) {
+            // 可获得焦点的view没有变化，只更新位置
+            for (int i = 0, size = focusables.size(); i < size; i++) {
+                getRect(focusables.get(i), rect);
+                mGrid.set(i, rect.left, rect.top, rect.right, rect.bottom);
+            }
+            focusables.clear();
+            if (!isWatching()) {
+                unwatch();
+                watch();
+            }
+            return;
+        }
+        unwatch();
+        mFocusables = mViews;
+        mFocusables.clear();
+        mViews = focusables;
+        long sizeSum = 0;
+        for (int i = 0, size = focusables.size(); i < size; i++) {
+            View view = focusables.get(i);
+            sizeSum += Math.max(view.getWidth(), view.getHeight());
+        }
+        int cellSize = focusables.isEmpty() ? 0 : (int) (sizeSum / focusables.size());
+        // 格子覆盖所有区域的并集，可滚动的容器中区域可能超出容器
+        Rect bounds = mResultRect;
+        bounds.setEmpty();
+        for (int i = 0, size = focusables.size(); i < size; i++) {
+            getRect(focusables.get(i), rect);
+            bounds.union(rect);
+        }
+        mGrid.reset(bounds.left, bounds.top, bounds.right, bounds.bottom, cellSize);
+        for (int i = 0, size = focusables.size(); i < size; i++) {
+            getRect(focusables.get(i), rect);
+            mGrid.add(rect.left, rect.top, rect.right, rect.bottom);
+        }
+        mLastFocusedId = -1;
+        watch();
+    }
+
+    /**
+     * 监听索引中的view、它们的各级父布局和父布局中的其他子view的布局变化
+     */
+    private void watch() {
+        watchGroup(mContainer);
+        ArrayList<View> views = mViews;
+        for (int i = 0, size = views.size(); i < size; i++) {
+            View view = views.get(i);
+            view.setTag(R.id.tv_focus_index_id, i);
+            view.addOnLayoutChangeListener(this);
+            mWatchedViews.add(view);
+            ViewParent parent = view.getParent();
+            while (parent instanceof ViewGroup && watchGroup((ViewGroup) parent)) {
+                parent = parent.getParent();
+            }
+        }
+        for (int i = 0, size = mGroupWatchers.size(); i < size; i++) {
+            ViewGroup group = mGroupWatchers.get(i).mGroup;
+            for (int j = 0, count = group.getChildCount(); j < count; j++) {
+                View child = group.getChildAt(j);
+                if (child.getTag(R.id.tv_focus_index_id) == null
+                        && child.getTag(R.id.tv_focus_index_group) == null) {
+                    child.addOnLayoutChangeListener(this);
+                    mWatchedViews.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 是否新监听了该父布局，已经监听或不在容器中时返回false
+     */
+    private boolean watchGroup(ViewGroup group) {
+        if (group.getTag(R.id.tv_focus_index_group) != null
+                || (group != mContainer && !isDescendant(group))) {
+            return false;
+        }
+        GroupWatcher watcher = new GroupWatcher(group);
+        group.setTag(R.id.tv_focus_index_group, watcher);
+        group.addOnLayoutChangeListener(watcher);
+        mGroupWatchers.add(watcher);
+        return true;
+    }
+
+    /**
+     * 监听的父布局都没有变化，滚动后重建时不需要重新监听
+     */
+    private boolean isWatching() {
+        for (int i = 0, size = mGroupWatchers.size(); i < size; i++) {
+            GroupWatcher watcher = mGroupWatchers.get(i);
+            ViewGroup group = watcher.mGroup;
+            if (group.getChildCount() != watcher.mChildCount
+                    || (group != mContainer && !isDescendant(group))) {
+                return false;
+            }
+        }
+        return !mGroupWatchers.isEmpty();
+    }
+
+    private void unwatch() {
+        for (int i = 0, size = mWatchedViews.size(); i < size; i++) {
+            View view = mWatchedViews.get(i);
+            view.removeOnLayoutChangeListener(this);
+            view.setTag(R.id.tv_focus_index_id, null);
+        }
+        mWatchedViews.clear();
+        for (int i = 0, size = mGroupWatchers.size(); i < size; i++) {
+            ViewGroup group = mGroupWatchers.get(i).mGroup;
+            group.removeOnLayoutChangeListener(mGroupWatchers.get(i));
+            group.setTag(R.id.tv_focus_index_group, null);
+        }
+        mGroupWatchers.clear();
+    }
+
+    private void markMoved(int id) {
+        if (mDirty || mAllMoved) {
+            return;
+        }
+        if (mMovedCount >= mViews.size() / 4) {
+            // 改变的区域较多时直接全部更新
+            mAllMoved = true;
+            return;
+        }
+        if (mMovedCount == mMovedIds.length) {
+            mMovedIds = Arrays.copyOf(mMovedIds, mMovedCount * 2);
+        }
+        mMovedIds[mMovedCount++] = id;
+    }
+
+    /**
+     * 位置改变的父布局中的view不会收到布局回调，更新其中的所有区域
+     */
+    private void markSubtreeMoved(ViewGroup group) {
+        for (int i = 0, count = group.getChildCount(); i < count && !mAllMoved; i++) {
+            View child = group.getChildAt(i);
+            Object tag = child.getTag(R.id.tv_focus_index_id);
+            if (tag instanceof Integer) {
+                markMoved((Integer) tag);
+            }
+            if (child.getTag(R.id.tv_focus_index_group) != null) {
+                markSubtreeMoved((ViewGroup) child);
+            }
+        }
+    }
+
+    /**
+     * 不在索引中的view是否可以获得焦点、或包含可以获得焦点的view，如焦点框等不能获得焦点的view返回false
+     */
+    private boolean hasFocusables(View view) {
+        if (view.getVisibility() != View.VISIBLE) {
+            return false;
+        }
+        if (!(view instanceof ViewGroup)) {
+            return view.isFocusable();
+        }
+        ArrayList<View> focusables = mFocusables;
+        view.addFocusables(focusables, View.FOCUS_DOWN);
+        boolean found = !focusables.isEmpty();
+        focusables.clear();
+        return found;
+    }
+
+    private void getRect(View view, Rect rect) {
+        view.getDrawingRect(rect);
+        mContainer.offsetDescendantRectToMyCoords(view, rect);
+    }
+
+    /**
+     * 逐个比较，ArrayList.equals会创建迭代器
+     */
+    private static boolean sameViews(ArrayList<View> a, ArrayList<View> b) {
+        int size = a.size();
+        if (size != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (a.get(i) != b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * view仍在容器中、可见并且可以获得焦点
+     */
+    private boolean isAvailable(View view) {
+        if (!view.isFocusable() || view.getVisibility() != View.VISIBLE) {
+            return false;
+        }
+        ViewParent parent = view.getParent();
+        while (parent instanceof View) {
+            if (parent == mContainer) {
+                return true;
+            }
+            if (((View) parent).getVisibility() != View.VISIBLE) {
+                return false;
+            }
+            parent = parent.getParent();
+        }
+        return false;
+    }
+
+    private boolean isDescendant(View view) {
+        ViewParent parent = view.getParent();
+        while (parent instanceof View) {
+            if (parent == mContainer) {
+                return true;
+            }
+            parent = parent.getParent();
+        }
+        return false;
+    }
+
+    /**
+     * 索引中的view的父布局：子view数量变化时重建索引，位置改变时更新其中的所有区域
+     */
+    private class GroupWatcher implements View.OnLayoutChangeListener {
+        final ViewGroup mGroup;
+        final int mChildCount;
+
+        GroupWatcher(ViewGroup group) {
+            mGroup = group;
+            mChildCount = group.getChildCount();
+        }
+
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (mGroup.getChildCount() != mChildCount) {
+                mDirty = true;
+            } else if (mGroup != mContainer && (left != oldLeft || top != oldTop)) {
+                // 坐标相对于容器，容器自身的移动不影响区域
+                markSubtreeMoved(mGroup);
+            }
+        }
+    }
+}
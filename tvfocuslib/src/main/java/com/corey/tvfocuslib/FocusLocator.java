@@ -0,0 +1,124 @@
+package com.corey.tvfocuslib;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+
+/**
+ * 计算view相对于焦点框父布局的位置
+ * 使用offsetDescendantRectToMyCoords代替getLocationOnScreen，不需要遍历窗口偏移，
+ * 状态栏、多窗口下位置也是正确的。
+ * 同一容器（如RecyclerView、GridView）中的item共用容器到父布局的偏移，
+ * 布局变化或有View滚动后缓存失效。只能在主线程使用。
+ */
+public class FocusLocator implements ViewTreeObserver.OnGlobalLayoutListener,
+        ViewTreeObserver.OnScrollChangedListener {
+
+    private final ViewGroup mAncestor;
+    private final Rect mTmpRect = new Rect();
+    /**
+     * 缓存的容器及其内容坐标原点在父布局中的位置
+     */
+    private ViewGroup mCachedContainer;
+    private int mContainerX;
+    private int mContainerY;
+
+    /**
+     * 获取父布局对应的FocusLocator，没有则创建
+     *
+     * @param ancestor 焦点框的父布局
+     * @return
+     */
+    public static FocusLocator get(ViewGroup ancestor) {
+        if (ancestor == null) {
+            return null;
+        }
+        Object tag = ancestor.getTag(R.id.tv_focus_locator);
+        if (tag instanceof FocusLocator) {
+            return (FocusLocator) tag;
+        }
+        FocusLocator locator = new FocusLocator(ancestor);
+        ancestor.setTag(R.id.tv_focus_locator, locator);
+        return locator;
+    }
+
+    private FocusLocator(ViewGroup ancestor) {
+        mAncestor = ancestor;
+        ViewTreeObserver observer = ancestor.getViewTreeObserver();
+        observer.addOnGlobalLayoutListener(this);
+        observer.addOnScrollChangedListener(this);
+    }
+
+    /**
+     * 获取view相对于父布局的位置，结果写入location，不分配新对象
+     *
+     * @param view     父布局中的子孙view
+     * @param location 长度至少为2
+     * @return view不在父布局中时返回false
+     */
+    public boolean getLocation(View view, int[] location) {
+        if (view == null || location == null || location.length < 2) {
+            return false;
+        }
+        ViewParent parent = view.getParent();
+        if (!(parent instanceof ViewGroup)) {
+            return false;
+        }
+        ViewGroup container = (ViewGroup) parent;
+        if (container != mCachedContainer && !cacheContainer(container)) {
+            return false;
+        }
+        location[0] = mContainerX + (int) view.getX();
+        location[1] = mContainerY + (int) view.getY();
+        return true;
+    }
+
+    /**
+     * 清除缓存的容器偏移
+     */
+    public void invalidate() {
+        mCachedContainer = null;
+    }
+
+    /**
+     * 移除ViewTreeObserver上的监听
+     */
+    public void release() {
+        invalidate();
+        ViewTreeObserver observer = mAncestor.getViewTreeObserver();
+        if (observer.isAlive()) {
+            ViewUtil.removeOnGlobalLayoutListener(mAncestor, this);
+            observer.removeOnScrollChangedListener(this);
+        }
+        mAncestor.setTag(R.id.tv_focus_locator, null);
+    }
+
+    @Override
+    public void onGlobalLayout() {
+        invalidate();
+    }
+
+    @Override
+    public void onScrollChanged() {
+        invalidate();
+    }
+
+    private boolean cacheContainer(ViewGroup container) {
+        mTmpRect.setEmpty();
+        if (container != mAncestor) {
+            try {
+                mAncestor.offsetDescendantRectToMyCoords(container, mTmpRect);
+            } catch (IllegalArgumentException e) {
+                // container不是父布局的子孙
+                mCachedContainer = null;
+                return false;
+            }
+        }
+        mContainerX = mTmpRect.left;
+        mContainerY = mTmpRect.top;
+        mCachedContainer = container;
+        return true;
+    }
+}
@@ -0,0 +1,274 @@
+package com.corey.tvfocuslib;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * 焦点移动性能统计，默认关闭
+ * 每次焦点移动记录：焦点变化到动画结束（或直接移动后的下一帧）的延迟、位置计算耗时、
+ * 移动期间焦点框请求的layout次数、以及移动期间通过Choreographer帧回调统计的丢帧数，
+ * 汇总到直方图中，并通过{@link Listener}回调，便于上报百分位数对比不同设备。
+ * 新的焦点变化会结束正在进行的移动。关闭时每个统计点只有一次判断。只能在主线程使用。
+ */
+@SuppressLint("NewApi")
+public final class FocusMetrics {
+
+    public interface Listener {
+        /**
+         * 一次焦点移动结束
+         *
+         * @param latencyNanos  焦点变化到最后一帧的时间
+         * @param locateNanos   计算焦点位置的耗时
+         * @param layoutPasses  焦点框请求的layout次数
+         * @param droppedFrames 移动期间的丢帧数
+         */
+        void onFocusMove(long latencyNanos, long locateNanos, int layoutPasses, int droppedFrames);
+    }
+
+    private static final int STATE_IDLE = 0;
+    /**
+     * 焦点已变化，焦点框还没有开始移动
+     */
+    private static final int STATE_PENDING = 1;
+    /**
+     * 焦点框正在以动画移动
+     */
+    private static final int STATE_ANIMATING = 2;
+    /**
+     * 焦点框已直接移动，等待下一帧
+     */
+    private static final int STATE_JUMPED = 3;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private static boolean sEnabled;
+    private static Listener sListener;
+    private static long sFrameIntervalNanos = 1000000000L / 60;
+
+    /**
+     * 焦点移动延迟，毫秒
+     */
+    private static final FocusHistogram sLatencyHistogram = new FocusHistogram(
+            8, 16, 33, 50, 100, 150, 200, 300, 400, 500, 750, 1000, 2000);
+    /**
+     * 位置计算耗时，微秒
+     */
+    private static final FocusHistogram sLocateHistogram = new FocusHistogram(
+            10, 20, 50, 100, 200, 500, 1000, 2000, 5000);
+    private static final FocusHistogram sLayoutPassesHistogram = new FocusHistogram(
+            0, 1, 2, 4, 8, 16, 32);
+    private static final FocusHistogram sDroppedFramesHistogram = new FocusHistogram(
+            0, 1, 2, 3, 5, 8, 13, 21);
+
+    private static int sState = STATE_IDLE;
+    private static long sStartNanos;
+    private static long sLocateNanos;
+    private static int sLayoutPasses;
+    private static int sDroppedFrames;
+    private static long sLastFrameNanos;
+    private static boolean sFrameCallbackPosted;
+
+    private static final Choreographer.FrameCallback sFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            sFrameCallbackPosted = false;
+            onFrame(frameTimeNanos);
+        }
+    };
+
+    /**
+     * 开启或关闭统计，关闭时清除正在进行的移动
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        if (!enabled) {
+            sState = STATE_IDLE;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * 设置每次焦点移动结束时的回调，在主线程调用
+     */
+    public static void setListener(Listener listener) {
+        sListener = listener;
+    }
+
+    /**
+     * 设置屏幕刷新率，用于计算丢帧数，默认60
+     */
+    public static void setRefreshRate(float refreshRate) {
+        if (refreshRate <= 0) {
+            throw new IllegalArgumentException("refreshRate must be > 0");
+        }
+        sFrameIntervalNanos = (long) (1000000000L / refreshRate);
+    }
+
+    /**
+     * 焦点移动延迟，毫秒
+     */
+    public static FocusHistogram getLatencyHistogram() {
+        return sLatencyHistogram;
+    }
+
+    /**
+     * 位置计算耗时，微秒
+     */
+    public static FocusHistogram getLocateHistogram() {
+        return sLocateHistogram;
+    }
+
+    /**
+     * 每次移动焦点框请求的layout次数
+     */
+    public static FocusHistogram getLayoutPassesHistogram() {
+        return sLayoutPassesHistogram;
+    }
+
+    /**
+     * 每次移动的丢帧数
+     */
+    public static FocusHistogram getDroppedFramesHistogram() {
+        return sDroppedFramesHistogram;
+    }
+
+    /**
+     * 清空所有直方图
+     */
+    public static void reset() {
+        sLatencyHistogram.reset();
+        sLocateHistogram.reset();
+        sLayoutPassesHistogram.reset();
+        sDroppedFramesHistogram.reset();
+    }
+
+    /**
+     * 焦点变化，从这里开始计时，焦点框还没有移动前重复调用不会重新计时
+     */
+    static void onFocusChanged() {
+        if (!sEnabled || sState == STATE_PENDING) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (sState != STATE_IDLE) {
+            // 上一次移动还没有结束就被新的焦点打断
+            finish(now);
+        }
+        sState = STATE_PENDING;
+        sStartNanos = now;
+        sLocateNanos = 0;
+        sLayoutPasses = 0;
+        sDroppedFrames = 0;
+        sLastFrameNanos = 0;
+        postFrameCallback();
+    }
+
+    /**
+     * 开始计算位置
+     *
+     * @return 传给{@link #onLocated}，未开启时返回0
+     */
+    static long startLocate() {
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    static void onLocated(long startNanos) {
+        if (startNanos != 0) {
+            sLocateNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * 焦点框开始移动
+     *
+     * @param animating true表示以动画移动，动画结束时调用{@link #onMoveEnd}，
+     *                  false表示已直接移动或无需移动，在下一帧结束
+     */
+    static void onMoveStarted(boolean animating) {
+        if (!sEnabled || sState == STATE_IDLE) {
+            return;
+        }
+        if (animating) {
+            sState = STATE_ANIMATING;
+        } else if (Build.VERSION.SDK_INT >= 16) {
+            sState = STATE_JUMPED;
+        } else {
+            finish(System.nanoTime());
+        }
+    }
+
+    /**
+     * 焦点移动被取消，如目标view不可见，不记录本次移动
+     */
+    static void onMoveCancelled() {
+        if (sState == STATE_PENDING) {
+            sState = STATE_IDLE;
+        }
+    }
+
+    /**
+     * 焦点框移动了一帧
+     */
+    static void onFrameApplied(View focusView) {
+        if (sEnabled && sState != STATE_IDLE && focusView.isLayoutRequested()) {
+            sLayoutPasses++;
+        }
+    }
+
+    /**
+     * 移动动画结束
+     */
+    static void onMoveEnd() {
+        if (sEnabled && sState == STATE_ANIMATING) {
+            finish(System.nanoTime());
+        }
+    }
+
+    private static void onFrame(long frameTimeNanos) {
+        if (!sEnabled || sState == STATE_IDLE) {
+            return;
+        }
+        if (sLastFrameNanos != 0) {
+            long frames = (frameTimeNanos - sLastFrameNanos + sFrameIntervalNanos / 2) / sFrameIntervalNanos;
+            if (frames > 1) {
+                sDroppedFrames += frames - 1;
+            }
+        }
+        sLastFrameNanos = frameTimeNanos;
+        if (sState == STATE_JUMPED) {
+            finish(System.nanoTime());
+            return;
+        }
+        postFrameCallback();
+    }
+
+    private static void postFrameCallback() {
+        if (sFrameCallbackPosted || Build.VERSION.SDK_INT < 16) {
+            return;
+        }
+        sFrameCallbackPosted = true;
+        Choreographer.getInstance().postFrameCallback(sFrameCallback);
+    }
+
+    private static void finish(long nowNanos) {
+        sState = STATE_IDLE;
+        long latency = nowNanos - sStartNanos;
+        sLatencyHistogram.record(latency / NANOS_PER_MILLI);
+        sLocateHistogram.record(sLocateNanos / NANOS_PER_MICRO);
+        sLayoutPassesHistogram.record(sLayoutPasses);
+        sDroppedFramesHistogram.record(sDroppedFrames);
+        Listener listener = sListener;
+        if (listener != null) {
+            listener.onFocusMove(latency, sLocateNanos, sLayoutPasses, sDroppedFrames);
+        }
+    }
+
+    private FocusMetrics() {
+    }
+}
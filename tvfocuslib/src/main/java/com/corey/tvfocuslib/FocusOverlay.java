@@ -0,0 +1,242 @@
+package com.corey.tvfocuslib;
+
+import android.annotation.TargetApi;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * 焦点框浮层
+ * 焦点框图片直接绘制在根布局的ViewGroupOverlay上，不作为子View加入根布局，
+ * 不参与measure/layout，也不会改变子View的顺序，适用于任意类型的根布局。
+ * 移动时只改变图片的绘制区域，每帧只需重绘一次。需要API 18及以上，只能在主线程使用。
+ */
+@TargetApi(18)
+public class FocusOverlay {
+
+    private final ViewGroup mRoot;
+    private final Drawable mDrawable;
+    private final OverlayAnimator mAnimator;
+    private FocusStyle mStyle;
+    private final int[] mLocation = new int[2];
+    private final Rect mTargetRect = new Rect();
+    private boolean mShowing;
+    private boolean mPositioned;
+    private FocusTracker mTracker;
+
+    /**
+     * 当前系统是否支持焦点框浮层
+     */
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= 18;
+    }
+
+    /**
+     * 在根布局上创建焦点框浮层
+     *
+     * @param root  根布局，可以是任意ViewGroup
+     * @param imgId 焦点框图片，一般为.9图
+     * @return 系统不支持时返回null，此时使用{@link FocusUtils#getFocusView}
+     */
+    public static FocusOverlay attach(ViewGroup root, int imgId) {
+        if (root == null || !isSupported()) {
+            return null;
+        }
+        return attach(root, FocusDrawableCache.get(root.getContext(), imgId));
+    }
+
+    /**
+     * 在根布局上创建焦点框浮层
+     *
+     * @param root     根布局，可以是任意ViewGroup
+     * @param drawable 焦点框图片
+     * @return 系统不支持时返回null，此时使用{@link FocusUtils#getFocusView}
+     */
+    public static FocusOverlay attach(ViewGroup root, Drawable drawable) {
+        if (root == null || drawable == null || !isSupported()) {
+            return null;
+        }
+        return new FocusOverlay(root, drawable);
+    }
+
+    /**
+     * 在根布局上创建使用指定样式的焦点框浮层
+     *
+     * @param root  根布局，可以是任意ViewGroup
+     * @param style 焦点框样式，需要设置图片
+     * @return 系统不支持时返回null，此时使用{@link FocusUtils#getFocusView(android.content.Context, FocusStyle)}
+     */
+    public static FocusOverlay attach(ViewGroup root, FocusStyle style) {
+        if (root == null || style == null || !isSupported()) {
+            return null;
+        }
+        FocusOverlay overlay = attach(root, style.getDrawableId());
+        if (overlay != null) {
+            overlay.setStyle(style);
+        }
+        return overlay;
+    }
+
+    private FocusOverlay(ViewGroup root, Drawable drawable) {
+        mRoot = root;
+        mDrawable = drawable;
+        mDrawable.setBounds(0, 0, 0, 0);
+        mAnimator = new OverlayAnimator(root);
+    }
+
+    public ViewGroup getRoot() {
+        return mRoot;
+    }
+
+    /**
+     * 设置浮层使用的样式，只影响之后的移动，图片不会改变
+     *
+     * @param style null表示使用根布局上设置的样式或全局默认样式
+     */
+    public void setStyle(FocusStyle style) {
+        mStyle = style;
+    }
+
+    /**
+     * 获取浮层使用的样式，没有设置时从根布局向上查找
+     */
+    public FocusStyle getStyle() {
+        return mStyle != null ? mStyle : FocusStyle.of(mRoot);
+    }
+
+    /**
+     * 移动焦点框到view的位置
+     *
+     * @param view 根布局中的view
+     */
+    public void moveTo(View view) {
+        moveTo(view, getStyle().isShowAnimation());
+    }
+
+    /**
+     * 移动焦点框到view的位置
+     *
+     * @param view    根布局中的view
+     * @param showAni 本次移动是否显示动画
+     */
+    public void moveTo(View view, boolean showAni) {
+        FocusMetrics.onFocusChanged();
+        if (view == null || view.getWidth() <= 0 || view.getHeight() <= 0) {
+            FocusMetrics.onMoveCancelled();
+            return;
+        }
+        long locateStart = FocusMetrics.startLocate();
+        boolean located = FocusLocator.get(mRoot).getLocation(view, mLocation);
+        FocusMetrics.onLocated(locateStart);
+        if (!located) {
+            FocusMetrics.onMoveCancelled();
+            return;
+        }
+        if (mTracker != null) {
+            mTracker.track(view, mLocation);
+        }
+        FocusStyle style = getStyle();
+        Rect rect = mTargetRect;
+        rect.set(mLocation[0], mLocation[1],
+                mLocation[0] + view.getWidth(), mLocation[1] + view.getHeight());
+        FocusUtils.zoomItem(style, mRoot, view, rect, showAni && mShowing);
+        int marginLeft = style.getMarginLeft();
+        int marginTop = style.getMarginTop();
+        float x = rect.left - marginLeft;
+        float y = rect.top - marginTop;
+        float width = rect.width() + marginLeft + style.getMarginRight();
+        float height = rect.height() + marginTop + style.getMarginBottom();
+        if (mAnimator.isAnimatingTo(x, y, width, height)) {
+            FocusMetrics.onMoveStarted(true);
+            return;
+        }
+        if (showAni && mPositioned && mShowing) {
+            mAnimator.setInterpolator(style.getInterpolator());
+            mAnimator.animateTo(FocusUtils.FOCUS_MOVE_MODE_TRANSFORM, x, y, width, height,
+                    style.getDuration());
+        } else {
+            mAnimator.jumpTo(FocusUtils.FOCUS_MOVE_MODE_TRANSFORM, x, y, width, height);
+        }
+        mPositioned = true;
+        show();
+    }
+
+    /**
+     * 平移焦点框，正在运行的动画的起点和终点一起平移，用于跟随容器滚动
+     *
+     * @see FocusTracker#attach(FocusOverlay)
+     */
+    public void offsetBy(float dx, float dy) {
+        if (mPositioned) {
+            mAnimator.offsetBy(dx, dy);
+        }
+    }
+
+    FocusTracker getTracker() {
+        return mTracker;
+    }
+
+    void setTracker(FocusTracker tracker) {
+        mTracker = tracker;
+    }
+
+    /**
+     * 显示焦点框
+     */
+    public void show() {
+        if (mShowing || !mPositioned) {
+            return;
+        }
+        mShowing = true;
+        mRoot.getOverlay().add(mDrawable);
+    }
+
+    /**
+     * 隐藏焦点框
+     */
+    public void hide() {
+        if (!mShowing) {
+            return;
+        }
+        mAnimator.cancel();
+        FocusZoomer.reset(mRoot);
+        mShowing = false;
+        mRoot.getOverlay().remove(mDrawable);
+    }
+
+    /**
+     * 移除焦点框浮层
+     */
+    public void detach() {
+        hide();
+        mPositioned = false;
+    }
+
+    /**
+     * 动画作用于浮层图片的绘制区域
+     */
+    private class OverlayAnimator extends FocusAnimator {
+
+        OverlayAnimator(View root) {
+            super(root);
+        }
+
+        @Override
+        protected void readCurrent() {
+            setCurrent(mDrawable.getBounds().left, mDrawable.getBounds().top,
+                    mDrawable.getBounds().width(), mDrawable.getBounds().height());
+        }
+
+        @Override
+        protected void onApplyFrame(int mode, float x, float y, float width, float height) {
+            int left = Math.round(x);
+            int top = Math.round(y);
+            // 旧区域和新区域都需要重绘
+            mDrawable.invalidateSelf();
+            mDrawable.setBounds(left, top, left + Math.round(width), top + Math.round(height));
+            mDrawable.invalidateSelf();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.corey.tvfocuslib;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.FocusFinder;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+/**
+ * 下一个焦点的位置预取
+ * 焦点只会沿方向键移动，下一个焦点基本就是当前焦点上下左右的四个view之一。
+ * 焦点框移动后，在主线程空闲时查找四个方向的下一个焦点并计算焦点框要移动到的位置，
+ * 按键后焦点落在其中之一时直接使用缓存的位置，不需要再计算，在同一帧开始移动动画。
+ * 布局变化后保留缓存，读取缓存时重新计算该view的位置，位置改变时使用新的位置；
+ * 空闲时更新所有缓存的位置，不重新查找下一个焦点。焦点框移动期间（LAYOUT模式每帧布局）不在空闲时更新，移动结束后再更新。
+ * 有View滚动后缓存失效，焦点框移动期间列表一般在跟随焦点滚动，移动结束后再重新计算。
+ * 提供命中次数统计，用于确认预取的效果。只能在主线程使用。
+ */
+public class FocusPrefetcher implements MessageQueue.IdleHandler,
+        ViewTreeObserver.OnGlobalLayoutListener, ViewTreeObserver.OnScrollChangedListener {
+
+    private static final int[] DIRECTIONS = {
+            View.FOCUS_LEFT, View.FOCUS_UP, View.FOCUS_RIGHT, View.FOCUS_DOWN
+    };
+
+    private final View mFocusView;
+    private final ViewGroup mContainer;
+    private final ViewTreeObserver mObserver;
+    /**
+     * 预取的下一个焦点和焦点框要移动到的位置
+     */
+    private final View[] mTargets = new View[DIRECTIONS.length];
+    private final int[] mLocations = new int[DIRECTIONS.length * 2];
+    private final int[] mTmpLocation = new int[2];
+    private int mTargetCount;
+    private View mCurrent;
+    private boolean mScheduled;
+    /**
+     * 有布局变化，缓存的位置还没有更新
+     */
+    private boolean mLayoutChanged;
+    /**
+     * 有View滚动，焦点框移动结束后再预取
+     */
+    private boolean mDeferred;
+
+    private long mHitCount;
+    private long mMissCount;
+
+    /**
+     * 焦点框开始预取下一个焦点的位置，焦点框需要已经添加到窗口中
+     *
+     * @param focusView 焦点框
+     * @param container 查找下一个焦点的范围，一般为根布局，设置了{@link FocusIndex}时使用索引查找
+     * @return
+     */
+    public static FocusPrefetcher attach(View focusView, ViewGroup container) {
+        if (focusView == null || container == null) {
+            return null;
+        }
+        Object tag = focusView.getTag(R.id.tv_focus_prefetcher);
+        if (tag instanceof FocusPrefetcher) {
+            return (FocusPrefetcher) tag;
+        }
+        FocusPrefetcher prefetcher = new FocusPrefetcher(focusView, container);
+        focusView.setTag(R.id.tv_focus_prefetcher, prefetcher);
+        return prefetcher;
+    }
+
+    /**
+     * 读取预取的位置，由FocusUtils调用
+     *
+     * @return 没有预取该view时返回false
+     */
+    static boolean lookup(View focusView, View view, int[] location) {
+        Object tag = focusView.getTag(R.id.tv_focus_prefetcher);
+        return tag instanceof FocusPrefetcher && ((FocusPrefetcher) tag).get(view, location);
+    }
+
+    /**
+     * 焦点框已移动到view，由FocusUtils调用，空闲时预取view周围的焦点
+     */
+    static void onFocusMoved(View focusView, View view) {
+        Object tag = focusView.getTag(R.id.tv_focus_prefetcher);
+        if (tag instanceof FocusPrefetcher) {
+            ((FocusPrefetcher) tag).setCurrent(view);
+        }
+    }
+
+    private FocusPrefetcher(View focusView, ViewGroup container) {
+        mFocusView = focusView;
+        mContainer = container;
+        mObserver = focusView.getViewTreeObserver();
+        mObserver.addOnGlobalLayoutListener(this);
+        mObserver.addOnScrollChangedListener(this);
+    }
+
+    /**
+     * 焦点落在预取的view上的次数
+     */
+    public long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * 焦点落在未预取的view上、或预取的位置已改变的次数
+     */
+    public long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * 命中率，没有焦点移动时为0
+     */
+    public float getHitRate() {
+        long total = mHitCount + mMissCount;
+        return total == 0 ? 0f : (float) mHitCount / total;
+    }
+
+    public void resetCounters() {
+        mHitCount = 0;
+        mMissCount = 0;
+    }
+
+    /**
+     * 停止预取并移除监听
+     */
+    public void release() {
+        clearTargets();
+        mCurrent = null;
+        mLayoutChanged = false;
+        mDeferred = false;
+        if (mScheduled) {
+            Looper.myQueue().removeIdleHandler(this);
+            mScheduled = false;
+        }
+        if (mObserver.isAlive()) {
+            mObserver.removeOnScrollChangedListener(this);
+        }
+        ViewUtil.removeOnGlobalLayoutListener(mFocusView, this);
+        mFocusView.setTag(R.id.tv_focus_prefetcher, null);
+    }
+
+    @Override
+    public boolean queueIdle() {
+        if ((mDeferred || mLayoutChanged) && FocusAnimator.isRunning(mFocusView)) {
+            // 焦点框移动期间每帧都有布局或滚动，保留，移动结束后的空闲时再处理
+            return true;
+        }
+        mScheduled = false;
+        mDeferred = false;
+        if (mLayoutChanged && mTargetCount > 0) {
+            updateLocations();
+        } else {
+            prefetch();
+        }
+        return false;
+    }
+
+    @Override
+    public void onGlobalLayout() {
+        mLayoutChanged = true;
+        schedule();
+    }
+
+    @Override
+    public void onScrollChanged() {
+        clearTargets();
+        mDeferred = true;
+        schedule();
+    }
+
+    /**
+     * 布局变化后缓存的位置还没有更新时，重新计算该view的位置，位置改变时返回新的位置，计为未命中
+     */
+    private boolean get(View view, int[] location) {
+        int index = indexOf(view);
+        if (index < 0 || view.getWindowToken() == null) {
+            mMissCount++;
+            return false;
+        }
+        if (!mLayoutChanged) {
+            location[0] = mLocations[index * 2];
+            location[1] = mLocations[index * 2 + 1];
+            mHitCount++;
+            return true;
+        }
+        if (!FocusUtils.getTargetLocation(FocusStyle.of(mFocusView), mFocusView, view, location)) {
+            mMissCount++;
+            return false;
+        }
+        if (location[0] == mLocations[index * 2] && location[1] == mLocations[index * 2 + 1]) {
+            mHitCount++;
+        } else {
+            mLocations[index * 2] = location[0];
+            mLocations[index * 2 + 1] = location[1];
+            mMissCount++;
+        }
+        return true;
+    }
+
+    private void setCurrent(View view) {
+        if (view == mCurrent && mTargetCount > 0) {
+            return;
+        }
+        mCurrent = view;
+        clearTargets();
+        schedule();
+    }
+
+    private void schedule() {
+        if (mScheduled || mCurrent == null) {
+            return;
+        }
+        mScheduled = true;
+        Looper.myQueue().addIdleHandler(this);
+    }
+
+    /**
+     * 计算当前焦点四个方向的下一个焦点的位置
+     */
+    void prefetch() {
+        clearTargets();
+        mLayoutChanged = false;
+        View current = mCurrent;
+        if (current == null || current.getWindowToken() == null) {
+            return;
+        }
+        FocusIndex index = FocusIndex.peek(mContainer);
+        FocusFinder finder = FocusFinder.getInstance();
+        FocusStyle style = FocusStyle.of(mFocusView);
+        for (int direction : DIRECTIONS) {
+            View next = index != null ? index.findNextFocus(current, direction) : null;
+            if (next == null) {
+                next = finder.findNextFocus(mContainer, current, direction);
+            }
+            if (next == null || next.getWidth() <= 0 || next.getHeight() <= 0
+                    || indexOf(next) >= 0) {
+                continue;
+            }
+            if (FocusUtils.getTargetLocation(style, mFocusView, next, mTmpLocation)) {
+                mTargets[mTargetCount] = next;
+                mLocations[mTargetCount * 2] = mTmpLocation[0];
+                mLocations[mTargetCount * 2 + 1] = mTmpLocation[1];
+                mTargetCount++;
+            }
+        }
+    }
+
+    /**
+     * 布局变化后更新所有缓存的位置，已经不在窗口中的view移出缓存
+     */
+    private void updateLocations() {
+        mLayoutChanged = false;
+        FocusStyle style = FocusStyle.of(mFocusView);
+        int count = 0;
+        for (int i = 0; i < mTargetCount; i++) {
+            View target = mTargets[i];
+            if (target.getWindowToken() == null
+                    || !FocusUtils.getTargetLocation(style, mFocusView, target, mTmpLocation)) {
+                continue;
+            }
+            mTargets[count] = target;
+            mLocations[count * 2] = mTmpLocation[0];
+            mLocations[count * 2 + 1] = mTmpLocation[1];
+            count++;
+        }
+        for (int i = count; i < mTargetCount; i++) {
+            mTargets[i] = null;
+        }
+        mTargetCount = count;
+    }
+
+    private int indexOf(View view) {
+        for (int i = 0; i < mTargetCount; i++) {
+            if (mTargets[i] == view) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void clearTargets() {
+        for (int i = 0; i < mTargetCount; i++) {
+            mTargets[i] = null;
+        }
+        mTargetCount = 0;
+    }
+}
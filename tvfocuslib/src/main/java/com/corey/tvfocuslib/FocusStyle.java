@@ -0,0 +1,270 @@
+package com.corey.tvfocuslib;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewParent;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+/**
+ * 焦点框样式
+ * 包含焦点框的margin、动画时长、插值器、图片和移动方式，创建后不可修改，可以在多个线程和界面间共享。
+ * 通过{@link #attach}设置到窗口根布局或某个容器上，焦点框（或焦点浮层的根布局）向上查找最近的样式，
+ * 同一界面中的多个焦点框、Activity上的Dialog可以使用不同的样式，不需要在每次焦点变化时修改全局设置。
+ * 没有设置样式时使用{@link FocusUtils}的全局设置。
+ */
+public final class FocusStyle {
+
+    /**
+     * 默认插值器，与ValueAnimator默认值一致
+     */
+    static final TimeInterpolator DEFAULT_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
+    private final int mMarginLeft;
+    private final int mMarginTop;
+    private final int mMarginRight;
+    private final int mMarginBottom;
+    private final int mDuration;
+    private final TimeInterpolator mInterpolator;
+    private final int mDrawableId;
+    private final boolean mShowAnimation;
+    private final int mMoveMode;
+    private final int mLocationMode;
+    private final float mZoomScale;
+
+    FocusStyle(int marginLeft, int marginTop, int marginRight, int marginBottom,
+               int duration, TimeInterpolator interpolator, int drawableId,
+               boolean showAnimation, int moveMode, int locationMode, float zoomScale) {
+        mMarginLeft = marginLeft;
+        mMarginTop = marginTop;
+        mMarginRight = marginRight;
+        mMarginBottom = marginBottom;
+        mDuration = duration;
+        mInterpolator = interpolator;
+        mDrawableId = drawableId;
+        mShowAnimation = showAnimation;
+        mMoveMode = moveMode;
+        mLocationMode = locationMode;
+        mZoomScale = zoomScale;
+    }
+
+    /**
+     * 设置容器使用的焦点框样式，容器中的焦点框和以容器为根布局的焦点浮层都会使用该样式
+     *
+     * @param container 窗口根布局或任意容器
+     * @param style     null表示移除
+     */
+    public static void attach(View container, FocusStyle style) {
+        if (container != null) {
+            container.setTag(R.id.tv_focus_style, style);
+        }
+    }
+
+    /**
+     * 获取view使用的焦点框样式，从view开始向上查找，都没有设置时返回全局默认样式
+     *
+     * @param view 焦点框或焦点浮层的根布局
+     * @return
+     */
+    public static FocusStyle of(View view) {
+        View current = view;
+        while (current != null) {
+            Object tag = current.getTag(R.id.tv_focus_style);
+            if (tag instanceof FocusStyle) {
+                return (FocusStyle) tag;
+            }
+            ViewParent parent = current.getParent();
+            current = parent instanceof View ? (View) parent : null;
+        }
+        return FocusUtils.getDefaultStyle();
+    }
+
+    /**
+     * 焦点框边缘发光部分margin，单位px
+     */
+    public int getMarginLeft() {
+        return mMarginLeft;
+    }
+
+    public int getMarginTop() {
+        return mMarginTop;
+    }
+
+    public int getMarginRight() {
+        return mMarginRight;
+    }
+
+    public int getMarginBottom() {
+        return mMarginBottom;
+    }
+
+    /**
+     * 移动动画时长，单位毫秒
+     */
+    public int getDuration() {
+        return mDuration;
+    }
+
+    public TimeInterpolator getInterpolator() {
+        return mInterpolator;
+    }
+
+    /**
+     * 焦点框图片，0表示未设置
+     */
+    public int getDrawableId() {
+        return mDrawableId;
+    }
+
+    public boolean isShowAnimation() {
+        return mShowAnimation;
+    }
+
+    /**
+     * {@link FocusUtils#FOCUS_MOVE_MODE_LAYOUT}或{@link FocusUtils#FOCUS_MOVE_MODE_TRANSFORM}
+     */
+    public int getMoveMode() {
+        return mMoveMode;
+    }
+
+    /**
+     * {@link FocusUtils#LOCATION_MODE_SCREEN}或{@link FocusUtils#LOCATION_MODE_PARENT}
+     */
+    public int getLocationMode() {
+        return mLocationMode;
+    }
+
+    /**
+     * 焦点item放大倍数，1表示不放大
+     */
+    public float getZoomScale() {
+        return mZoomScale;
+    }
+
+    /**
+     * 以当前样式为基础创建新的样式
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * 创建焦点框样式，未设置的项使用{@link FocusUtils}的全局设置
+     */
+    public static class Builder {
+
+        private int mMarginLeft;
+        private int mMarginTop;
+        private int mMarginRight;
+        private int mMarginBottom;
+        private int mDuration;
+        private TimeInterpolator mInterpolator;
+        private int mDrawableId;
+        private boolean mShowAnimation;
+        private int mMoveMode;
+        private int mLocationMode;
+        private float mZoomScale;
+
+        public Builder() {
+            this(FocusUtils.getDefaultStyle());
+        }
+
+        public Builder(FocusStyle style) {
+            mMarginLeft = style.mMarginLeft;
+            mMarginTop = style.mMarginTop;
+            mMarginRight = style.mMarginRight;
+            mMarginBottom = style.mMarginBottom;
+            mDuration = style.mDuration;
+            mInterpolator = style.mInterpolator;
+            mDrawableId = style.mDrawableId;
+            mShowAnimation = style.mShowAnimation;
+            mMoveMode = style.mMoveMode;
+            mLocationMode = style.mLocationMode;
+            mZoomScale = style.mZoomScale;
+        }
+
+        /**
+         * 设置焦点框margin，单位dp
+         */
+        public Builder setMargin(int left, int top, int right, int bottom) {
+            Context context = ContextProvider.getApplicationContext();
+            return setMarginPx(DisplayUtil.dp2px(context, left), DisplayUtil.dp2px(context, top),
+                    DisplayUtil.dp2px(context, right), DisplayUtil.dp2px(context, bottom));
+        }
+
+        /**
+         * 设置焦点框margin，单位px
+         */
+        public Builder setMarginPx(int left, int top, int right, int bottom) {
+            mMarginLeft = left;
+            mMarginTop = top;
+            mMarginRight = right;
+            mMarginBottom = bottom;
+            return this;
+        }
+
+        /**
+         * 设置移动动画时长，单位毫秒
+         */
+        public Builder setDuration(int duration) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("duration must be >= 0");
+            }
+            mDuration = duration;
+            return this;
+        }
+
+        /**
+         * 设置移动动画插值器，null表示使用默认插值器
+         */
+        public Builder setInterpolator(TimeInterpolator interpolator) {
+            mInterpolator = interpolator != null ? interpolator : DEFAULT_INTERPOLATOR;
+            return this;
+        }
+
+        /**
+         * 设置焦点框图片，用于{@link FocusUtils#getFocusView(Context, FocusStyle)}和
+         * {@link FocusOverlay#attach(android.view.ViewGroup, FocusStyle)}
+         */
+        public Builder setDrawable(int drawableId) {
+            mDrawableId = drawableId;
+            return this;
+        }
+
+        public Builder setShowAnimation(boolean showAnimation) {
+            mShowAnimation = showAnimation;
+            return this;
+        }
+
+        public Builder setMoveMode(int mode) {
+            if (mode != FocusUtils.FOCUS_MOVE_MODE_LAYOUT
+                    && mode != FocusUtils.FOCUS_MOVE_MODE_TRANSFORM) {
+                throw new IllegalArgumentException("Unknown focus move mode: " + mode);
+            }
+            mMoveMode = mode;
+            return this;
+        }
+
+        public Builder setLocationMode(int mode) {
+            if (mode != FocusUtils.LOCATION_MODE_SCREEN && mode != FocusUtils.LOCATION_MODE_PARENT) {
+                throw new IllegalArgumentException("Unknown location mode: " + mode);
+            }
+            mLocationMode = mode;
+            return this;
+        }
+
+        public Builder setZoomScale(float scale) {
+            if (scale <= 0) {
+                throw new IllegalArgumentException("scale must be > 0");
+            }
+            mZoomScale = scale;
+            return this;
+        }
+
+        public FocusStyle build() {
+            return new FocusStyle(mMarginLeft, mMarginTop, mMarginRight, mMarginBottom,
+                    mDuration, mInterpolator, mDrawableId, mShowAnimation,
+                    mMoveMode, mLocationMode, mZoomScale);
+        }
+    }
+}
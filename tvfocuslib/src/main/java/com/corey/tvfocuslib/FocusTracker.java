@@ -0,0 +1,150 @@
+package com.corey.tvfocuslib;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * 焦点框跟随滚动
+ * GridView、RecyclerView等容器在焦点变化后滚动时，焦点框会停留在旧的位置。
+ * FocusTracker只在ViewTreeObserver上注册一次OnScrollChangedListener，
+ * 有View滚动时才重新读取当前焦点view的位置，并把位移直接加到焦点框的x、y上，不会触发layout。
+ * 滚动通知在同一帧的onPreDraw之后、绘制之前分发，所以在回调中直接更新，焦点框和item在同一帧移动。
+ * 焦点框可以是焦点框View，也可以是{@link FocusOverlay}。
+ * 只能在主线程使用。
+ */
+public class FocusTracker implements ViewTreeObserver.OnScrollChangedListener {
+
+    private final View mFocusView;
+    private final FocusOverlay mOverlay;
+    private final ViewTreeObserver mObserver;
+    private View mTrackedView;
+    private final int[] mTrackedLocation = new int[2];
+    private final int[] mTmpLocation = new int[2];
+
+    /**
+     * 焦点框开始跟随滚动，焦点框需要已经添加到窗口中
+     *
+     * @param focusView 焦点框
+     * @return
+     */
+    public static FocusTracker attach(View focusView) {
+        if (focusView == null) {
+            return null;
+        }
+        Object tag = focusView.getTag(R.id.tv_focus_tracker);
+        if (tag instanceof FocusTracker) {
+            return (FocusTracker) tag;
+        }
+        FocusTracker tracker = new FocusTracker(focusView, null);
+        focusView.setTag(R.id.tv_focus_tracker, tracker);
+        return tracker;
+    }
+
+    /**
+     * 焦点框浮层开始跟随滚动
+     *
+     * @param overlay 焦点框浮层
+     * @return
+     */
+    public static FocusTracker attach(FocusOverlay overlay) {
+        if (overlay == null) {
+            return null;
+        }
+        FocusTracker tracker = overlay.getTracker();
+        if (tracker == null) {
+            tracker = new FocusTracker(overlay.getRoot(), overlay);
+            overlay.setTracker(tracker);
+        }
+        return tracker;
+    }
+
+    /**
+     * 焦点框已移动到view，由FocusUtils调用，记录view当前的位置
+     */
+    static void onFocusMoved(View focusView, View view, int[] location) {
+        Object tag = focusView.getTag(R.id.tv_focus_tracker);
+        if (tag instanceof FocusTracker) {
+            ((FocusTracker) tag).track(view, location);
+        }
+    }
+
+    /**
+     * @param focusView 焦点框，使用浮层时为浮层所在的根布局
+     * @param overlay   焦点框浮层，null表示使用焦点框View
+     */
+    private FocusTracker(View focusView, FocusOverlay overlay) {
+        mFocusView = focusView;
+        mOverlay = overlay;
+        mObserver = focusView.getViewTreeObserver();
+        mObserver.addOnScrollChangedListener(this);
+    }
+
+    /**
+     * 跟随view滚动
+     *
+     * @param view     当前焦点
+     * @param location view当前的位置
+     */
+    public void track(View view, int[] location) {
+        mTrackedView = view;
+        mTrackedLocation[0] = location[0];
+        mTrackedLocation[1] = location[1];
+    }
+
+    /**
+     * 停止跟随滚动并移除监听
+     */
+    public void release() {
+        mTrackedView = null;
+        if (mObserver.isAlive()) {
+            mObserver.removeOnScrollChangedListener(this);
+        }
+        if (mOverlay != null) {
+            mOverlay.setTracker(null);
+        } else {
+            mFocusView.setTag(R.id.tv_focus_tracker, null);
+        }
+    }
+
+    @Override
+    public void onScrollChanged() {
+        View view = mTrackedView;
+        if (view == null) {
+            return;
+        }
+        if (view.getWindowToken() == null) {
+            // item已被回收，等待下一次焦点变化
+            mTrackedView = null;
+            return;
+        }
+        if (!getLocation(view, mTmpLocation)) {
+            return;
+        }
+        int dx = mTmpLocation[0] - mTrackedLocation[0];
+        int dy = mTmpLocation[1] - mTrackedLocation[1];
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        mTrackedLocation[0] = mTmpLocation[0];
+        mTrackedLocation[1] = mTmpLocation[1];
+        if (mOverlay != null) {
+            mOverlay.offsetBy(dx, dy);
+        } else {
+            FocusAnimator.get(mFocusView).offsetBy(dx, dy);
+        }
+    }
+
+    /**
+     * 重新读取view的位置，与焦点框移动时使用相同的计算方式
+     */
+    private boolean getLocation(View view, int[] location) {
+        if (mOverlay != null) {
+            FocusLocator locator = FocusLocator.get(mOverlay.getRoot());
+            locator.invalidate();
+            return locator.getLocation(view, location);
+        }
+        FocusStyle style = FocusStyle.of(mFocusView);
+        FocusUtils.invalidateTargetLocation(style, mFocusView);
+        return FocusUtils.getTargetLocation(style, mFocusView, view, location);
+    }
+}
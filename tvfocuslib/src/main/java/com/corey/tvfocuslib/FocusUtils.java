@@ -1,24 +1,85 @@
 package com.corey.tvfocuslib;
 
-import android.animation.ObjectAnimator;
-import android.animation.PropertyValuesHolder;
 import android.content.Context;
+import android.graphics.Rect;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.ImageView.ScaleType;
 import android.widget.RelativeLayout.LayoutParams;
 
 
 public class FocusUtils {
+    /**
+     * 焦点框移动方式：每帧修改焦点框布局宽高，会触发requestLayout
+     */
+    public static final int FOCUS_MOVE_MODE_LAYOUT = 0;
+    /**
+     * 焦点框移动方式：焦点框布局大小固定，通过平移移动，只改变焦点框图片的绘制大小，不会触发layout，
+     * .9图边框始终按原比例绘制
+     */
+    public static final int FOCUS_MOVE_MODE_TRANSFORM = 1;
+    /**
+     * 焦点位置计算方式：view在屏幕中的位置
+     */
+    public static final int LOCATION_MODE_SCREEN = 0;
+    /**
+     * 焦点位置计算方式：view相对于焦点框父布局的位置
+     */
+    public static final int LOCATION_MODE_PARENT = 1;
+
     private static int ANIM_TIME = 200;
     private static boolean isShowFocusMoveAni = true;
+    private static int focusMoveMode = FOCUS_MOVE_MODE_LAYOUT;
+    private static int locationMode = LOCATION_MODE_SCREEN;
+    private static boolean isHardwareLayerEnabled = true;
+    private static boolean isItemLayerEnabled = false;
+    private static float focusZoomScale = 1f;
     /**
-     * 焦点框边缘发光部分margin
+     * 焦点移动时复用的位置数组，避免每次移动分配对象，只在主线程使用
      */
-    public static int focusMarginLeft = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), 7);
-    public static int focusMarginTop = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), 7);
-    public static int focusMarginRight = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), 7);
-    public static int focusMarginBottom = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), 7);
+    private static final int[] sLocation = new int[2];
+    private static final Rect sTargetRect = new Rect();
+    /**
+     * 默认焦点框margin，单位dp
+     */
+    private static final int DEFAULT_FOCUS_MARGIN = 7;
+    /**
+     * 焦点框边缘发光部分margin的副本，只用于兼容直接读取字段的代码
+     * margin在第一次调用{@link #getFocusMarginLeft()}等方法、{@link #getDefaultStyle()}或{@link #setFocusMargin}时计算，
+     * 之前读取为0。库内部使用单独保存的值，直接修改字段不会生效
+     *
+     * @deprecated 使用{@link #getFocusMarginLeft()}等方法读取，{@link #setFocusMargin}修改
+     */
+    @Deprecated
+    public static int focusMarginLeft;
+    /**
+     * @deprecated 使用{@link #getFocusMarginTop()}
+     */
+    @Deprecated
+    public static int focusMarginTop;
+    /**
+     * @deprecated 使用{@link #getFocusMarginRight()}
+     */
+    @Deprecated
+    public static int focusMarginRight;
+    /**
+     * @deprecated 使用{@link #getFocusMarginBottom()}
+     */
+    @Deprecated
+    public static int focusMarginBottom;
+    /**
+     * 实际使用的margin，单位px
+     */
+    private static int sMarginLeft;
+    private static int sMarginTop;
+    private static int sMarginRight;
+    private static int sMarginBottom;
+    private static volatile boolean isFocusMarginReady;
+    /**
+     * 全局设置对应的默认样式，设置变化后重新创建
+     */
+    private static volatile FocusStyle sDefaultStyle;
 
     /**
      * 设置焦点框margin   单位dp  默认7dp
@@ -28,10 +89,80 @@ public class FocusUtils {
      * @param bottom
      */
     public static void setFocusMargin(int left, int top, int right, int bottom) {
-        focusMarginLeft = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), left);
-        focusMarginTop = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), top);
-        focusMarginRight = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), right);
-        focusMarginBottom = DisplayUtil.dp2px(ContextProvider.getApplicationContext(), bottom);
+        Context context = ContextProvider.getApplicationContext();
+        sMarginLeft = DisplayUtil.dp2px(context, left);
+        sMarginTop = DisplayUtil.dp2px(context, top);
+        sMarginRight = DisplayUtil.dp2px(context, right);
+        sMarginBottom = DisplayUtil.dp2px(context, bottom);
+        focusMarginLeft = sMarginLeft;
+        focusMarginTop = sMarginTop;
+        focusMarginRight = sMarginRight;
+        focusMarginBottom = sMarginBottom;
+        isFocusMarginReady = true;
+        sDefaultStyle = null;
+    }
+
+    /**
+     * 没有设置过margin时使用默认值
+     */
+    private static void ensureFocusMargin() {
+        if (!isFocusMarginReady) {
+            setFocusMargin(DEFAULT_FOCUS_MARGIN, DEFAULT_FOCUS_MARGIN,
+                    DEFAULT_FOCUS_MARGIN, DEFAULT_FOCUS_MARGIN);
+        }
+    }
+
+    /**
+     * 恢复为没有设置过margin的状态，测试使用
+     */
+    static void resetFocusMargin() {
+        isFocusMarginReady = false;
+        sMarginLeft = 0;
+        sMarginTop = 0;
+        sMarginRight = 0;
+        sMarginBottom = 0;
+        focusMarginLeft = 0;
+        focusMarginTop = 0;
+        focusMarginRight = 0;
+        focusMarginBottom = 0;
+        sDefaultStyle = null;
+    }
+
+    public static int getFocusMarginLeft() {
+        ensureFocusMargin();
+        return sMarginLeft;
+    }
+
+    public static int getFocusMarginTop() {
+        ensureFocusMargin();
+        return sMarginTop;
+    }
+
+    public static int getFocusMarginRight() {
+        ensureFocusMargin();
+        return sMarginRight;
+    }
+
+    public static int getFocusMarginBottom() {
+        ensureFocusMargin();
+        return sMarginBottom;
+    }
+
+    /**
+     * 获取全局设置对应的焦点框样式，没有通过{@link FocusStyle#attach}设置样式的焦点框使用该样式
+     *
+     * @return
+     */
+    public static FocusStyle getDefaultStyle() {
+        FocusStyle style = sDefaultStyle;
+        if (style == null) {
+            ensureFocusMargin();
+            style = new FocusStyle(sMarginLeft, sMarginTop, sMarginRight,
+                    sMarginBottom, ANIM_TIME, FocusStyle.DEFAULT_INTERPOLATOR, 0,
+                    isShowFocusMoveAni, focusMoveMode, locationMode, focusZoomScale);
+            sDefaultStyle = style;
+        }
+        return style;
     }
 
     /**
@@ -40,8 +171,21 @@ public class FocusUtils {
      */
     public static void setAnimTime(int animTime) {
         ANIM_TIME = animTime;
+        sDefaultStyle = null;
+    }
+
+    public static int getAnimTime() {
+        return ANIM_TIME;
     }
 
+    /**
+     * 创建焦点框，图片从{@link FocusDrawableCache}获取，多个界面共享解码后的图片
+     *
+     * @param context
+     * @param imgId   焦点框图片，一般为.9图
+     * @return
+     */
+    @SuppressWarnings("deprecation")
     public static ImageView getFocusView(Context context, int imgId) {
         if (context == null) {
             return null;
@@ -50,9 +194,25 @@ public class FocusUtils {
         focusView.setFocusable(false);
         focusView.setFocusableInTouchMode(false);
         focusView.setScaleType(ScaleType.CENTER);
-        focusView.setBackgroundResource(imgId);
+        focusView.setBackgroundDrawable(FocusDrawableCache.get(context, imgId));
+
 
+        return focusView;
+    }
 
+    /**
+     * 使用样式中的图片创建焦点框，并把样式设置到焦点框上
+     *
+     * @param context
+     * @param style   需要设置图片
+     * @return
+     */
+    public static ImageView getFocusView(Context context, FocusStyle style) {
+        if (style == null) {
+            return null;
+        }
+        ImageView focusView = getFocusView(context, style.getDrawableId());
+        FocusStyle.attach(focusView, style);
         return focusView;
     }
 
@@ -64,15 +224,90 @@ public class FocusUtils {
      */
     public static void setIsShowFocusMoveAni(boolean isShowFocusMoveAni) {
         FocusUtils.isShowFocusMoveAni = isShowFocusMoveAni;
+        sDefaultStyle = null;
+    }
+
+    public static boolean isShowFocusMoveAni() {
+        return isShowFocusMoveAni;
+    }
+
+    /**
+     * 设置焦点框移动方式，默认{@link #FOCUS_MOVE_MODE_LAYOUT}
+     * {@link #FOCUS_MOVE_MODE_TRANSFORM}模式下焦点框布局大小固定为父布局大小，通过translation移动并改变图片的绘制大小
+     *
+     * @param mode
+     */
+    public static void setFocusMoveMode(int mode) {
+        if (mode != FOCUS_MOVE_MODE_LAYOUT && mode != FOCUS_MOVE_MODE_TRANSFORM) {
+            throw new IllegalArgumentException("Unknown focus move mode: " + mode);
+        }
+        focusMoveMode = mode;
+        sDefaultStyle = null;
+    }
+
+    /**
+     * 设置动画期间是否使用硬件层，动画结束后恢复，默认焦点item不使用
+     * 焦点框的图片大小每帧都会改变，焦点框本身不使用硬件层
+     *
+     * @param enabled     是否使用硬件层，false时焦点item也不使用
+     * @param itemEnabled 获得焦点的view是否也使用硬件层，用于item放大等效果
+     */
+    public static void setHardwareLayerEnabled(boolean enabled, boolean itemEnabled) {
+        isHardwareLayerEnabled = enabled;
+        isItemLayerEnabled = itemEnabled;
+    }
+
+    public static boolean isHardwareLayerEnabled() {
+        return isHardwareLayerEnabled;
+    }
+
+    /**
+     * 设置获得焦点的view放大倍数，默认1即不放大
+     * 放大动画和焦点框移动同时进行，焦点框包住放大后的view
+     *
+     * @param scale 如1.1f
+     */
+    public static void setFocusZoom(float scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("scale must be > 0");
+        }
+        focusZoomScale = scale;
+        sDefaultStyle = null;
+    }
+
+    /**
+     * 设置焦点位置计算方式，默认{@link #LOCATION_MODE_SCREEN}
+     * {@link #LOCATION_MODE_PARENT}模式下计算view相对于焦点框父布局的位置，焦点框需要先添加到父布局中
+     *
+     * @param mode
+     */
+    public static void setLocationMode(int mode) {
+        if (mode != LOCATION_MODE_SCREEN && mode != LOCATION_MODE_PARENT) {
+            throw new IllegalArgumentException("Unknown location mode: " + mode);
+        }
+        locationMode = mode;
+        sDefaultStyle = null;
     }
 
     public static LayoutParams getLayoutParams(int width, int height) {
+        return getLayoutParams(getDefaultStyle(), width, height);
+    }
+
+    /**
+     * 获取包住width、height大小的view的焦点框布局参数
+     *
+     * @param style  焦点框样式
+     * @param width
+     * @param height
+     * @return
+     */
+    public static LayoutParams getLayoutParams(FocusStyle style, int width, int height) {
         if (width <= 0 || height <= 0) {
             return null;
         }
         LayoutParams params = new LayoutParams(width, height);
-        params.width = width + focusMarginLeft + focusMarginRight;
-        params.height = height + focusMarginTop + focusMarginBottom;
+        params.width = width + style.getMarginLeft() + style.getMarginRight();
+        params.height = height + style.getMarginTop() + style.getMarginBottom();
         return params;
     }
 
@@ -81,22 +316,48 @@ public class FocusUtils {
                 || view.getHeight() <= 0) {
             return;
         }
-        int location[] = ViewUtil.getLocation(view);
-        if (location == null || location[0] < 0 || location[1] < 0) {
+        FocusStyle style = FocusStyle.of(focusView);
+        int location[] = sLocation;
+        if (!getTargetLocation(style, focusView, view, location)) {
             return;
         }
-        int width = view.getWidth();
-        int height = view.getHeight();
-        int x = location[0];
-        int y = location[1];
-        int focusX = x - FocusUtils.focusMarginLeft;
-        int focusY = y - FocusUtils.focusMarginTop;
-        LayoutParams focusParams = getLayoutParams(width, height);
+        FocusTracker.onFocusMoved(focusView, view, location);
+        FocusPrefetcher.onFocusMoved(focusView, view);
+        Rect rect = sTargetRect;
+        rect.set(location[0], location[1], location[0] + view.getWidth(), location[1] + view.getHeight());
+        zoomItem(style, focusView, view, rect, false);
+        int width = rect.width();
+        int height = rect.height();
+        int x = rect.left;
+        int y = rect.top;
+        int focusX = x - style.getMarginLeft();
+        int focusY = y - style.getMarginTop();
+        LayoutParams focusParams = getLayoutParams(style, width, height);
+        FocusAnimator.get(focusView).cancel();
         focusView.setX(focusX);
         focusView.setY(focusY);
+        if (style.getMoveMode() == FOCUS_MOVE_MODE_TRANSFORM) {
+            fixTransformLayout(focusView, focusParams.width, focusParams.height);
+            return;
+        }
+        FocusFrameDrawable frame = FocusFrameDrawable.peek(focusView);
+        if (frame != null) {
+            frame.clearSize();
+        }
         focusView.setLayoutParams(focusParams);
     }
 
+    /**
+     * 平移模式下固定焦点框的布局大小，只在初始化时布局一次，之后的移动只改变图片的绘制大小
+     */
+    private static void fixTransformLayout(ImageView focusView, int width, int height) {
+        focusView.setScaleX(1f);
+        focusView.setScaleY(1f);
+        // 布局大小固定为父布局大小，足够容纳任意位置的焦点框，图片从左上角按焦点框大小绘制
+        focusView.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+        FocusFrameDrawable.wrap(focusView).setSize(width, height);
+    }
+
     /**
      * 设置焦点框到某view的位置
      *
@@ -104,60 +365,174 @@ public class FocusUtils {
      * @param view
      */
     public static void setFocusViewLocation(ImageView focusView, View view) {
+        FocusStyle style = FocusStyle.of(focusView);
+        setFocusViewLocation(style, focusView, view, style.isShowAnimation());
+    }
+
+    /**
+     * 设置焦点框到某view的位置
+     *
+     * @param focusView
+     * @param view
+     * @param showAni   本次移动是否显示动画
+     */
+    public static void setFocusViewLocation(ImageView focusView, View view, boolean showAni) {
+        setFocusViewLocation(FocusStyle.of(focusView), focusView, view, showAni);
+    }
+
+    /**
+     * 设置焦点框到某view的位置，样式由调用方获取，每次移动只查找一次
+     *
+     * @param style     焦点框的样式，即FocusStyle.of(focusView)
+     * @param focusView
+     * @param view
+     * @param showAni   本次移动是否显示动画
+     */
+    static void setFocusViewLocation(FocusStyle style, ImageView focusView, View view, boolean showAni) {
+        FocusMetrics.onFocusChanged();
         if (focusView == null || view == null || view.getWidth() <= 0
                 || view.getHeight() <= 0) {
+            FocusMetrics.onMoveCancelled();
             return;
         }
-        int location[] = ViewUtil.getLocation(view);
-        if (location == null || location[0] < 0 || location[1] < 0) {
+        int location[] = sLocation;
+        long locateStart = FocusMetrics.startLocate();
+        // 焦点落在预取过的view上时直接使用预取的位置
+        boolean located = FocusPrefetcher.lookup(focusView, view, location)
+                || getTargetLocation(style, focusView, view, location);
+        FocusMetrics.onLocated(locateStart);
+        if (!located) {
+            FocusMetrics.onMoveCancelled();
+            return;
+        }
+        FocusTracker.onFocusMoved(focusView, view, location);
+        FocusPrefetcher.onFocusMoved(focusView, view);
+        Rect rect = sTargetRect;
+        rect.set(location[0], location[1], location[0] + view.getWidth(), location[1] + view.getHeight());
+        zoomItem(style, focusView, view, rect, showAni);
+        int width = rect.width();
+        int height = rect.height();
+        int x = rect.left;
+        int y = rect.top;
+        int focusX = x - style.getMarginLeft();
+        int focusY = y - style.getMarginTop();
+        int focusWidth = width + style.getMarginLeft() + style.getMarginRight();
+        int focusHeight = height + style.getMarginTop() + style.getMarginBottom();
+        if (style.getMoveMode() == FOCUS_MOVE_MODE_TRANSFORM) {
+            moveFocusByTransform(style, focusView, view, focusX, focusY, focusWidth, focusHeight,
+                    showAni);
+            return;
+        }
+        FocusAnimator animator = FocusAnimator.get(focusView);
+        if (animator.isAnimatingTo(focusX, focusY, focusWidth, focusHeight)) {
+            FocusMetrics.onMoveStarted(true);
             return;
         }
-        int width = view.getWidth();
-        int height = view.getHeight();
-        int x = location[0];
-        int y = location[1];
-        int focusX = x - FocusUtils.focusMarginLeft;
-        int focusY = y - FocusUtils.focusMarginTop;
         // 如果焦点框大小、位置未改变，则不需要重绘焦点框
-        if (focusView.getX() == focusX && focusView.getY() == focusY
-                && focusView.getWidth() == width + focusMarginLeft + focusMarginRight
-                && focusView.getHeight() == height + focusMarginTop + focusMarginBottom) {
+        if (!animator.isRunning() && focusView.getX() == focusX && focusView.getY() == focusY
+                && focusView.getWidth() == focusWidth && focusView.getHeight() == focusHeight) {
+            FocusMetrics.onMoveStarted(false);
             return;
         }
-        LayoutParams focusParams = getLayoutParams(width, height);
-        if (isShowFocusMoveAni) {
-            startMoveFocusAnimation(focusView, focusX, focusY,
-                    focusParams.width, focusParams.height);
+        if (focusView.getLayoutParams() == null) {
+            focusView.setLayoutParams(getLayoutParams(style, width, height));
+        }
+        animator.setLayerItem(isItemLayerEnabled ? view : null);
+        if (showAni) {
+            animator.setInterpolator(style.getInterpolator());
+            animator.animateTo(FOCUS_MOVE_MODE_LAYOUT, focusX, focusY, focusWidth, focusHeight,
+                    style.getDuration());
         } else {
+            animator.jumpTo(FOCUS_MOVE_MODE_LAYOUT, focusX, focusY, focusWidth, focusHeight);
+        }
+    }
+
+    /**
+     * 通过平移移动到目标位置，焦点框布局大小不变，由FocusAnimator逐帧改变图片的绘制大小
+     */
+    private static void moveFocusByTransform(FocusStyle style, ImageView focusView, View item,
+                                             int focusX, int focusY, int width, int height,
+                                             boolean showAni) {
+        FocusAnimator animator = FocusAnimator.get(focusView);
+        FocusFrameDrawable frame = FocusFrameDrawable.peek(focusView);
+        if (frame == null || focusView.getLayoutParams() == null) {
+            // 焦点框还没有固定布局，只在第一次设置布局
+            animator.cancel();
             focusView.setX(focusX);
             focusView.setY(focusY);
-            focusView.setLayoutParams(focusParams);
+            fixTransformLayout(focusView, width, height);
+            FocusMetrics.onMoveStarted(false);
+            return;
+        }
+        if (animator.isAnimatingTo(focusX, focusY, width, height)) {
+            FocusMetrics.onMoveStarted(true);
+            return;
+        }
+        // 如果焦点框位置、大小未改变，则不需要重绘焦点框
+        if (!animator.isRunning() && focusView.getX() == focusX && focusView.getY() == focusY
+                && frame.getFrameWidth() == width && frame.getFrameHeight() == height) {
+            FocusMetrics.onMoveStarted(false);
+            return;
+        }
+        animator.setLayerItem(isItemLayerEnabled ? item : null);
+        if (showAni) {
+            animator.setInterpolator(style.getInterpolator());
+            animator.animateTo(FOCUS_MOVE_MODE_TRANSFORM, focusX, focusY, width, height,
+                    style.getDuration());
+        } else {
+            animator.jumpTo(FOCUS_MOVE_MODE_TRANSFORM, focusX, focusY, width, height);
+        }
+    }
+
+    /**
+     * 获取焦点框要移动到的view的位置，不包含view自身的缩放
+     *
+     * @param style 焦点框的样式，即FocusStyle.of(focusView)
+     */
+    static boolean getTargetLocation(FocusStyle style, View focusView, View view, int[] location) {
+        if (style.getLocationMode() == LOCATION_MODE_PARENT && focusView.getParent() instanceof ViewGroup) {
+            FocusLocator locator = FocusLocator.get((ViewGroup) focusView.getParent());
+            return locator.getLocation(view, location);
         }
+        if (!ViewUtil.getLocation(view, location)) {
+            return false;
+        }
+        if (view.getScaleX() != 1f || view.getScaleY() != 1f) {
+            // getLocationOnScreen包含view自身的缩放，换算为未缩放时的位置
+            location[0] -= Math.round(view.getPivotX() * (1 - view.getScaleX()));
+            location[1] -= Math.round(view.getPivotY() * (1 - view.getScaleY()));
+        }
+        return true;
     }
 
-    private static void startMoveFocusAnimation(ImageView focusView,
-                                                int focusX, int focusY, int width, int height) {
-        if (focusView == null || width <= 0 || height <= 0) {
+    /**
+     * 需要放大焦点item时，开始放大动画，并把rect换算为放大后的区域
+     *
+     * @param style    焦点框样式
+     * @param zoomHost 焦点框或焦点浮层所在的布局，每个对应一个FocusZoomer
+     * @param item     获得焦点的view
+     * @param rect     item未缩放时的区域，输出放大后的区域
+     * @param showAni  是否显示放大动画
+     */
+    static void zoomItem(FocusStyle style, View zoomHost, View item, Rect rect, boolean showAni) {
+        float scale = style.getZoomScale();
+        if (scale == 1f) {
             return;
         }
-        PropertyValuesHolder focusXHolder = PropertyValuesHolder.ofFloat("x",
-                focusX);
-        PropertyValuesHolder focusYHolder = PropertyValuesHolder.ofFloat("y",
-                focusY);
-        ObjectAnimator locationAnim = ObjectAnimator.ofPropertyValuesHolder(
-                focusView, focusXHolder, focusYHolder);
-        locationAnim.setDuration(ANIM_TIME);
-        locationAnim.start();
-
-        ViewWrapper wrapper = new ViewWrapper(focusView);
-        PropertyValuesHolder widthHolder = PropertyValuesHolder.ofInt("width",
-                width);
-        PropertyValuesHolder heightHolder = PropertyValuesHolder.ofInt(
-                "height", height);
-        ObjectAnimator sizeAnim = ObjectAnimator.ofPropertyValuesHolder(
-                wrapper, widthHolder, heightHolder);
-        sizeAnim.setDuration(ANIM_TIME);
-        sizeAnim.start();
+        FocusZoomer.get(zoomHost).zoomTo(item, scale, style.getDuration(), showAni);
+        int left = rect.left + Math.round(item.getPivotX() * (1 - scale));
+        int top = rect.top + Math.round(item.getPivotY() * (1 - scale));
+        rect.set(left, top, left + Math.round(rect.width() * scale),
+                top + Math.round(rect.height() * scale));
+    }
 
+    /**
+     * 清除焦点位置计算的缓存
+     */
+    static void invalidateTargetLocation(FocusStyle style, View focusView) {
+        if (style.getLocationMode() == LOCATION_MODE_PARENT
+                && focusView.getParent() instanceof ViewGroup) {
+            FocusLocator.get((ViewGroup) focusView.getParent()).invalidate();
+        }
     }
 }
@@ -0,0 +1,212 @@
+package com.corey.tvfocuslib;
+
+import android.animation.Animator;
+import android.animation.ValueAnimator;
+import android.view.View;
+
+/**
+ * 焦点item放大动画
+ * 每个焦点框只创建一个实例，旧焦点缩小和新焦点放大由同一个动画驱动，每帧一起更新，
+ * 不需要为每个item创建ViewPropertyAnimator。动画期间两个item都使用硬件层，
+ * 缩放只改变RenderNode属性，不会重绘item内容，动画结束后释放硬件层。
+ * 动画未结束时焦点再次变化，正在缩小的item直接恢复原大小，正在放大的item从当前大小开始缩小。
+ * 只能在主线程使用。
+ */
+public class FocusZoomer implements ValueAnimator.AnimatorUpdateListener,
+        Animator.AnimatorListener {
+
+    private final ValueAnimator mAnimator;
+
+    /**
+     * 正在放大的item
+     */
+    private View mZoomIn;
+    private float mZoomInStart;
+    private float mZoomInEnd = 1f;
+    /**
+     * 正在缩小的item
+     */
+    private View mZoomOut;
+    private float mZoomOutStart;
+
+    private boolean mRetargeting;
+    private boolean mZoomInPromoted;
+    private boolean mZoomOutPromoted;
+
+    /**
+     * 获取焦点框对应的放大动画，没有则创建
+     *
+     * @param host 焦点框或焦点浮层所在的根布局
+     * @return
+     */
+    public static FocusZoomer get(View host) {
+        if (host == null) {
+            return null;
+        }
+        Object tag = host.getTag(R.id.tv_focus_zoomer);
+        if (tag instanceof FocusZoomer) {
+            return (FocusZoomer) tag;
+        }
+        FocusZoomer zoomer = new FocusZoomer();
+        host.setTag(R.id.tv_focus_zoomer, zoomer);
+        return zoomer;
+    }
+
+    /**
+     * 恢复host对应的放大item，没有创建过放大动画时不做处理
+     *
+     * @param host
+     */
+    public static void reset(View host) {
+        if (host == null) {
+            return;
+        }
+        Object tag = host.getTag(R.id.tv_focus_zoomer);
+        if (tag instanceof FocusZoomer) {
+            ((FocusZoomer) tag).reset();
+        }
+    }
+
+    private FocusZoomer() {
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.addUpdateListener(this);
+        mAnimator.addListener(this);
+    }
+
+    /**
+     * 放大新的焦点item，同时缩小上一个
+     *
+     * @param item     新的焦点
+     * @param scale    放大倍数
+     * @param duration 动画时间
+     * @param showAni  是否显示动画，false时直接设置缩放
+     */
+    public void zoomTo(View item, float scale, long duration, boolean showAni) {
+        if (item == mZoomIn && scale == mZoomInEnd) {
+            if (!showAni && mAnimator.isRunning()) {
+                mAnimator.end();
+            }
+            return;
+        }
+        if (mAnimator.isRunning()) {
+            mRetargeting = true;
+            mAnimator.cancel();
+            mRetargeting = false;
+        }
+        // 上一次动画中正在缩小的item直接恢复
+        boolean itemPromoted = false;
+        if (mZoomOut == item) {
+            itemPromoted = mZoomOutPromoted;
+        } else if (mZoomOut != null) {
+            setScale(mZoomOut, 1f);
+            if (mZoomOutPromoted) {
+                ViewUtil.releaseHardwareLayer(mZoomOut);
+            }
+        }
+        // 正在放大的item转为缩小，硬件层随之转移
+        View previous = mZoomIn;
+        boolean previousPromoted = mZoomInPromoted;
+        if (previous == item) {
+            itemPromoted = mZoomInPromoted;
+            previous = null;
+            previousPromoted = false;
+        }
+        mZoomOut = previous;
+        mZoomOutPromoted = previousPromoted;
+        mZoomInPromoted = itemPromoted;
+        mZoomOutStart = previous != null ? previous.getScaleX() : 1f;
+        mZoomIn = item;
+        mZoomInStart = item.getScaleX();
+        mZoomInEnd = scale;
+
+        if (!showAni || duration <= 0) {
+            applyFraction(1f);
+            releaseLayers();
+            mZoomOut = null;
+            return;
+        }
+        if (FocusUtils.isHardwareLayerEnabled()) {
+            if (!mZoomInPromoted) {
+                mZoomInPromoted = ViewUtil.promoteHardwareLayer(mZoomIn);
+            }
+            if (mZoomOut != null && !mZoomOutPromoted) {
+                mZoomOutPromoted = ViewUtil.promoteHardwareLayer(mZoomOut);
+            }
+        }
+        mAnimator.setDuration(duration);
+        mAnimator.start();
+    }
+
+    /**
+     * 取消动画并恢复所有item的大小
+     */
+    public void reset() {
+        if (mAnimator.isRunning()) {
+            // cancel会回调onAnimationEnd，不能在恢复大小之前清除正在缩小的item
+            mRetargeting = true;
+            mAnimator.cancel();
+            mRetargeting = false;
+        }
+        releaseLayers();
+        if (mZoomOut != null) {
+            setScale(mZoomOut, 1f);
+            mZoomOut = null;
+        }
+        if (mZoomIn != null) {
+            setScale(mZoomIn, 1f);
+            mZoomIn = null;
+        }
+        mZoomInEnd = 1f;
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        applyFraction(animation.getAnimatedFraction());
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        if (mRetargeting) {
+            return;
+        }
+        releaseLayers();
+        mZoomOut = null;
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+    }
+
+    @Override
+    public void onAnimationRepeat(Animator animation) {
+    }
+
+    private void applyFraction(float fraction) {
+        if (mZoomIn != null) {
+            setScale(mZoomIn, mZoomInStart + (mZoomInEnd - mZoomInStart) * fraction);
+        }
+        if (mZoomOut != null) {
+            setScale(mZoomOut, mZoomOutStart + (1f - mZoomOutStart) * fraction);
+        }
+    }
+
+    private void releaseLayers() {
+        if (mZoomInPromoted) {
+            ViewUtil.releaseHardwareLayer(mZoomIn);
+            mZoomInPromoted = false;
+        }
+        if (mZoomOutPromoted) {
+            ViewUtil.releaseHardwareLayer(mZoomOut);
+            mZoomOutPromoted = false;
+        }
+    }
+
+    private static void setScale(View view, float scale) {
+        view.setScaleX(scale);
+        view.setScaleY(scale);
+    }
+}
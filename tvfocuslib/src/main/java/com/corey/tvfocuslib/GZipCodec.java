@@ -0,0 +1,498 @@
+package com.corey.tvfocuslib;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * GZip流式压缩、解压
+ * 从Reader、InputStream分段读取，直接写入OutputStream或ByteBuffer，不在内存中保留整个数据。
+ * Deflater、Inflater和缓冲区放在一个小的对象池中复用，GZip头和尾由这里写入。
+ * 每次调用返回{@link Result}，包含压缩前后的大小和耗时，用于统计。
+ * 可以在任意线程使用。
+ */
+public final class GZipCodec {
+
+    /**
+     * 对象池最多保留的个数
+     */
+    private static final int POOL_SIZE = 4;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FLAG_HCRC = 2;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_NAME = 8;
+    private static final int FLAG_COMMENT = 16;
+    /**
+     * 压缩方式deflate，没有文件名等可选字段，修改时间为0，系统未知
+     */
+    private static final byte[] HEADER = {
+            (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xFF
+    };
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ArrayDeque<DeflateContext> sDeflaters = new ArrayDeque<DeflateContext>();
+    private static final ArrayDeque<InflateContext> sInflaters = new ArrayDeque<InflateContext>();
+
+    private GZipCodec() {
+    }
+
+    /**
+     * 一次压缩或解压的统计
+     */
+    public static final class Result {
+        private final long mCompressedSize;
+        private final long mUncompressedSize;
+        private final long mElapsedNanos;
+
+        Result(long compressedSize, long uncompressedSize, long elapsedNanos) {
+            mCompressedSize = compressedSize;
+            mUncompressedSize = uncompressedSize;
+            mElapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * GZip数据的字节数，包括头和尾
+         */
+        public long getCompressedSize() {
+            return mCompressedSize;
+        }
+
+        public long getUncompressedSize() {
+            return mUncompressedSize;
+        }
+
+        public long getElapsedNanos() {
+            return mElapsedNanos;
+        }
+
+        /**
+         * 压缩后与压缩前的大小之比，压缩前为空时为1
+         */
+        public float getRatio() {
+            return mUncompressedSize == 0 ? 1f : (float) mCompressedSize / mUncompressedSize;
+        }
+
+        @Override
+        public String toString() {
+            return "GZipCodec.Result{" + mUncompressedSize + "B <-> " + mCompressedSize + "B, "
+                    + mElapsedNanos / 1000 + "us}";
+        }
+    }
+
+    /**
+     * 以默认压缩级别压缩，读取到流结束，不关闭流
+     */
+    public static Result compress(InputStream in, OutputStream out) throws IOException {
+        return compress(in, out, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * 压缩，读取到流结束，不关闭流
+     *
+     * @param level {@link Deflater#DEFAULT_COMPRESSION}或0~9
+     */
+    public static Result compress(InputStream in, OutputStream out, int level) throws IOException {
+        long start = System.nanoTime();
+        DeflateContext context = obtainDeflater(level);
+        try {
+            context.begin(out);
+            byte[] input = context.input;
+            int read;
+            while ((read = in.read(input)) != -1) {
+                context.deflate(input, read);
+            }
+            context.finish();
+            return new Result(context.compressedSize, context.uncompressedSize, System.nanoTime() - start);
+        } finally {
+            recycle(context);
+        }
+    }
+
+    /**
+     * 以默认压缩级别压缩UTF-8编码的文本，读取到结束，不关闭流
+     */
+    public static Result compress(Reader in, OutputStream out) throws IOException {
+        return compress(in, out, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * 压缩UTF-8编码的文本，读取到结束，不关闭流
+     *
+     * @param level {@link Deflater#DEFAULT_COMPRESSION}或0~9
+     */
+    public static Result compress(Reader in, OutputStream out, int level) throws IOException {
+        long start = System.nanoTime();
+        DeflateContext context = obtainDeflater(level);
+        try {
+            context.begin(out);
+            CharsetEncoder encoder = context.encoder;
+            encoder.reset();
+            char[] chars = context.chars;
+            CharBuffer charBuffer = context.charBuffer;
+            charBuffer.clear();
+            ByteBuffer byteBuffer = context.byteBuffer;
+            boolean eof = false;
+            while (true) {
+                if (!eof) {
+                    // 直接读到char数组中，Reader.read(CharBuffer)每次都会创建数组
+                    int read = in.read(chars, charBuffer.position(), charBuffer.remaining());
+                    if (read == -1) {
+                        eof = true;
+                    } else {
+                        charBuffer.position(charBuffer.position() + read);
+                    }
+                }
+                charBuffer.flip();
+                byteBuffer.clear();
+                CoderResult result = encoder.encode(charBuffer, byteBuffer, eof);
+                // 保留末尾不完整的代理对，与下一段一起编码
+                charBuffer.compact();
+                context.deflate(context.input, byteBuffer.position());
+                if (eof && result.isUnderflow()) {
+                    break;
+                }
+            }
+            byteBuffer.clear();
+            encoder.flush(byteBuffer);
+            context.deflate(context.input, byteBuffer.position());
+            context.finish();
+            return new Result(context.compressedSize, context.uncompressedSize, System.nanoTime() - start);
+        } finally {
+            recycle(context);
+        }
+    }
+
+    /**
+     * 压缩到ByteBuffer中，从position开始写入，完成后position在数据末尾
+     *
+     * @throws BufferOverflowException ByteBuffer剩余空间不足
+     */
+    public static Result compress(InputStream in, ByteBuffer out, int level) throws IOException {
+        return compress(in, new ByteBufferOutputStream(out), level);
+    }
+
+    /**
+     * 压缩UTF-8编码的文本到ByteBuffer中，从position开始写入，完成后position在数据末尾
+     *
+     * @throws BufferOverflowException ByteBuffer剩余空间不足
+     */
+    public static Result compress(Reader in, ByteBuffer out, int level) throws IOException {
+        return compress(in, new ByteBufferOutputStream(out), level);
+    }
+
+    /**
+     * 解压，支持多个GZip成员连接在一起的数据。读取到流结束，不关闭流
+     *
+     * @throws ZipException 不是GZip格式、数据损坏或校验失败
+     * @throws EOFException 数据不完整
+     */
+    public static Result decompress(InputStream in, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        InflateContext context = obtainInflater();
+        try {
+            context.begin(in);
+            do {
+                context.inflateMember(out);
+            } while (context.hasMore());
+            return new Result(context.compressedSize, context.uncompressedSize, System.nanoTime() - start);
+        } finally {
+            recycle(context);
+        }
+    }
+
+    /**
+     * 解压到ByteBuffer中，从position开始写入，完成后position在数据末尾
+     *
+     * @throws BufferOverflowException ByteBuffer剩余空间不足
+     */
+    public static Result decompress(InputStream in, ByteBuffer out) throws IOException {
+        return decompress(in, new ByteBufferOutputStream(out));
+    }
+
+    private static DeflateContext obtainDeflater(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        DeflateContext context;
+        synchronized (sDeflaters) {
+            context = sDeflaters.poll();
+        }
+        if (context == null) {
+            context = new DeflateContext();
+        }
+        context.deflater.setLevel(level);
+        return context;
+    }
+
+    private static void recycle(DeflateContext context) {
+        context.deflater.reset();
+        context.out = null;
+        synchronized (sDeflaters) {
+            if (sDeflaters.size() < POOL_SIZE) {
+                sDeflaters.add(context);
+                return;
+            }
+        }
+        context.deflater.end();
+    }
+
+    private static InflateContext obtainInflater() {
+        InflateContext context;
+        synchronized (sInflaters) {
+            context = sInflaters.poll();
+        }
+        return context != null ? context : new InflateContext();
+    }
+
+    private static void recycle(InflateContext context) {
+        context.inflater.reset();
+        context.in = null;
+        synchronized (sInflaters) {
+            if (sInflaters.size() < POOL_SIZE) {
+                sInflaters.add(context);
+                return;
+            }
+        }
+        context.inflater.end();
+    }
+
+    private static void writeIntLE(byte[] buffer, int offset, long value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * 压缩使用的Deflater和缓冲区
+     */
+    private static final class DeflateContext {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final CRC32 crc = new CRC32();
+        final byte[] input = new byte[BUFFER_SIZE];
+        final byte[] output = new byte[BUFFER_SIZE];
+        /**
+         * 每个字符UTF-8编码后最多3个byte，代理对4个byte
+         */
+        final char[] chars = new char[BUFFER_SIZE / 3];
+        final CharBuffer charBuffer = CharBuffer.wrap(chars);
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(input);
+        final CharsetEncoder encoder = UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        OutputStream out;
+        long compressedSize;
+        long uncompressedSize;
+
+        void begin(OutputStream out) throws IOException {
+            this.out = out;
+            crc.reset();
+            uncompressedSize = 0;
+            out.write(HEADER);
+            compressedSize = HEADER.length;
+        }
+
+        void deflate(byte[] data, int length) throws IOException {
+            if (length <= 0) {
+                return;
+            }
+            crc.update(data, 0, length);
+            uncompressedSize += length;
+            deflater.setInput(data, 0, length);
+            while (!deflater.needsInput()) {
+                write(deflater.deflate(output));
+            }
+        }
+
+        void finish() throws IOException {
+            deflater.finish();
+            while (!deflater.finished()) {
+                write(deflater.deflate(output));
+            }
+            writeIntLE(output, 0, crc.getValue());
+            writeIntLE(output, 4, uncompressedSize);
+            out.write(output, 0, 8);
+            compressedSize += 8;
+        }
+
+        private void write(int length) throws IOException {
+            if (length > 0) {
+                out.write(output, 0, length);
+                compressedSize += length;
+            }
+        }
+    }
+
+    /**
+     * 解压使用的Inflater和缓冲区
+     */
+    private static final class InflateContext {
+        final Inflater inflater = new Inflater(true);
+        final CRC32 crc = new CRC32();
+        final byte[] input = new byte[BUFFER_SIZE];
+        final byte[] output = new byte[BUFFER_SIZE];
+        InputStream in;
+        /**
+         * input中未处理的数据范围
+         */
+        int pos;
+        int limit;
+        long compressedSize;
+        long uncompressedSize;
+
+        void begin(InputStream in) {
+            this.in = in;
+            pos = 0;
+            limit = 0;
+            compressedSize = 0;
+            uncompressedSize = 0;
+        }
+
+        void inflateMember(OutputStream out) throws IOException {
+            readHeader();
+            inflater.reset();
+            crc.reset();
+            long memberSize = 0;
+            inflater.setInput(input, pos, limit - pos);
+            try {
+                while (!inflater.finished()) {
+                    int length = inflater.inflate(output);
+                    if (length > 0) {
+                        out.write(output, 0, length);
+                        crc.update(output, 0, length);
+                        memberSize += length;
+                    } else if (inflater.needsInput()) {
+                        if (!fill()) {
+                            throw new EOFException("Unexpected end of GZip data");
+                        }
+                        inflater.setInput(input, pos, limit - pos);
+                    } else if (inflater.needsDictionary()) {
+                        throw new ZipException("Invalid GZip data: preset dictionary");
+                    }
+                }
+            } catch (DataFormatException e) {
+                ZipException exception = new ZipException("Invalid GZip data");
+                exception.initCause(e);
+                throw exception;
+            }
+            pos = limit - inflater.getRemaining();
+            uncompressedSize += memberSize;
+            if (readIntLE() != crc.getValue()) {
+                throw new ZipException("GZip CRC mismatch");
+            }
+            if (readIntLE() != (memberSize & 0xFFFFFFFFL)) {
+                throw new ZipException("GZip size mismatch");
+            }
+        }
+
+        /**
+         * @return 后面还有数据
+         */
+        boolean hasMore() throws IOException {
+            return pos < limit || fill();
+        }
+
+        private void readHeader() throws IOException {
+            if (readShortLE() != GZIP_MAGIC) {
+                throw new ZipException("Not in GZip format");
+            }
+            if (readByte() != Deflater.DEFLATED) {
+                throw new ZipException("Unsupported GZip compression method");
+            }
+            int flags = readByte();
+            // 修改时间、压缩标记和系统
+            skip(6);
+            if ((flags & FLAG_EXTRA) != 0) {
+                skip(readShortLE());
+            }
+            if ((flags & FLAG_NAME) != 0) {
+                skipString();
+            }
+            if ((flags & FLAG_COMMENT) != 0) {
+                skipString();
+            }
+            if ((flags & FLAG_HCRC) != 0) {
+                skip(2);
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int read = in.read(input);
+            if (read <= 0) {
+                pos = limit = 0;
+                return false;
+            }
+            pos = 0;
+            limit = read;
+            compressedSize += read;
+            return true;
+        }
+
+        private int readByte() throws IOException {
+            if (pos >= limit && !fill()) {
+                throw new EOFException("Unexpected end of GZip data");
+            }
+            return input[pos++] & 0xFF;
+        }
+
+        private int readShortLE() throws IOException {
+            return readByte() | (readByte() << 8);
+        }
+
+        private long readIntLE() throws IOException {
+            return (readShortLE() | ((long) readShortLE() << 16)) & 0xFFFFFFFFL;
+        }
+
+        private void skip(int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                readByte();
+            }
+        }
+
+        private void skipString() throws IOException {
+            while (readByte() != 0) {
+                // 以0结尾
+            }
+        }
+    }
+
+    /**
+     * 写入ByteBuffer，空间不足时抛出{@link BufferOverflowException}
+     */
+    private static final class ByteBufferOutputStream extends OutputStream {
+        private final ByteBuffer mBuffer;
+
+        ByteBufferOutputStream(ByteBuffer buffer) {
+            mBuffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            mBuffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            mBuffer.put(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,590 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
+import android.view.InflateException;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * 布局加载时按设计图适配尺寸
+ * 布局中的宽高、margin、padding和字体大小以设计图像素（px）为单位，
+ * 在加载布局时通过{@link ResolutionUtil}适配，不需要在onCreate中逐个设置，也不会多一次布局。
+ * 直接使用LayoutInflater加载时，padding和字体在创建view时适配，布局参数在父布局生成后、加入父布局时适配
+ * （加载子view期间临时包装父布局的OnHierarchyChangeListener，转发给原来的监听，子view加载完成后恢复）；
+ * 加载的根view的布局参数由调用方的root生成，只有通过{@link #inflate(int, ViewGroup, boolean)}
+ * 或{@link #setContentView}加载时才会适配。
+ * 通过inflate加载的布局在加载完成后统一适配，按布局和Configuration缓存每个view适配后的数值，
+ * 列表item等重复加载的布局之后直接设置。
+ * 每个view只适配一次，之后在代码中设置的数值不会再被适配。只能在主线程使用。
+ */
+public class ResolutionLayoutFactory implements LayoutInflater.Factory2 {
+
+    private static final String[] CLASS_PREFIXES = {
+            "android.widget.",
+            "android.webkit.",
+            "android.app.",
+            "android.view."
+    };
+
+    /**
+     * 每个view缓存的数值：宽、高、4个margin、4个padding、字体大小
+     */
+    private static final int FIELDS = 11;
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    /**
+     * view上记录的状态：由本factory创建、padding和字体已适配、布局参数已适配
+     */
+    private static final int CREATED = 1;
+    private static final int SCALED_VIEW = 1 << 1;
+    private static final int SCALED_PARAMS = 1 << 2;
+
+    /**
+     * 没有安装factory的LayoutInflater通过{@link #inflate(LayoutInflater, int, ViewGroup, boolean)}加载时使用
+     */
+    private static final LayoutCache sLayoutCache = new LayoutCache();
+
+    private static final Class<?>[] CONSTRUCTOR_SIGNATURE = new Class<?>[]{Context.class, AttributeSet.class};
+    private static final HashMap<String, Constructor<? extends View>> sConstructorMap =
+            new HashMap<String, Constructor<? extends View>>();
+    private static final HashSet<String> sMissingClasses = new HashSet<String>();
+    /**
+     * ViewGroup.mOnHierarchyChangeListener，没有公开的getter，读取失败时为null
+     */
+    private static Field sHierarchyListenerField;
+    private static boolean sHierarchyListenerFieldFetched;
+
+    private final Object[] mConstructorArgs = new Object[2];
+    private final LayoutInflater mInflater;
+    private final LayoutInflater.Factory2 mDelegate;
+    private final ResolutionUtil mResolutionUtil;
+    private final LayoutCache mLayoutCache = new LayoutCache();
+    /**
+     * 正在通过inflate加载，创建view时不适配，加载完成后统一适配
+     */
+    private int mInflateDepth;
+
+    /**
+     * 临时包装了监听、还没有恢复的父布局
+     */
+    private final ArrayList<ViewGroup> mWrappedGroups = new ArrayList<ViewGroup>();
+    private boolean mRestoreScheduled;
+
+    /**
+     * LayoutInflater的加载是同步的，空闲时所有加载都已完成，恢复剩下的父布局（如加载的顶层view）的监听
+     */
+    private final MessageQueue.IdleHandler mRestoreHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            restoreHierarchyListeners();
+            return false;
+        }
+    };
+
+    /**
+     * 在inflater上安装，需要在加载布局之前调用，Activity中在super.onCreate之前调用
+     *
+     * @param inflater 没有设置过Factory的LayoutInflater
+     * @param delegate 原来负责创建view的Factory2，如Activity本身（处理fragment标签）或AppCompat的delegate，可以为null
+     * @return
+     */
+    public static ResolutionLayoutFactory install(LayoutInflater inflater, LayoutInflater.Factory2 delegate) {
+        ResolutionLayoutFactory factory = new ResolutionLayoutFactory(inflater, delegate);
+        inflater.setFactory2(factory);
+        return factory;
+    }
+
+    private ResolutionLayoutFactory(LayoutInflater inflater, LayoutInflater.Factory2 delegate) {
+        mInflater = inflater;
+        mDelegate = delegate;
+        mResolutionUtil = ResolutionUtil.getInstance(inflater.getContext());
+    }
+
+    @Override
+    public View onCreateView(View parent, String name, Context context, AttributeSet attrs) {
+        View view = null;
+        if (mDelegate != null) {
+            view = mDelegate.onCreateView(parent, name, context, attrs);
+        }
+        if (view == null) {
+            view = createView(name, context, attrs);
+        }
+        if (view != null && mInflateDepth == 0) {
+            // fragment等由delegate返回的view可能已经由其他加载过程适配
+            int flags = getFlags(view);
+            if ((flags & SCALED_VIEW) == 0) {
+                scalePaddingAndText(mResolutionUtil, view);
+            }
+            setFlags(view, flags | CREATED | SCALED_VIEW);
+            if (view instanceof ViewGroup) {
+                wrapHierarchyListener((ViewGroup) view);
+            }
+        }
+        return view;
+    }
+
+    @Override
+    public View onCreateView(String name, Context context, AttributeSet attrs) {
+        return onCreateView(null, name, context, attrs);
+    }
+
+    /**
+     * 加载布局并适配，包括根view由root生成的布局参数
+     * 同一个布局在相同Configuration下第一次加载时计算适配后的数值并缓存，之后直接设置
+     * 返回时还没有measure，适配不会多一次布局
+     *
+     * @param layoutId     布局
+     * @param root         父布局
+     * @param attachToRoot
+     * @return 与LayoutInflater.inflate相同
+     */
+    public View inflate(int layoutId, ViewGroup root, boolean attachToRoot) {
+        mInflateDepth++;
+        try {
+            return mLayoutCache.inflate(mResolutionUtil, mInflater, layoutId, root, attachToRoot);
+        } finally {
+            mInflateDepth--;
+        }
+    }
+
+    /**
+     * 加载布局并设置为Activity的内容，根view的布局参数一并适配
+     *
+     * @param activity 使用本factory加载布局的Activity
+     * @param layoutId 布局
+     */
+    public void setContentView(Activity activity, int layoutId) {
+        ViewGroup content = (ViewGroup) activity.findViewById(android.R.id.content);
+        View view = inflate(layoutId, content, false);
+        activity.setContentView(view, view.getLayoutParams());
+    }
+
+    private View createView(String name, Context context, AttributeSet attrs) {
+        if ("fragment".equals(name) || "merge".equals(name) || "include".equals(name)
+                || "requestFocus".equals(name) || "tag".equals(name) || "blink".equals(name)) {
+            // 交给LayoutInflater处理
+            return null;
+        }
+        if ("ViewStub".equals(name)) {
+            // 由LayoutInflater创建，ViewStub会使用安装了本factory的LayoutInflater加载
+            return createByInflater(name, "android.view.", attrs);
+        }
+        if (name.indexOf('.') != -1) {
+            View view = newInstance(name, context, attrs);
+            return view != null ? view : createByInflater(name, null, attrs);
+        }
+        for (String prefix : CLASS_PREFIXES) {
+            View view = newInstance(prefix + name, context, attrs);
+            if (view != null) {
+                return view;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 通过LayoutInflater创建，创建失败时与LayoutInflater相同抛出InflateException
+     *
+     * @return 类不存在时返回null
+     */
+    private View createByInflater(String name, String prefix, AttributeSet attrs) {
+        try {
+            return mInflater.createView(name, prefix, attrs);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 使用缓存的构造函数创建view，失败时返回null
+     */
+    private View newInstance(String className, Context context, AttributeSet attrs) {
+        Constructor<? extends View> constructor = sConstructorMap.get(className);
+        try {
+            if (constructor == null) {
+                if (sMissingClasses.contains(className)) {
+                    return null;
+                }
+                Class<? extends View> clazz = context.getClassLoader().loadClass(className)
+                        .asSubclass(View.class);
+                constructor = clazz.getConstructor(CONSTRUCTOR_SIGNATURE);
+                constructor.setAccessible(true);
+                sConstructorMap.put(className, constructor);
+            }
+            mConstructorArgs[0] = context;
+            mConstructorArgs[1] = attrs;
+            return constructor.newInstance(mConstructorArgs);
+        } catch (ClassNotFoundException e) {
+            sMissingClasses.add(className);
+            return null;
+        } catch (NoSuchMethodException e) {
+            // 没有(Context, AttributeSet)构造函数，交给LayoutInflater处理
+            return null;
+        } catch (ClassCastException e) {
+            // 不是View
+            return null;
+        } catch (Exception e) {
+            // 构造函数本身的异常与LayoutInflater相同抛出，不能当作类不存在
+            InflateException ie = new InflateException(attrs.getPositionDescription()
+                    + ": Error inflating class " + className, e);
+            ie.setStackTrace(e.getStackTrace());
+            throw ie;
+        } finally {
+            mConstructorArgs[0] = null;
+            mConstructorArgs[1] = null;
+        }
+    }
+
+    /**
+     * 包装父布局原来的监听，加载子view期间适配加入的子view的布局参数
+     * 直接读写字段，不经过RadioGroup等重写的setOnHierarchyChangeListener，
+     * 无法读写字段时不包装，避免覆盖自定义ViewGroup设置的监听，此时子view的布局参数不适配
+     */
+    private void wrapHierarchyListener(ViewGroup group) {
+        Field field = getHierarchyListenerField();
+        if (field == null) {
+            return;
+        }
+        try {
+            ViewGroup.OnHierarchyChangeListener original =
+                    (ViewGroup.OnHierarchyChangeListener) field.get(group);
+            field.set(group, new ChildListener(group, original));
+        } catch (IllegalAccessException e) {
+            return;
+        }
+        mWrappedGroups.add(group);
+        if (!mRestoreScheduled) {
+            mRestoreScheduled = true;
+            Looper.myQueue().addIdleHandler(mRestoreHandler);
+        }
+    }
+
+    /**
+     * 恢复父布局原来的监听，之后又设置了其他监听时不处理
+     */
+    private static void restoreHierarchyListener(ViewGroup group) {
+        Field field = getHierarchyListenerField();
+        try {
+            Object listener = field.get(group);
+            if (listener instanceof ChildListener && ((ChildListener) listener).mGroup == group) {
+                field.set(group, ((ChildListener) listener).mOriginal);
+            }
+        } catch (IllegalAccessException e) {
+            // 包装时可以读写，不会发生
+        }
+    }
+
+    /**
+     * 恢复所有还没有恢复的父布局的监听，空闲时调用，测试使用
+     */
+    void restoreHierarchyListeners() {
+        for (int i = 0, size = mWrappedGroups.size(); i < size; i++) {
+            restoreHierarchyListener(mWrappedGroups.get(i));
+        }
+        mWrappedGroups.clear();
+        if (mRestoreScheduled) {
+            mRestoreScheduled = false;
+            Looper.myQueue().removeIdleHandler(mRestoreHandler);
+        }
+    }
+
+    private static Field getHierarchyListenerField() {
+        if (!sHierarchyListenerFieldFetched) {
+            sHierarchyListenerFieldFetched = true;
+            try {
+                Field field = ViewGroup.class.getDeclaredField("mOnHierarchyChangeListener");
+                field.setAccessible(true);
+                sHierarchyListenerField = field;
+            } catch (Exception e) {
+                sHierarchyListenerField = null;
+            }
+        }
+        return sHierarchyListenerField;
+    }
+
+    /**
+     * 本factory创建的view加入本factory创建的父布局时适配布局参数，并转发给父布局原来的监听
+     * 父布局在加载时先生成子view的布局参数再加入子view，此时还没有measure；
+     * 子view加入父布局时它自己的子view已经加载完成，恢复它原来的监听
+     */
+    private final class ChildListener implements ViewGroup.OnHierarchyChangeListener {
+        final ViewGroup mGroup;
+        final ViewGroup.OnHierarchyChangeListener mOriginal;
+
+        ChildListener(ViewGroup group, ViewGroup.OnHierarchyChangeListener original) {
+            mGroup = group;
+            mOriginal = original;
+        }
+
+        @Override
+        public void onChildViewAdded(View parent, View child) {
+            int flags = getFlags(child);
+            if ((flags & CREATED) != 0 && (flags & SCALED_PARAMS) == 0) {
+                scaleParams(mResolutionUtil, child);
+            }
+            if (child instanceof ViewGroup) {
+                restoreHierarchyListener((ViewGroup) child);
+            }
+            if (mOriginal != null) {
+                mOriginal.onChildViewAdded(parent, child);
+            }
+        }
+
+        @Override
+        public void onChildViewRemoved(View parent, View child) {
+            if (mOriginal != null) {
+                mOriginal.onChildViewRemoved(parent, child);
+            }
+        }
+    }
+
+    /**
+     * 加载布局并适配，同一个布局第一次加载时计算适配后的数值并缓存，之后直接设置
+     * 返回时还没有measure，适配不会多一次布局
+     *
+     * @param inflater 加载布局的LayoutInflater，安装了本Factory时使用它的缓存
+     * @param layoutId 布局
+     * @param root     父布局
+     * @param attachToRoot
+     * @return 与LayoutInflater.inflate相同
+     */
+    public static View inflate(LayoutInflater inflater, int layoutId, ViewGroup root, boolean attachToRoot) {
+        if (inflater.getFactory2() instanceof ResolutionLayoutFactory) {
+            return ((ResolutionLayoutFactory) inflater.getFactory2()).inflate(layoutId, root, attachToRoot);
+        }
+        return sLayoutCache.inflate(ResolutionUtil.getInstance(inflater.getContext()), inflater,
+                layoutId, root, attachToRoot);
+    }
+
+    /**
+     * 清除布局缓存，设计图分辨率或屏幕参数变化后会自动清除
+     */
+    public static void clearCache() {
+        sLayoutCache.clear();
+    }
+
+    /**
+     * 清除本factory的布局缓存
+     */
+    public void clearLayoutCache() {
+        mLayoutCache.clear();
+    }
+
+    /**
+     * 缓存命中次数，测试使用
+     */
+    int getCacheHits() {
+        return mLayoutCache.mHits;
+    }
+
+    /**
+     * 缓存未命中、重新计算的次数，测试使用
+     */
+    int getCacheMisses() {
+        return mLayoutCache.mMisses;
+    }
+
+    private static int getFlags(View view) {
+        Object tag = view.getTag(R.id.tv_resolution_scaled);
+        return tag instanceof Integer ? (Integer) tag : 0;
+    }
+
+    private static void setFlags(View view, int flags) {
+        view.setTag(R.id.tv_resolution_scaled, flags);
+    }
+
+    private static void scalePaddingAndText(ResolutionUtil resolutionUtil, View view) {
+        resolutionUtil.scalePadding(view);
+        if (view instanceof TextView) {
+            TextView textView = (TextView) view;
+            textView.setTextSize(TypedValue.COMPLEX_UNIT_PX,
+                    resolutionUtil.px2dp2pxWidth(textView.getTextSize()));
+        }
+    }
+
+    /**
+     * 适配还没有适配过的布局参数
+     */
+    private static void scaleParams(ResolutionUtil resolutionUtil, View view) {
+        int flags = getFlags(view);
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if ((flags & SCALED_PARAMS) != 0 || params == null) {
+            return;
+        }
+        resolutionUtil.scaleLayoutParams(params);
+        setFlags(view, flags | SCALED_PARAMS);
+    }
+
+    /**
+     * 按布局资源和Configuration缓存的适配后数值
+     * 同一个id在不同Configuration下（如layout-land、layout-port）可能对应不同的布局
+     */
+    private static final class LayoutCache {
+        private final SparseArray<Entry> mEntries = new SparseArray<Entry>();
+        private int mVersion = -1;
+        int mHits;
+        int mMisses;
+
+        View inflate(ResolutionUtil util, LayoutInflater inflater, int layoutId, ViewGroup root,
+                     boolean attachToRoot) {
+            int first = attachToRoot && root != null ? root.getChildCount() : 0;
+            View result = inflater.inflate(layoutId, root, attachToRoot);
+            // 添加到root时只适配新加入的子view，merge布局可能加入多个
+            ViewGroup container = attachToRoot && root != null ? root : null;
+            int last = container != null ? container.getChildCount() : 1;
+            int count = 0;
+            for (int i = first; i < last; i++) {
+                count += countViews(container != null ? container.getChildAt(i) : result);
+            }
+            if (util.getScaleVersion() != mVersion) {
+                // 屏幕参数或设计图分辨率变化，缓存的数值失效
+                mEntries.clear();
+                mVersion = util.getScaleVersion();
+            }
+            Configuration config = inflater.getContext().getResources().getConfiguration();
+            Entry entry = mEntries.get(layoutId);
+            if (entry == null || entry.values.length != count * FIELDS || !entry.config.equals(config)) {
+                int[] values = new int[count * FIELDS];
+                int index = 0;
+                for (int i = first; i < last; i++) {
+                    index = computeValues(util, container != null ? container.getChildAt(i) : result,
+                            values, index, true);
+                }
+                entry = new Entry(new Configuration(config), values);
+                mEntries.put(layoutId, entry);
+                mMisses++;
+            } else {
+                mHits++;
+            }
+            int index = 0;
+            for (int i = first; i < last; i++) {
+                View view = container != null ? container.getChildAt(i) : result;
+                index = applyValues(view, entry.values, index);
+                // 顶层view的布局参数由root生成，与root的类型有关，不缓存
+                scaleParams(util, view);
+            }
+            return result;
+        }
+
+        void clear() {
+            mEntries.clear();
+        }
+    }
+
+    private static final class Entry {
+        final Configuration config;
+        final int[] values;
+
+        Entry(Configuration config, int[] values) {
+            this.config = config;
+            this.values = values;
+        }
+    }
+
+    private static int countViews(View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按前序遍历计算每个view适配后的数值，已经适配过的部分记为NO_VALUE
+     *
+     * @param top 是否为加载的顶层view，顶层view的布局参数不缓存
+     * @return 下一个view的下标
+     */
+    private static int computeValues(ResolutionUtil util, View view, int[] values, int index, boolean top) {
+        int offset = index * FIELDS;
+        int flags = getFlags(view);
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params != null && !top && (flags & SCALED_PARAMS) == 0) {
+            values[offset] = params.width > 0 ? util.px2dp2pxWidth(params.width) : params.width;
+            values[offset + 1] = params.height > 0 ? util.px2dp2pxHeight(params.height) : params.height;
+        } else {
+            values[offset] = NO_VALUE;
+            values[offset + 1] = NO_VALUE;
+        }
+        if (values[offset] != NO_VALUE && params instanceof ViewGroup.MarginLayoutParams) {
+            ViewGroup.MarginLayoutParams margin = (ViewGroup.MarginLayoutParams) params;
+            values[offset + 2] = util.px2dp2pxWidth(margin.leftMargin);
+            values[offset + 3] = util.px2dp2pxHeight(margin.topMargin);
+            values[offset + 4] = util.px2dp2pxWidth(margin.rightMargin);
+            values[offset + 5] = util.px2dp2pxHeight(margin.bottomMargin);
+        } else {
+            values[offset + 2] = NO_VALUE;
+        }
+        if ((flags & SCALED_VIEW) == 0) {
+            values[offset + 6] = util.px2dp2pxWidth(view.getPaddingLeft());
+            values[offset + 7] = util.px2dp2pxHeight(view.getPaddingTop());
+            values[offset + 8] = util.px2dp2pxWidth(view.getPaddingRight());
+            values[offset + 9] = util.px2dp2pxHeight(view.getPaddingBottom());
+            values[offset + 10] = view instanceof TextView
+                    ? util.px2dp2pxWidth(((TextView) view).getTextSize()) : NO_VALUE;
+        } else {
+            values[offset + 6] = NO_VALUE;
+            values[offset + 10] = NO_VALUE;
+        }
+        index++;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                index = computeValues(util, group.getChildAt(i), values, index, false);
+            }
+        }
+        return index;
+    }
+
+    private static int applyValues(View view, int[] values, int index) {
+        int offset = index * FIELDS;
+        int flags = getFlags(view);
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params != null && values[offset] != NO_VALUE) {
+            params.width = values[offset];
+            params.height = values[offset + 1];
+            if (params instanceof ViewGroup.MarginLayoutParams && values[offset + 2] != NO_VALUE) {
+                ViewGroup.MarginLayoutParams margin = (ViewGroup.MarginLayoutParams) params;
+                margin.leftMargin = values[offset + 2];
+                margin.topMargin = values[offset + 3];
+                margin.rightMargin = values[offset + 4];
+                margin.bottomMargin = values[offset + 5];
+            }
+            flags |= SCALED_PARAMS;
+        }
+        if (values[offset + 6] != NO_VALUE) {
+            view.setPadding(values[offset + 6], values[offset + 7], values[offset + 8], values[offset + 9]);
+            if (values[offset + 10] != NO_VALUE && view instanceof TextView) {
+                ((TextView) view).setTextSize(TypedValue.COMPLEX_UNIT_PX, values[offset + 10]);
+            }
+            flags |= SCALED_VIEW;
+        }
+        setFlags(view, flags);
+        index++;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                index = applyValues(group.getChildAt(i), values, index);
+            }
+        }
+        return index;
+    }
+}
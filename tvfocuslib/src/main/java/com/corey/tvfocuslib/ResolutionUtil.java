@@ -1,15 +1,25 @@
 package com.corey.tvfocuslib;
 
+import android.content.ComponentCallbacks;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.util.DisplayMetrics;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
 
 /**
  * 屏幕适配
+ * 建议使用{@link #getInstance}获取进程内共享的实例，屏幕参数和设计图分辨率没有变化时不会重新计算缩放比例
+ * 屏幕参数和缩放比例保存在不可变对象中，通过volatile字段整体发布，其他线程不会读到一半新一半旧的比例
  * @author yuqihui
  *
  */
 public class ResolutionUtil {
 	
+	private static volatile ResolutionUtil sInstance;
+	
 	/**
 	 * 设备屏幕的基准宽度,高度
 	 */
@@ -17,74 +27,189 @@ public class ResolutionUtil {
 	public static int WINDOWS_STANDARD_SIZE_HIGH = 1920;
 	
 	/**
-	 * 标准密度
+	 * 当前屏幕和标准屏幕(720P)的比例
 	 */
-	private static final float DEFAULTDENSITY = 160;
-	
+	private float scale;
+
 	/**
-	 * 标准缩放大小
+	 * 当前的屏幕参数和缩放比例
 	 */
-	private static final float DEFAULTFONTDESITY = 1.0F;
-	
+	private volatile Factors factors;
+
 	/**
-	 * 屏幕密度
+	 * 配置变化后需要重新读取屏幕参数
 	 */
-	private float density;
-	
+	private volatile boolean configChanged;
+
+	private Context appContext;
+
 	/**
-	 * 当前屏幕的字体缩放比例
+	 * 屏幕参数和根据它们计算的缩放比例，创建后不再修改
 	 */
-	private float fontDesity;
-	
+	private static final class Factors {
+		/**
+		 * 屏幕密度
+		 */
+		final float density;
+		/**
+		 * 当前屏幕的字体缩放比例
+		 */
+		final float fontDesity;
+		/**
+		 * 当前设备宽度，高度
+		 */
+		final int deviceWidth;
+		final int deviceHeight;
+		/**
+		 * 计算缩放比例时使用的设计图分辨率
+		 */
+		final int designWidth;
+		final int designHeight;
+		/**
+		 * 横向、竖向屏幕比例
+		 */
+		final float scaleWidth;
+		final float scaleHeight;
+		/**
+		 * 定点数缩放系数，见{@link FixedPoint}
+		 */
+		final long widthFactor;
+		final long heightFactor;
+		final long textFactor;
+		/**
+		 * 缩放比例每次重新计算后加1
+		 */
+		final int version;
+
+		Factors(DisplayMetrics dm, int designWidth, int designHeight, int version) {
+			this(dm.widthPixels, dm.heightPixels, dm.densityDpi, dm.scaledDensity,
+					designWidth, designHeight, version);
+		}
+
+		Factors(int deviceWidth, int deviceHeight, float density, float fontDesity,
+				int designWidth, int designHeight, int version) {
+			this.deviceWidth = deviceWidth;
+			this.deviceHeight = deviceHeight;
+			this.density = density;
+			this.fontDesity = fontDesity;
+			this.designWidth = designWidth;
+			this.designHeight = designHeight;
+			this.version = version;
+			int designX;
+			int designY;
+			if(deviceWidth > deviceHeight){
+				designX = designHeight;
+				designY = designWidth;
+			}else{
+				designX = designWidth;
+				designY = designHeight;
+			}
+			scaleWidth = (float)deviceWidth / designX;
+			scaleHeight = (float)deviceHeight / designY;
+			widthFactor = FixedPoint.factor(deviceWidth, designX);
+			heightFactor = FixedPoint.factor(deviceHeight, designY);
+			textFactor = fontDesity > 0 ? FixedPoint.factor((double) deviceWidth / designX / fontDesity) : 0;
+		}
+
+		boolean matches(DisplayMetrics dm) {
+			return dm.widthPixels == deviceWidth && dm.heightPixels == deviceHeight
+					&& dm.densityDpi == density && dm.scaledDensity == fontDesity;
+		}
+	}
+
 	/**
-	 * 当前屏幕和标准屏幕(720P)的比例
+	 * 获取进程内共享的实例，配置变化（如切换分辨率）或修改设计图分辨率后自动重新计算
+	 * @param ctx
+	 * @return
 	 */
-	private float scale;
-	
+	public static ResolutionUtil getInstance(Context ctx) {
+		ResolutionUtil instance = sInstance;
+		if (instance != null) {
+			return instance;
+		}
+		synchronized (ResolutionUtil.class) {
+			if (sInstance == null) {
+				if (ctx == null) {
+					ctx = ContextProvider.getApplicationContext();
+				}
+				Context appContext = ctx.getApplicationContext();
+				if (appContext == null) {
+					appContext = ctx;
+				}
+				sInstance = create(appContext);
+			}
+			return sInstance;
+		}
+	}
+
 	/**
-	 * 当前设备宽度 
+	 * 创建随配置变化更新的实例
 	 */
-	private int deviceWidth;
+	static ResolutionUtil create(Context appContext) {
+		ResolutionUtil instance = new ResolutionUtil(appContext);
+		instance.appContext = appContext;
+		appContext.registerComponentCallbacks(instance.callbacks);
+		return instance;
+	}
 
 	/**
-	 * 当前设备高度
+	 * 每次创建都会重新读取屏幕参数，建议使用{@link #getInstance}
+	 * @param ctx
 	 */
-	private int deviceHeight;
-	
+	public ResolutionUtil(Context ctx){
+		DisplayMetrics dm = ctx.getResources().getDisplayMetrics();
+		factors = new Factors(dm, WINDOWS_STANDARD_SIZE_WIDTH, WINDOWS_STANDARD_SIZE_HIGH, 1);
+	}
+
+	private final ComponentCallbacks callbacks = new ComponentCallbacks() {
+		@Override
+		public void onConfigurationChanged(Configuration newConfig) {
+			configChanged = true;
+		}
+
+		@Override
+		public void onLowMemory() {
+		}
+	};
+
 	/**
-	 * 横向屏幕比例
+	 * 获取当前的缩放比例，屏幕参数或设计图分辨率变化后重新计算
+	 * 多个线程同时重新计算时结果相同，后发布的覆盖先发布的即可
 	 */
-	private float scaleWidth ;
+	private Factors current() {
+		Factors f = factors;
+		if (configChanged && appContext != null) {
+			configChanged = false;
+			DisplayMetrics dm = appContext.getResources().getDisplayMetrics();
+			if (!f.matches(dm)) {
+				f = new Factors(dm, WINDOWS_STANDARD_SIZE_WIDTH, WINDOWS_STANDARD_SIZE_HIGH, f.version + 1);
+				factors = f;
+				return f;
+			}
+		}
+		int designWidth = WINDOWS_STANDARD_SIZE_WIDTH;
+		int designHeight = WINDOWS_STANDARD_SIZE_HIGH;
+		if (f.designWidth != designWidth || f.designHeight != designHeight) {
+			f = new Factors(f.deviceWidth, f.deviceHeight, f.density, f.fontDesity,
+					designWidth, designHeight, f.version + 1);
+			factors = f;
+		}
+		return f;
+	}
 	
 	/**
-	 * 竖向屏幕比例
+	 * 缩放比例的版本，用于判断根据缩放比例缓存的数值是否失效
 	 */
-	private float scaleHeight;
-
-
-	
-	public ResolutionUtil(Context ctx){
-		DisplayMetrics dm = ctx.getResources().getDisplayMetrics();
-		this.deviceWidth  = dm.widthPixels;
-		this.deviceHeight = dm.heightPixels;
-		density = dm.densityDpi;
-		fontDesity = dm.scaledDensity;
-		if(deviceWidth > deviceHeight){
-			scaleWidth = (float)deviceWidth / WINDOWS_STANDARD_SIZE_HIGH;
-			scaleHeight = (float)deviceHeight / WINDOWS_STANDARD_SIZE_WIDTH;
-		}else{
-			scaleWidth = (float)deviceWidth / WINDOWS_STANDARD_SIZE_WIDTH;
-			scaleHeight = (float)deviceHeight / WINDOWS_STANDARD_SIZE_HIGH;
-		}
-		
+	int getScaleVersion() {
+		return current().version;
 	}
-	
+
 	public int getWidth(){
-		return deviceWidth;
+		return current().deviceWidth;
 	}
 	
 	public int getHeight(){
-		return deviceHeight;
+		return current().deviceHeight;
 	}
 
 	/**
@@ -106,9 +231,16 @@ public class ResolutionUtil {
 	 * @return
 	 */
 	public int px2dp2pxWidth(float pxVlaue){
-		float dp = pxVlaue / (density / DEFAULTDENSITY);
-		return (int) (dp * (density / DEFAULTDENSITY) * scaleWidth);
-			
+		return scaleWidth(current(), pxVlaue);
+	}
+
+	/**
+	 * 根据屏幕宽高比获取适配当前屏幕px，使用定点数计算，结果为精确值向0取整
+	 * @param pxVlaue  px
+	 * @return
+	 */
+	public int px2dp2pxWidth(int pxVlaue){
+		return scaleWidth(current(), pxVlaue);
 	}
 	
 	/**
@@ -117,19 +249,118 @@ public class ResolutionUtil {
 	 * @return
 	 */
 	public int px2dp2pxHeight(float pxVlaue){
-		float dp = pxVlaue / (density / DEFAULTDENSITY);
-		return (int) (dp * (density / DEFAULTDENSITY) * scaleHeight);
+		Factors f = current();
+		int px = (int) pxVlaue;
+		if (px == pxVlaue) {
+			return scaleHeight(f, px);
+		}
+		return (int) (pxVlaue * f.scaleHeight);
+	}
+
+	/**
+	 * 根据屏幕宽高比获取适配当前屏幕px，使用定点数计算，结果为精确值向0取整
+	 * @param pxVlaue  px
+	 * @return
+	 */
+	public int px2dp2pxHeight(int pxVlaue){
+		return scaleHeight(current(), pxVlaue);
 	}
 	
 	/**
 	 * 根据屏幕宽度与字体缩放比获取适配当前屏幕字体大小
 	 * @param spVlaue px
-	 * @return
+	 * @return sp，用于TextView.setTextSize(float)
 	 */
 	public int px2sp2px(float spVlaue){
-		float dp = spVlaue / fontDesity;
-		int px = (int) (dp * (fontDesity / DEFAULTFONTDESITY) / fontDesity * scaleWidth);
-		return px;
+		Factors f = current();
+		int sp = (int) spVlaue;
+		if (sp == spVlaue && FixedPoint.inRange(sp) && f.textFactor != 0) {
+			return FixedPoint.scale(sp, f.textFactor);
+		}
+		return (int) (spVlaue * f.scaleWidth / f.fontDesity);
+	}
+	
+	/**
+	 * 批量适配宽度方向的px值，结果写回数组
+	 * @param pxValues 设计图上标注的像素
+	 */
+	public void px2dp2pxWidth(int[] pxValues) {
+		Factors f = current();
+		for (int i = 0; i < pxValues.length; i++) {
+			pxValues[i] = scaleWidth(f, pxValues[i]);
+		}
+	}
+
+	/**
+	 * 批量适配高度方向的px值，结果写回数组
+	 * @param pxValues 设计图上标注的像素
+	 */
+	public void px2dp2pxHeight(int[] pxValues) {
+		Factors f = current();
+		for (int i = 0; i < pxValues.length; i++) {
+			pxValues[i] = scaleHeight(f, pxValues[i]);
+		}
+	}
+
+	/**
+	 * 适配布局参数的宽高和margin，MATCH_PARENT、WRAP_CONTENT不变
+	 * @param params 以设计图像素设置的布局参数
+	 */
+	public void scaleLayoutParams(ViewGroup.LayoutParams params) {
+		scaleLayoutParams(current(), params);
+	}
+
+	private static void scaleLayoutParams(Factors f, ViewGroup.LayoutParams params) {
+		if (params == null) {
+			return;
+		}
+		if (params.width > 0) {
+			params.width = scaleWidth(f, params.width);
+		}
+		if (params.height > 0) {
+			params.height = scaleHeight(f, params.height);
+		}
+		if (params instanceof ViewGroup.MarginLayoutParams) {
+			ViewGroup.MarginLayoutParams margin = (ViewGroup.MarginLayoutParams) params;
+			margin.leftMargin = scaleWidth(f, margin.leftMargin);
+			margin.topMargin = scaleHeight(f, margin.topMargin);
+			margin.rightMargin = scaleWidth(f, margin.rightMargin);
+			margin.bottomMargin = scaleHeight(f, margin.bottomMargin);
+		}
+	}
+
+	/**
+	 * 适配view的padding
+	 * @param view
+	 */
+	public void scalePadding(View view) {
+		scalePadding(current(), view);
+	}
+
+	private static void scalePadding(Factors f, View view) {
+		view.setPadding(scaleWidth(f, view.getPaddingLeft()), scaleHeight(f, view.getPaddingTop()),
+				scaleWidth(f, view.getPaddingRight()), scaleHeight(f, view.getPaddingBottom()));
+	}
+
+	/**
+	 * 一次适配view的布局参数、padding和TextView的字体大小，修改后只触发一次布局
+	 * @param view 以设计图像素设置的view
+	 */
+	public void scaleView(View view) {
+		if (view == null) {
+			return;
+		}
+		Factors f = current();
+		ViewGroup.LayoutParams params = view.getLayoutParams();
+		scaleLayoutParams(f, params);
+		scalePadding(f, view);
+		if (view instanceof TextView) {
+			TextView textView = (TextView) view;
+			textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, scaleWidth(f, textView.getTextSize()));
+		}
+		if (params != null) {
+			view.setLayoutParams(params);
+		}
 	}
 	
     /**
@@ -138,11 +369,33 @@ public class ResolutionUtil {
      * @return
      */
     public int dip2px(float dipValue){ 
-		return (int)((int)(dipValue * scale) * density +0.5);
+		return (int)((int)(dipValue * scale) * current().density +0.5);
 	} 
 
 	public int px2dip(Context context, float pxValue) {
-		return (int)((int)(pxValue * scale) / density + 0.5 );
+		return (int)((int)(pxValue * scale) / current().density + 0.5 );
+	}
+
+	private static int scaleWidth(Factors f, float pxVlaue) {
+		int px = (int) pxVlaue;
+		if (px == pxVlaue) {
+			return scaleWidth(f, px);
+		}
+		return (int) (pxVlaue * f.scaleWidth);
+	}
+
+	private static int scaleWidth(Factors f, int pxVlaue) {
+		if (!FixedPoint.inRange(pxVlaue)) {
+			return (int) (pxVlaue * f.scaleWidth);
+		}
+		return FixedPoint.scale(pxVlaue, f.widthFactor);
+	}
+
+	private static int scaleHeight(Factors f, int pxVlaue) {
+		if (!FixedPoint.inRange(pxVlaue)) {
+			return (int) (pxVlaue * f.scaleHeight);
+		}
+		return FixedPoint.scale(pxVlaue, f.heightFactor);
 	}
 	
 }
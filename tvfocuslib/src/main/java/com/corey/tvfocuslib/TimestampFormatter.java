@@ -0,0 +1,219 @@
+package com.corey.tvfocuslib;
+
+import java.util.TimeZone;
+
+/**
+ * 时间戳格式化
+ * 日志每行都要格式化时间，每次创建SimpleDateFormat开销很大。这里直接从毫秒数计算年月日时分秒，
+ * 写入调用方的char数组或StringBuilder。同一秒内复用已经格式化好的到秒为止的部分，
+ * 跨秒时同一天的日期部分也直接复用，只重新计算时分秒。
+ * 缓存是不可变对象，通过volatile字段发布，多线程使用不需要加锁。
+ * 使用默认时区，修改默认时区后最多一秒内生效。只支持0~9999年。
+ */
+public final class TimestampFormatter {
+
+    /**
+     * yyyy-MM-dd HH:mm:ss:SSS，如2012-08-22 10:23:27:333
+     */
+    public static final TimestampFormatter LOG = new TimestampFormatter(true);
+    /**
+     * yyyyMMddHHmmss，如20120822102327
+     */
+    public static final TimestampFormatter COMPACT = new TimestampFormatter(false);
+
+    private static final long SECOND_MILLIS = 1000L;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * SECOND_MILLIS;
+
+    private final boolean mWithMillis;
+    /**
+     * 日期部分的长度、到秒为止的长度和总长度
+     */
+    private final int mDateLength;
+    private final int mPrefixLength;
+    private final int mLength;
+    private final ThreadLocal<char[]> mBuffer = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[mLength];
+        }
+    };
+
+    private volatile Second mSecond;
+
+    /**
+     * 一秒内不变的部分
+     */
+    private static final class Second {
+        /**
+         * 这一秒开始的时间，UTC毫秒数
+         */
+        final long start;
+        final int offset;
+        /**
+         * 当地时间的天数，从1970-01-01开始
+         */
+        final long day;
+        final char[] prefix;
+
+        Second(long start, int offset, long day, char[] prefix) {
+            this.start = start;
+            this.offset = offset;
+            this.day = day;
+            this.prefix = prefix;
+        }
+    }
+
+    private TimestampFormatter(boolean withMillis) {
+        mWithMillis = withMillis;
+        mDateLength = withMillis ? 10 : 8;
+        mPrefixLength = withMillis ? 19 : 14;
+        mLength = withMillis ? 23 : 14;
+    }
+
+    /**
+     * 格式化后的长度
+     */
+    public int length() {
+        return mLength;
+    }
+
+    /**
+     * 格式化当前时间
+     */
+    public String format() {
+        return format(System.currentTimeMillis());
+    }
+
+    public String format(long millis) {
+        char[] buffer = mBuffer.get();
+        format(millis, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * 格式化到调用方提供的数组中
+     *
+     * @param millis UTC毫秒数，如System.currentTimeMillis()
+     * @return 写入的字符数，即{@link #length()}
+     * @throws IndexOutOfBoundsException buffer剩余空间不足
+     */
+    public int format(long millis, char[] buffer, int offset) {
+        if (offset < 0 || offset > buffer.length - mLength) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + buffer.length);
+        }
+        Second second = getSecond(millis);
+        System.arraycopy(second.prefix, 0, buffer, offset, mPrefixLength);
+        if (mWithMillis) {
+            int ms = (int) (millis - second.start);
+            int pos = offset + mPrefixLength;
+            buffer[pos] = ':';
+            buffer[pos + 1] = (char) ('0' + ms / 100);
+            buffer[pos + 2] = (char) ('0' + ms / 10 % 10);
+            buffer[pos + 3] = (char) ('0' + ms % 10);
+        }
+        return mLength;
+    }
+
+    /**
+     * 格式化后追加到builder末尾
+     *
+     * @return builder
+     */
+    public StringBuilder appendTo(StringBuilder builder, long millis) {
+        Second second = getSecond(millis);
+        builder.append(second.prefix);
+        if (mWithMillis) {
+            int ms = (int) (millis - second.start);
+            builder.append(':')
+                    .append((char) ('0' + ms / 100))
+                    .append((char) ('0' + ms / 10 % 10))
+                    .append((char) ('0' + ms % 10));
+        }
+        return builder;
+    }
+
+    private Second getSecond(long millis) {
+        Second second = mSecond;
+        if (second == null || millis < second.start || millis >= second.start + SECOND_MILLIS) {
+            // 多个线程同时计算时结果相同，后发布的覆盖先发布的即可
+            second = newSecond(millis, second);
+            mSecond = second;
+        }
+        return second;
+    }
+
+    private Second newSecond(long millis, Second previous) {
+        int offset = TimeZone.getDefault().getOffset(millis);
+        long local = millis + offset;
+        long day = floorDiv(local, DAY_MILLIS);
+        int secondOfDay = (int) ((local - day * DAY_MILLIS) / SECOND_MILLIS);
+        long start = millis - floorMod(local, SECOND_MILLIS);
+
+        char[] prefix = new char[mPrefixLength];
+        if (previous != null && previous.day == day && previous.offset == offset) {
+            System.arraycopy(previous.prefix, 0, prefix, 0, mDateLength);
+        } else {
+            writeDate(day, prefix);
+        }
+        int pos = mDateLength;
+        if (mWithMillis) {
+            prefix[pos++] = ' ';
+        }
+        pos = write2(prefix, pos, secondOfDay / 3600);
+        if (mWithMillis) {
+            prefix[pos++] = ':';
+        }
+        pos = write2(prefix, pos, secondOfDay / 60 % 60);
+        if (mWithMillis) {
+            prefix[pos++] = ':';
+        }
+        write2(prefix, pos, secondOfDay % 60);
+        return new Second(start, offset, day, prefix);
+    }
+
+    /**
+     * 天数转为公历年月日，算法见http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+     */
+    private void writeDate(long day, char[] out) {
+        long z = day + 719468;
+        long era = floorDiv(z, 146097);
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int dayOfMonth = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("Year out of range: " + year);
+        }
+        int pos = write2(out, 0, (int) year / 100);
+        pos = write2(out, pos, (int) year % 100);
+        if (mWithMillis) {
+            out[pos++] = '-';
+        }
+        pos = write2(out, pos, month);
+        if (mWithMillis) {
+            out[pos++] = '-';
+        }
+        write2(out, pos, dayOfMonth);
+    }
+
+    private static int write2(char[] out, int pos, int value) {
+        out[pos] = (char) ('0' + value / 10);
+        out[pos + 1] = (char) ('0' + value % 10);
+        return pos + 2;
+    }
+
+    /**
+     * Math.floorDiv需要API 24
+     */
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+    }
+
+    private static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+}
@@ -15,10 +15,8 @@ import android.content.pm.PackageManager.NameNotFoundException;
 import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.Paint;
 import android.net.Uri;
 import android.text.TextUtils;
-import android.util.Base64;
 import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.View;
@@ -27,24 +25,18 @@ import org.json.JSONObject;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Method;
+import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.security.InvalidParameterException;
-import java.security.MessageDigest;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPOutputStream;
 
 
 public final class Utils {
@@ -60,6 +52,7 @@ public final class Utils {
 	 */
 	private static final int MAX_IMAGE_SIZE = Integer.MAX_VALUE;
 	private static final String NULL_STRING = "null";
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
 
 	/**
 	 * Check the url is valid or not.
@@ -93,48 +86,21 @@ public final class Utils {
 
 	/**
 	 * 把十六进制的String转为int。 如"3f3f3f"->4144959
+	 * 解析颜色使用{@link ColorParser}，支持#RGB、#ARGB等格式和批量解析。
 	 *
 	 * @param hexStr
 	 * @return
-	 * @throws Exception
+	 * @throws InvalidParameterException 包含非十六进制字符
 	 */
 	public static int hexStr2Integer(String hexStr) {
-		Map<Character, Integer> map = new HashMap<Character, Integer>();
-
-		map.put('0', 0);
-		map.put('1', 1);
-		map.put('2', 2);
-		map.put('3', 3);
-		map.put('4', 4);
-		map.put('5', 5);
-		map.put('6', 6);
-		map.put('7', 7);
-		map.put('8', 8);
-		map.put('9', 9);
-		map.put('a', 10);
-		map.put('b', 11);
-		map.put('c', 12);
-		map.put('d', 13);
-		map.put('e', 14);
-		map.put('f', 15);
-		map.put('A', 10);
-		map.put('B', 11);
-		map.put('C', 12);
-		map.put('D', 13);
-		map.put('E', 14);
-		map.put('F', 15);
-
 		int result = 0;
-		String tmpString = hexStr;
-		if ('#' == tmpString.charAt(0)) {
-			tmpString = hexStr.substring(1, tmpString.length());
-		}
-		for (int i = 0; i < tmpString.length(); i++) {
-			result <<= 4;
-			if (null == map.get(tmpString.charAt(i))) {
+		int start = '#' == hexStr.charAt(0) ? 1 : 0;
+		for (int i = start; i < hexStr.length(); i++) {
+			int digit = ColorParser.digit(hexStr.charAt(i));
+			if (digit < 0) {
 				throw new InvalidParameterException("hexStr2Integer invalid parameter");
 			}
-			result += map.get(tmpString.charAt(i));
+			result = (result << 4) + digit;
 		}
 		return result;
 	}
@@ -449,13 +415,12 @@ public final class Utils {
 	/**
 	 * return a String represents the current date and time. For example,
 	 * 2012-08-22 10:23:27:333
+	 * 写入char数组或StringBuilder使用{@link TimestampFormatter}
 	 *
 	 * @return a String represents the current date and time.
 	 */
 	public static String getTimeAsString() {
-		DateFormat mFormatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS");
-		String time = mFormatter.format(new Date());
-		return time;
+		return TimestampFormatter.LOG.format(System.currentTimeMillis());
 	}
 
 	/**
@@ -536,57 +501,40 @@ public final class Utils {
 
 	/**
 	 * MD5 encryption: 32 bits
+	 * 字符串按UTF-8编码，其他算法和byte数组、流等输入使用{@link Digests}。
 	 *
 	 * @param str plan text
-	 * @return cipher text
+	 * @return cipher text, str为null时返回空字符串
 	 */
 	public static String md5(String str) {
-		try {
-			// Create MD5 Hash
-			MessageDigest digest = MessageDigest.getInstance("MD5");
-			digest.update(str.getBytes());
-			byte messageDigest[] = digest.digest();
-
-			// Create Hex String
-			String hexString = "";
-			String hexTempString = "";
-			for (int i = 0; i < messageDigest.length; i++) {
-				hexTempString = Integer.toHexString(0xFF & messageDigest[i]);
-				if (hexTempString.length() == 1) {
-					hexString = hexString + "0" + hexTempString;
-				} else {
-					hexString = hexString + hexTempString;
-				}
-			}
-
-			return hexString;
-		} catch (Exception e) {
-			e.printStackTrace();
+		if (str == null) {
+			return "";
 		}
-
-		return "";
+		return Digests.MD5.hex(str);
 	}
 
 	/**
 	 * Base64 encode
+	 * URL安全字母表，不补'='、不换行。编码到byte数组、ByteBuffer或流使用{@link Base64Codec}
 	 *
 	 * @param str plain text
 	 * @return cipher text
 	 */
 	public static String base64Encode(String str) {
-		return Base64.encodeToString(str.getBytes(), Base64.NO_PADDING | Base64.NO_WRAP | Base64.URL_SAFE);
+		return Base64Codec.URL_SAFE_NO_PADDING.encodeToString(str.getBytes(UTF_8));
 	}
 
 	/**
 	 * Base64 decode
+	 * 标准和URL安全字母表都可以解码。需要区分解码失败时使用{@link Base64Codec#decode(CharSequence)}
 	 *
 	 * @param str cipher text
-	 * @return plain text
+	 * @return plain text, 解码失败时返回空字符串
 	 */
 	public static String base64Decode(String str) {
 		String retString = "";
 		try {
-			retString = new String(Base64.decode(str, Base64.DEFAULT));
+			retString = new String(Base64Codec.URL_SAFE_NO_PADDING.decode(str), UTF_8);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -597,8 +545,7 @@ public final class Utils {
 	 * @return Current date time string in "yyyyMMddHHmmss" format
 	 */
 	public static String now() {
-		SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss");
-		return format.format(new Date());
+		return TimestampFormatter.COMPACT.format(System.currentTimeMillis());
 	}
 
 	/**
@@ -624,7 +571,6 @@ public final class Utils {
 		return isRunning;
 	}
 
-	private static final String LAYER_TYPE_METHOD = "setLayerType";
 	// Indicates that the view does not have a layer.
 	public static final int LAYER_TYPE_NONE = 0;
 
@@ -651,21 +597,18 @@ public final class Utils {
 	public static final int LAYER_TYPE_HARDWARE = 2;
 
 	/**
-	 * Disable hardware acceleration. View.setLayerType is available on android
-	 * 11+, so use reflection instead.
+	 * Adjust the layer type of a view. View.setLayerType is available on
+	 * android 11+ and minSdkVersion is above that, so call it directly.
 	 *
 	 * @param view
 	 * @param renderMode 渲染模式。{@link #LAYER_TYPE_NONE}, {@link #LAYER_TYPE_SOFTWARE},
 	 *                   {@link #LAYER_TYPE_HARDWARE}其中一个。
 	 */
 	public static void adjustRenderMode(View view, int renderMode) {
-		try {
-			// View.setLayerType
-			Method method = View.class.getMethod(LAYER_TYPE_METHOD, int.class, Paint.class);
-			method.invoke(view, renderMode, null);
-		} catch (Exception e) {
-			e.printStackTrace();
+		if (view == null || view.getLayerType() == renderMode) {
+			return;
 		}
+		view.setLayerType(renderMode, null);
 	}
 
 	/**
@@ -693,6 +636,7 @@ public final class Utils {
 
 	/**
 	 * gzip compress
+	 * 流式压缩和解压、复用Deflater使用{@link GZipCodec}
 	 *
 	 * @param : string
 	 * @return : byte[]
@@ -700,21 +644,10 @@ public final class Utils {
 	 */
 	public static byte[] GZipCompress(String data) {
 		ByteArrayOutputStream outPut = new ByteArrayOutputStream();
-		GZIPOutputStream gzipOutPut = null;
-
 		try {
-			gzipOutPut = new GZIPOutputStream(outPut);
-			gzipOutPut.write(data.getBytes("UTF-8"));
+			GZipCodec.compress(new StringReader(data), outPut);
 		} catch (IOException e) {
 			e.printStackTrace();
-		} finally {
-			if (gzipOutPut != null) {
-				try {
-					gzipOutPut.close();
-				} catch (IOException ignore) {
-					ignore.printStackTrace();
-				}
-			}
 		}
 		return outPut.toByteArray();
 	}
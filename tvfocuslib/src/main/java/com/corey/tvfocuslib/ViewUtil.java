@@ -3,6 +3,7 @@ package com.corey.tvfocuslib;
 import android.annotation.SuppressLint;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.view.View;
 import android.view.ViewTreeObserver.OnGlobalLayoutListener;
 
@@ -15,6 +16,8 @@ import android.view.ViewTreeObserver.OnGlobalLayoutListener;
 @SuppressLint("NewApi")
 public class ViewUtil {
 
+    private static final int[] sTmpLocation = new int[2];
+
     /**
      * 移除OnGlobalLayoutListener
      * @param view
@@ -50,6 +53,60 @@ public class ViewUtil {
         return location;
     }
 
+    /**
+     * 获取View在屏幕中的位置，结果写入location，不分配新对象
+     * @param view
+     * @param location 长度至少为2
+     * @return 是否获取成功
+     */
+    public static boolean getLocation(View view, int[] location) {
+        if (view == null || location == null || location.length < 2) {
+            return false;
+        }
+        view.getLocationOnScreen(location);
+        return true;
+    }
+
+    /**
+     * 获取View在屏幕中的区域，结果写入outRect，不分配新对象，只能在主线程调用
+     * @param view
+     * @param outRect
+     * @return 是否获取成功
+     */
+    public static boolean getLocation(View view, Rect outRect) {
+        if (view == null || outRect == null) {
+            return false;
+        }
+        view.getLocationOnScreen(sTmpLocation);
+        outRect.set(sTmpLocation[0], sTmpLocation[1],
+                sTmpLocation[0] + view.getWidth(), sTmpLocation[1] + view.getHeight());
+        return true;
+    }
+
+    /**
+     * 没有设置过layer的view使用硬件层，用于动画期间
+     * @param view
+     * @return 是否设置了硬件层，需要在动画结束后调用{@link #releaseHardwareLayer}
+     */
+    public static boolean promoteHardwareLayer(View view) {
+        if (view == null || !view.isHardwareAccelerated()
+                || view.getLayerType() != View.LAYER_TYPE_NONE) {
+            return false;
+        }
+        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        return true;
+    }
+
+    /**
+     * 释放{@link #promoteHardwareLayer}设置的硬件层
+     * @param view
+     */
+    public static void releaseHardwareLayer(View view) {
+        if (view != null && view.getLayerType() == View.LAYER_TYPE_HARDWARE) {
+            view.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+    }
+
     /**
      * 判断View是否可见
      * @param view
@@ -2,6 +2,12 @@ package com.corey.tvfocuslib;
 
 import android.view.View;
 
+/**
+ * 供属性动画修改view布局宽高的包装类
+ *
+ * @deprecated 库内已不再使用，焦点框动画由{@link FocusAnimator}完成，将在之后的版本中移除
+ */
+@Deprecated
 public class ViewWrapper {
 
     private View mTargetView;
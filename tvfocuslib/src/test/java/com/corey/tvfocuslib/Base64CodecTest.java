@@ -0,0 +1,165 @@
+package com.corey.tvfocuslib;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Base64CodecTest {
+
+    @Test
+    public void encode_rfc4648Vectors() {
+        String[] plain = {"", "f", "fo", "foo", "foob", "fooba", "foobar"};
+        String[] encoded = {"", "Zg==", "Zm8=", "Zm9v", "Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy"};
+        for (int i = 0; i < plain.length; i++) {
+            assertEquals(encoded[i], Base64Codec.STANDARD.encodeToString(plain[i].getBytes()));
+            assertEquals(encoded[i].replace("=", ""),
+                    Base64Codec.URL_SAFE_NO_PADDING.encodeToString(plain[i].getBytes()));
+            assertEquals(plain[i], new String(Base64Codec.STANDARD.decode(encoded[i])));
+        }
+    }
+
+    @Test
+    public void encodeDecode_matchJdk() {
+        Random random = new Random(7);
+        Base64Codec[] codecs = {Base64Codec.STANDARD, Base64Codec.URL_SAFE, Base64Codec.URL_SAFE_NO_PADDING};
+        Base64.Encoder[] encoders = {Base64.getEncoder(), Base64.getUrlEncoder(),
+                Base64.getUrlEncoder().withoutPadding()};
+        for (int length = 0; length < 200; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            for (int i = 0; i < codecs.length; i++) {
+                byte[] expected = encoders[i].encode(data);
+                assertArrayEquals(expected, codecs[i].encode(data));
+                assertEquals(expected.length, codecs[i].encodedLength(length));
+                assertEquals(new String(expected), codecs[i].encodeToString(data));
+                assertArrayEquals(data, codecs[i].decode(expected));
+            }
+        }
+    }
+
+    @Test
+    public void decode_lenientInput() {
+        byte[] expected = {(byte) 0xFB, (byte) 0xFF, (byte) 0xBF};
+        assertArrayEquals(expected, Base64Codec.STANDARD.decode("+/+/"));
+        assertArrayEquals(expected, Base64Codec.STANDARD.decode("-_-_"));
+        assertArrayEquals("foobar".getBytes(), Base64Codec.URL_SAFE.decode("Zm9v\r\nYmFy\n"));
+        assertArrayEquals("fo".getBytes(), Base64Codec.URL_SAFE.decode("Zm8"));
+        assertArrayEquals("fo".getBytes(), Base64Codec.URL_SAFE.decode("Zm8="));
+    }
+
+    @Test
+    public void decode_invalidInputThrows() {
+        String[] invalid = {"Zm9v!", "Z", "Zm9vY", "Zg=", "Zg===", "Z===", "Zg==Zg==", "=", "Zm9v焦"};
+        for (String text : invalid) {
+            try {
+                Base64Codec.STANDARD.decode(text);
+                fail(text);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        try {
+            Base64Codec.STANDARD.decode("Zm9v!Zm9v");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("at index 4"));
+        }
+        assertEquals("", Utils.base64Decode("Zm9v!"));
+    }
+
+    @Test
+    public void byteArrays_callerProvidedBuffers() {
+        byte[] data = "thumbnail".getBytes();
+        byte[] encoded = new byte[20];
+        int length = Base64Codec.URL_SAFE.encode(data, 2, 5, encoded, 3);
+        assertEquals("dW1ibmE=", new String(encoded, 3, length));
+
+        byte[] decoded = new byte[10];
+        assertEquals(5, Base64Codec.URL_SAFE.decode(encoded, 3, length, decoded, 1));
+        assertEquals("umbna", new String(decoded, 1, 5));
+        try {
+            Base64Codec.URL_SAFE.encode(data, 0, data.length, new byte[11], 0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            Base64Codec.URL_SAFE.decode(encoded, 3, length, new byte[4], 0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void byteBuffers_heapAndDirect() {
+        byte[] data = new byte[10000];
+        new Random(3).nextBytes(data);
+        String jdk = Base64.getEncoder().encodeToString(data);
+        ByteBuffer[] sources = {ByteBuffer.wrap(data), ByteBuffer.allocateDirect(data.length)};
+        sources[1].put(data).flip();
+        for (ByteBuffer src : sources) {
+            for (boolean direct : new boolean[]{false, true}) {
+                ByteBuffer encoded = direct ? ByteBuffer.allocateDirect(20000) : ByteBuffer.allocate(20000);
+                src.rewind();
+                assertEquals(jdk.length(), Base64Codec.STANDARD.encode(src, encoded));
+                assertEquals(src.limit(), src.position());
+                encoded.flip();
+                byte[] text = new byte[encoded.remaining()];
+                encoded.duplicate().get(text);
+                assertEquals(jdk, new String(text));
+
+                ByteBuffer decoded = direct ? ByteBuffer.allocate(data.length) : ByteBuffer.allocateDirect(data.length);
+                assertEquals(data.length, Base64Codec.STANDARD.decode(encoded, decoded));
+                decoded.flip();
+                byte[] result = new byte[decoded.remaining()];
+                decoded.get(result);
+                assertArrayEquals(data, result);
+            }
+        }
+        ByteBuffer small = ByteBuffer.allocate(100);
+        small.limit(2);
+        try {
+            Base64Codec.STANDARD.decode(ByteBuffer.wrap("Zm9v".getBytes()), small);
+            fail();
+        } catch (BufferOverflowException expected) {
+            assertEquals(0, small.position());
+        }
+        try {
+            Base64Codec.STANDARD.encode(ByteBuffer.wrap(data), ByteBuffer.allocate(100));
+            fail();
+        } catch (BufferOverflowException expected) {
+        }
+    }
+
+    @Test
+    public void encoderStream_matchesEncode() throws Exception {
+        byte[] data = new byte[10001];
+        new Random(5).nextBytes(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Base64Codec.EncoderOutputStream stream = Base64Codec.STANDARD.newEncoderStream(out);
+        stream.write(data[0]);
+        stream.write(data, 1, 4000);
+        stream.flush();
+        assertEquals(0, out.size() % 4);
+        for (int i = 4001; i < data.length; i++) {
+            stream.write(data[i]);
+        }
+        stream.close();
+        assertEquals(Base64.getEncoder().encodeToString(data), out.toString("US-ASCII"));
+    }
+
+    @Test
+    public void utils_roundTrip() throws Exception {
+        String text = "http://www.example.com/海报/1024x576.jpg?a=1&b=~";
+        String encoded = Utils.base64Encode(text);
+        assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes("UTF-8")), encoded);
+        assertEquals(text, Utils.base64Decode(encoded));
+    }
+}
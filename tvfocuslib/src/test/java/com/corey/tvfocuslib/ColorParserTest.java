@@ -0,0 +1,69 @@
+package com.corey.tvfocuslib;
+
+import org.junit.Test;
+
+import java.security.InvalidParameterException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ColorParserTest {
+
+    @Test
+    public void parseColor_allForms() {
+        assertEquals(0xFF33FF00, ColorParser.parseColor("#3F0"));
+        assertEquals(0x8833FF00, ColorParser.parseColor("#83f0"));
+        assertEquals(0xFF33B5E5, ColorParser.parseColor("#33B5E5"));
+        assertEquals(0x8033b5e5, ColorParser.parseColor("8033b5e5"));
+        assertEquals(0x00000000, ColorParser.parseColor("#00000000"));
+        assertEquals(0xFFFFFFFF, ColorParser.parseColor("FFFFFFFF"));
+    }
+
+    @Test
+    public void parseColor_range() {
+        String payload = "{\"bg\":\"#FF102030\",\"fg\":\"#abc\"}";
+        int start = payload.indexOf('#');
+        assertEquals(0xFF102030, ColorParser.parseColor(payload, start, start + 9));
+        start = payload.lastIndexOf('#');
+        assertEquals(0xFFAABBCC, ColorParser.parseColor(new StringBuilder(payload), start, start + 4));
+    }
+
+    @Test
+    public void parseColor_invalid() {
+        String[] invalid = {"", "#", "#12", "#12345", "#1234567", "#123456789", "#GG0000", "#33B5E٥", "##123"};
+        for (String color : invalid) {
+            try {
+                ColorParser.parseColor(color);
+                fail(color);
+            } catch (IllegalArgumentException expected) {
+            }
+            assertEquals(color, 7, ColorParser.parseColor(color, 7));
+        }
+        assertEquals(7, ColorParser.parseColor(null, 7));
+    }
+
+    @Test
+    public void parseColors_bulk() {
+        CharSequence[] colors = {"#FFF", null, "#zzz", "#33B5E5", "#80000000"};
+        int[] out = new int[6];
+        out[5] = 42;
+        assertEquals(2, ColorParser.parseColors(colors, out, 0));
+        assertArrayEquals(new int[]{0xFFFFFFFF, 0, 0, 0xFF33B5E5, 0x80000000, 42}, out);
+        assertArrayEquals(new int[]{0xFFFFFFFF, 1, 1, 0xFF33B5E5, 0x80000000},
+                ColorParser.parseColors(colors, 1));
+    }
+
+    @Test
+    public void hexStr2Integer_unchanged() {
+        assertEquals(4144959, Utils.hexStr2Integer("3f3f3f"));
+        assertEquals(0xFF33B5E5, Utils.hexStr2Integer("#FF33B5E5"));
+        assertEquals(0xABC, Utils.hexStr2Integer("#abc"));
+        assertEquals(0, Utils.hexStr2Integer("#"));
+        try {
+            Utils.hexStr2Integer("#33B5EG");
+            fail();
+        } catch (InvalidParameterException expected) {
+        }
+    }
+}
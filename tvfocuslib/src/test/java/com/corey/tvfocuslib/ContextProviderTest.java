@@ -0,0 +1,77 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class ContextProviderTest {
+
+    @Test
+    public void init_keepsApplicationContextOnly() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(activity);
+        assertSame(activity.getApplicationContext(), ContextProvider.getApplicationContext());
+    }
+
+    @Test
+    public void initProvider_initializesContext() {
+        ContextInitProvider provider = Robolectric.setupContentProvider(ContextInitProvider.class);
+        assertSame(provider.getContext().getApplicationContext(), ContextProvider.getApplicationContext());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void focusMargin_computedOnFirstUse() {
+        ContextProvider.reset();
+        FocusUtils.resetFocusMargin();
+        // 在init之前使用FocusUtils不需要context
+        FocusUtils.setAnimTime(FocusUtils.getAnimTime());
+        assertEquals(0, FocusUtils.focusMarginLeft);
+
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(activity);
+        assertNotSame(activity, ContextProvider.getApplicationContext());
+        assertSame(activity.getApplication(), ContextProvider.getApplicationContext());
+        // 初始化context不会计算margin
+        assertEquals(0, FocusUtils.focusMarginLeft);
+
+        // 没有调用setFocusMargin时使用默认的7dp
+        int expected = DisplayUtil.dp2px(activity.getApplication(), 7);
+        assertEquals(expected, FocusUtils.getFocusMarginLeft());
+        assertEquals(expected, FocusUtils.getFocusMarginTop());
+        assertEquals(expected, FocusUtils.getFocusMarginRight());
+        assertEquals(expected, FocusUtils.getFocusMarginBottom());
+        assertEquals(expected, FocusUtils.focusMarginLeft);
+        assertEquals(expected, FocusUtils.focusMarginBottom);
+        assertEquals(expected, FocusUtils.getDefaultStyle().getMarginLeft());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void focusMarginFields_writesIgnored() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(activity);
+        FocusUtils.resetFocusMargin();
+        int expected = FocusUtils.getFocusMarginLeft();
+
+        FocusUtils.focusMarginLeft = expected + 10;
+        // 重新创建默认样式也不会使用字段的值
+        FocusUtils.setAnimTime(FocusUtils.getAnimTime());
+        assertEquals(expected, FocusUtils.getDefaultStyle().getMarginLeft());
+        assertEquals(expected, FocusUtils.getFocusMarginLeft());
+
+        FocusUtils.setFocusMargin(3, 3, 3, 3);
+        assertEquals(DisplayUtil.dp2px(activity, 3), FocusUtils.focusMarginLeft);
+        FocusUtils.resetFocusMargin();
+    }
+}
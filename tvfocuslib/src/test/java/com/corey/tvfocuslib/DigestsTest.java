@@ -0,0 +1,98 @@
+package com.corey.tvfocuslib;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DigestsTest {
+
+    @Test
+    public void md5_knownValues() {
+        assertEquals("d41d8cd98f00b204e9800998ecf8427e", Digests.MD5.hex(""));
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", Digests.MD5.hex("abc"));
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", Digests.SHA1.hex("abc"));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                Digests.SHA256.hex(new StringBuilder("abc")));
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", Utils.md5("abc"));
+        assertEquals("", Utils.md5(null));
+    }
+
+    @Test
+    public void charSequence_matchesUtf8Bytes() throws Exception {
+        String[] texts = {
+                "http://www.example.com/poster/1024x576/movie_detail_12345.jpg",
+                "电视剧/第1集", "é߿ࠀ￿", "emoji 😀 end",
+                "lone \ud83d high", "lone \ude00 low", "tail \ud83d", longText()
+        };
+        for (String text : texts) {
+            byte[] expected = MessageDigest.getInstance("MD5").digest(text.getBytes("UTF-8"));
+            assertArrayEquals(text, expected, Digests.MD5.digest(text));
+            assertEquals(Digests.toHex(expected), Digests.MD5.hex(text));
+        }
+    }
+
+    @Test
+    public void bytesStreamAndBuffer_matchMessageDigest() throws Exception {
+        byte[] data = new byte[10000];
+        new Random(7).nextBytes(data);
+        String expected = Digests.toHex(MessageDigest.getInstance("SHA-256").digest(data));
+
+        assertEquals(expected, Digests.SHA256.hex(data));
+        assertEquals(expected, Digests.SHA256.hex(new ByteArrayInputStream(data)));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length + 10);
+        direct.position(10);
+        direct.put(data);
+        direct.position(10);
+        assertEquals(expected, Digests.SHA256.hex(direct));
+        assertEquals(direct.limit(), direct.position());
+
+        byte[] padded = new byte[data.length + 5];
+        System.arraycopy(data, 0, padded, 3, data.length);
+        assertEquals(expected, Digests.SHA256.hex(padded, 3, data.length));
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(data),
+                Digests.SHA256.digest(ByteBuffer.wrap(padded, 3, data.length)));
+    }
+
+    @Test
+    public void threads_haveOwnDigest() throws Exception {
+        final String expected = Digests.MD5.hex(longText());
+        final String[] results = new String[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    String result = expected;
+                    for (int j = 0; j < 200 && expected.equals(result); j++) {
+                        result = Digests.MD5.hex(longText());
+                    }
+                    results[index] = result;
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertEquals(expected, results[i]);
+        }
+    }
+
+    /**
+     * 超过一个缓冲区，且多字节字符跨越缓冲区边界
+     */
+    private static String longText() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            builder.append(i % 3 == 0 ? "焦" : "a").append(i % 7 == 0 ? "😀" : "");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.corey.tvfocuslib;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class DisplayUtilTest {
+    private DisplayMetrics mMetrics;
+    private TestContext mContext;
+
+    @Before
+    public void setUp() {
+        Resources base = RuntimeEnvironment.application.getResources();
+        mMetrics = new DisplayMetrics();
+        mMetrics.setTo(base.getDisplayMetrics());
+        mMetrics.density = 1.5f;
+        mMetrics.scaledDensity = 1.5f;
+        mContext = new TestContext(new Resources(base.getAssets(), mMetrics, base.getConfiguration()) {
+            @Override
+            public DisplayMetrics getDisplayMetrics() {
+                return mMetrics;
+            }
+        });
+        DisplayUtil.invalidate();
+    }
+
+    @After
+    public void tearDown() {
+        DisplayUtil.invalidate();
+    }
+
+    @Test
+    public void dp2px_tableMatchesFormula() {
+        for (int dp = 0; dp < DisplayUtil.DP_TABLE_SIZE + 10; dp++) {
+            int expected = (int) (dp * 1.5f + 0.5f);
+            assertEquals(expected, DisplayUtil.dp2px(mContext, dp));
+            assertEquals(expected, DisplayUtil.dp2px(mContext, (float) dp));
+        }
+        assertEquals((int) (-7 * 1.5f + 0.5f), DisplayUtil.dp2px(mContext, -7));
+        assertEquals((int) (7.3f * 1.5f + 0.5f), DisplayUtil.dp2px(mContext, 7.3f));
+    }
+
+    @Test
+    public void conversions_useCachedDensity() {
+        assertEquals(1.5f, DisplayUtil.getDensity(mContext), 0f);
+        assertEquals(15, DisplayUtil.sp2px(mContext, 10));
+        assertEquals(10, DisplayUtil.px2sp(mContext, 15));
+        assertEquals(10, DisplayUtil.px2dp(mContext, 15));
+        mMetrics.density = 3f;
+        assertEquals(15, DisplayUtil.dp2px(mContext, 10));
+    }
+
+    @Test
+    public void configurationChange_reloadsDensity() {
+        assertEquals(15, DisplayUtil.sp2px(mContext, 10));
+        mMetrics.scaledDensity = 3f;
+        assertEquals(15, DisplayUtil.sp2px(mContext, 10));
+        mContext.mCallbacks.onConfigurationChanged(new Configuration());
+        assertEquals(30, DisplayUtil.sp2px(mContext, 10));
+        assertEquals(2f, DisplayUtil.getScaledDensity(mContext) / DisplayUtil.getDensity(mContext), 0f);
+    }
+
+    /**
+     * 使用指定DisplayMetrics的application
+     */
+    private static class TestContext extends ContextWrapper {
+        private final Resources mResources;
+        private ComponentCallbacks mCallbacks;
+
+        TestContext(Resources resources) {
+            super(RuntimeEnvironment.application);
+            mResources = resources;
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+
+        @Override
+        public Resources getResources() {
+            return mResources;
+        }
+
+        @Override
+        public void registerComponentCallbacks(ComponentCallbacks callback) {
+            mCallbacks = callback;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.corey.tvfocuslib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FixedPointTest {
+    /**
+     * 常见的设备和设计图尺寸
+     */
+    private static final int[][] RATIOS = {
+            {1920, 1920}, {1280, 1920}, {3840, 1920}, {1366, 1920}, {1024, 1920},
+            {720, 1080}, {1080, 1080}, {2160, 1080}, {768, 1080}, {576, 1080}, {1080, 1280}
+    };
+    private static final int MAX_PX = 4096;
+
+    @Test
+    public void scale_matchesExactTruncation() {
+        for (int[] ratio : RATIOS) {
+            long factor = FixedPoint.factor(ratio[0], ratio[1]);
+            for (int px = 0; px <= MAX_PX; px++) {
+                long exact = (long) px * ratio[0] / ratio[1];
+                assertEquals(ratio[0] + "/" + ratio[1] + " px=" + px, exact, FixedPoint.scale(px, factor));
+                assertEquals(-exact, FixedPoint.scale(-px, factor));
+            }
+        }
+    }
+
+    @Test
+    public void scale_withinOnePixelOfFloatReference() {
+        for (int[] ratio : RATIOS) {
+            long factor = FixedPoint.factor(ratio[0], ratio[1]);
+            float scale = (float) ratio[0] / ratio[1];
+            float density = 2f;
+            for (int px = 0; px <= MAX_PX; px++) {
+                // 原来的计算方式
+                float dp = px / density;
+                int reference = (int) (dp * density * scale);
+                int fixed = FixedPoint.scale(px, factor);
+                assertTrue(ratio[0] + "/" + ratio[1] + " px=" + px + " fixed=" + fixed + " float=" + reference,
+                        Math.abs(fixed - reference) <= 1 && fixed >= reference);
+            }
+        }
+    }
+
+    @Test
+    public void scale_atRangeLimit() {
+        long factor = FixedPoint.factor(3840, 1080);
+        assertEquals((long) FixedPoint.MAX_VALUE * 3840 / 1080, FixedPoint.scale(FixedPoint.MAX_VALUE, factor));
+        assertTrue(FixedPoint.inRange(-FixedPoint.MAX_VALUE));
+        assertTrue(!FixedPoint.inRange(FixedPoint.MAX_VALUE + 1));
+    }
+
+    @Test
+    public void factor_fromDouble() {
+        long factor = FixedPoint.factor(0.5);
+        assertEquals(50, FixedPoint.scale(100, factor));
+        assertEquals(1L << 31, factor);
+    }
+}
@@ -0,0 +1,286 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.view.FocusFinder;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 依赖Android framework的热路径计时，在Robolectric中运行，纯计算部分的JMH基准在benchmark模块中
+ * 默认跳过，./gradlew :tvfocuslib:testReleaseUnitTest -Pbenchmark 运行，结果写入build/reports/benchmark.txt
+ * Robolectric的耗时不等于设备上的耗时，只用于对比同一台机器上不同版本的结果，
+ * 分配的断言在FocusUtilsAllocationTest、FocusIndexTest中
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusBenchmarkTest {
+    private FocusMoveFixture mFixture;
+    private Activity mActivity;
+    private int mSink;
+
+    @Before
+    public void setUp() {
+        assumeTrue(MicroBenchmark.isEnabled());
+        mFixture = new FocusMoveFixture();
+        mActivity = mFixture.activity;
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_LAYOUT);
+        FocusUtils.setLocationMode(FocusUtils.LOCATION_MODE_SCREEN);
+    }
+
+    @Test
+    public void focusMove_layoutMode() throws Exception {
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_LAYOUT);
+        benchmarkMoves("focusMove.layoutMode");
+    }
+
+    @Test
+    public void focusMove_transformMode() throws Exception {
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_TRANSFORM);
+        FocusUtils.initFocusViewLocation(mFixture.focus, mFixture.first);
+        benchmarkMoves("focusMove.transformMode");
+    }
+
+    @Test
+    public void focusMove_parentLocation() throws Exception {
+        FocusUtils.setLocationMode(FocusUtils.LOCATION_MODE_PARENT);
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_TRANSFORM);
+        FocusUtils.initFocusViewLocation(mFixture.focus, mFixture.first);
+        benchmarkMoves("focusMove.parentLocation");
+    }
+
+    @Test
+    public void displayUtil() throws Exception {
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue = (mValue + 1) & 0xff;
+                mSink += DisplayUtil.dp2px(mActivity, mValue);
+            }
+        }).report("DisplayUtil.dp2px");
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue = (mValue + 1) & 0xff;
+                mSink += DisplayUtil.sp2px(mActivity, mValue);
+            }
+        }).report("DisplayUtil.sp2px");
+    }
+
+    @Test
+    public void resolutionUtil() throws Exception {
+        final ResolutionUtil resolutionUtil = new ResolutionUtil(mActivity);
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue = (mValue + 1) & 0x7ff;
+                mSink += resolutionUtil.px2dp2pxWidth(mValue);
+            }
+        }).report("ResolutionUtil.px2dp2pxWidth");
+    }
+
+    @Test
+    public void getLayoutParams() throws Exception {
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue = (mValue & 0x1ff) + 1;
+                mSink += FocusUtils.getLayoutParams(mValue, mValue).width;
+            }
+        }).report("FocusUtils.getLayoutParams");
+    }
+
+    @Test
+    public void focusSearch_thousandItems() throws Exception {
+        FrameLayout grid = new FrameLayout(mActivity);
+        final View[] items = new View[1000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new View(mActivity);
+            items[i].setFocusable(true);
+            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(80, 60);
+            params.leftMargin = 10 + (i % 40) * 95;
+            params.topMargin = 10 + (i / 40) * 75;
+            grid.addView(items[i], params);
+        }
+        mActivity.setContentView(grid);
+        grid.measure(View.MeasureSpec.makeMeasureSpec(3840, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(2160, View.MeasureSpec.EXACTLY));
+        grid.layout(0, 0, 3840, 2160);
+        final int[] directions = {View.FOCUS_RIGHT, View.FOCUS_DOWN, View.FOCUS_LEFT, View.FOCUS_UP};
+        final FrameLayout root = grid;
+
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue++;
+                View next = FocusFinder.getInstance().findNextFocus(root,
+                        items[(mValue * 7) % items.length], directions[mValue & 3]);
+                mSink += next != null ? 1 : 0;
+            }
+        }).report("FocusFinder.findNextFocus(1000)");
+        final FocusIndex index = FocusIndex.attach(grid);
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue++;
+                View next = index.findNextFocus(items[(mValue * 7) % items.length],
+                        directions[mValue & 3]);
+                mSink += next != null ? 1 : 0;
+            }
+        }).report("FocusIndex.findNextFocus(1000)");
+    }
+
+    @Test
+    public void focusSearch_afterScroll() throws Exception {
+        FrameLayout grid = new FrameLayout(mActivity);
+        final FrameLayout content = new FrameLayout(mActivity);
+        grid.addView(content, new FrameLayout.LayoutParams(3840, 4320));
+        final View[] items = new View[1000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new View(mActivity);
+            items[i].setFocusable(true);
+            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(80, 60);
+            params.leftMargin = 10 + (i % 40) * 95;
+            params.topMargin = 10 + (i / 40) * 75;
+            content.addView(items[i], params);
+        }
+        mActivity.setContentView(grid);
+        grid.measure(View.MeasureSpec.makeMeasureSpec(3840, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        grid.layout(0, 0, 3840, 1080);
+        final int[] directions = {View.FOCUS_RIGHT, View.FOCUS_DOWN, View.FOCUS_LEFT, View.FOCUS_UP};
+        final FocusIndex index = FocusIndex.attach(grid);
+        index.findNextFocus(items[0], View.FOCUS_RIGHT);
+        // 内容向上滚动两行，Robolectric中移动view的开销远大于查找，不放在计时中
+        content.offsetTopAndBottom(-150);
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue++;
+                index.onScrollChanged();
+                View next = index.findNextFocus(items[(mValue * 7) % items.length],
+                        directions[mValue & 3]);
+                mSink += next != null ? 1 : 0;
+            }
+        }).report("FocusIndex.findNextFocus after scroll(1000)");
+        // 对比：每次滚动后更新索引
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue++;
+                index.invalidate();
+                View next = index.findNextFocus(items[(mValue * 7) % items.length],
+                        directions[mValue & 3]);
+                mSink += next != null ? 1 : 0;
+            }
+        }).report("FocusIndex.findNextFocus after refresh(1000)");
+    }
+
+    @Test
+    public void focusSearch_afterFrameLayout() throws Exception {
+        benchmarkSearchAfterLayout("FocusIndex.findNextFocus after frame layout(1000)", false);
+    }
+
+    /**
+     * 对比：每次布局后重建索引
+     * Robolectric中布局的开销远大于查找，且随同一个容器的布局次数增加，两种情况分开在不同的测试中运行
+     */
+    @Test
+    public void focusSearch_afterLayoutRebuild() throws Exception {
+        benchmarkSearchAfterLayout("FocusIndex.findNextFocus after layout rebuild(1000)", true);
+    }
+
+    /**
+     * LAYOUT模式的焦点框放在容器内，每次移动都会让容器重新布局，计时包含布局
+     */
+    private void benchmarkSearchAfterLayout(String name, final boolean rebuild) throws Exception {
+        final FrameLayout grid = new FrameLayout(mActivity);
+        final View[] items = new View[1000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new View(mActivity);
+            items[i].setFocusable(true);
+            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(80, 60);
+            params.leftMargin = 10 + (i % 40) * 95;
+            params.topMargin = 10 + (i / 40) * 75;
+            grid.addView(items[i], params);
+        }
+        final View frame = new View(mActivity);
+        grid.addView(frame, new FrameLayout.LayoutParams(100, 80));
+        mActivity.setContentView(grid);
+        final int widthSpec = View.MeasureSpec.makeMeasureSpec(3840, View.MeasureSpec.EXACTLY);
+        final int heightSpec = View.MeasureSpec.makeMeasureSpec(2160, View.MeasureSpec.EXACTLY);
+        grid.measure(widthSpec, heightSpec);
+        grid.layout(0, 0, 3840, 2160);
+        final int[] directions = {View.FOCUS_RIGHT, View.FOCUS_DOWN, View.FOCUS_LEFT, View.FOCUS_UP};
+        final FocusIndex index = FocusIndex.attach(grid);
+        index.findNextFocus(items[0], View.FOCUS_RIGHT);
+        MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue++;
+                View focused = items[(mValue * 7) % items.length];
+                moveFrame(frame, focused);
+                grid.measure(widthSpec, heightSpec);
+                grid.layout(0, 0, 3840, 2160);
+                if (rebuild) {
+                    index.invalidate();
+                }
+                View next = index.findNextFocus(focused, directions[mValue & 3]);
+                mSink += next != null ? 1 : 0;
+            }
+        }).report(name);
+    }
+
+    private static void moveFrame(View frame, View target) {
+        FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) frame.getLayoutParams();
+        params.leftMargin = target.getLeft() - 10;
+        params.topMargin = target.getTop() - 10;
+        frame.requestLayout();
+    }
+
+    private void benchmarkMoves(String name) throws Exception {
+        MicroBenchmark.run(new Runnable() {
+            private boolean mToggle;
+
+            @Override
+            public void run() {
+                mToggle = !mToggle;
+                FocusUtils.setFocusViewLocation(mFixture.focus,
+                        mToggle ? mFixture.second : mFixture.first, false);
+            }
+        }).report(name);
+    }
+}
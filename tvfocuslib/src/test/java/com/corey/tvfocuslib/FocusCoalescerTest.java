@@ -0,0 +1,140 @@
+package com.corey.tvfocuslib;
+
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 焦点变化合并测试，暂停主线程，由测试推进Choreographer的帧回调
+ * Robolectric推进主线程时会连续执行动画的后续帧，动画直接结束，判断是否显示动画时只执行合并的帧回调
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusCoalescerTest {
+    private FocusMoveFixture mFixture;
+    private RecordingFocusView mFocus;
+    private FocusCoalescer mCoalescer;
+    private float mFirstX;
+    private float mSecondX;
+
+    @Before
+    public void setUp() {
+        mFixture = new FocusMoveFixture();
+        mFocus = mFixture.focus;
+        // 两个item上焦点框的位置
+        FocusUtils.setFocusViewLocation(mFocus, mFixture.second, false);
+        mSecondX = mFocus.getX();
+        FocusUtils.setFocusViewLocation(mFocus, mFixture.first, false);
+        mFirstX = mFocus.getX();
+        mCoalescer = new FocusCoalescer(mFocus);
+        ShadowLooper.pauseMainLooper();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void postsInOneFrame_moveOnce() {
+        FocusStyle.attach(mFixture.root, new FocusStyle.Builder().setShowAnimation(false).build());
+        mFocus.mLayoutRequests = 0;
+        mCoalescer.post(mFixture.second);
+        mCoalescer.post(mFixture.first);
+        mCoalescer.post(mFixture.second);
+        // 下一帧之前不移动
+        assertEquals(mFirstX, mFocus.getX(), 0f);
+        assertEquals(0, mFocus.mLayoutRequests);
+
+        ShadowLooper.runUiThreadTasks();
+        assertEquals(mSecondX, mFocus.getX(), 0f);
+        assertEquals(1, mFocus.mLayoutRequests);
+
+        // 帧回调只执行一次
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertEquals(1, mFocus.mLayoutRequests);
+    }
+
+    @Test
+    public void fastScroll_jumpsWithoutAnimation() {
+        mCoalescer.setFastScrollThreshold(10);
+        mCoalescer.post(mFixture.second);
+        assertFalse(mCoalescer.isFastScrolling());
+        runFrame();
+        assertTrue(FocusAnimator.get(mFocus).isRunning());
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertFalse(FocusAnimator.get(mFocus).isRunning());
+
+        // 间隔1秒低于阈值，显示动画
+        mCoalescer.post(mFixture.first);
+        assertFalse(mCoalescer.isFastScrolling());
+        // 同一时刻的下一次焦点变化超过阈值，直接跳到目标位置
+        mCoalescer.post(mFixture.second);
+        assertTrue(mCoalescer.isFastScrolling());
+        runFrame();
+        assertFalse(FocusAnimator.get(mFocus).isRunning());
+        assertEquals(mSecondX, mFocus.getX(), 0f);
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        mCoalescer.post(mFixture.first);
+        assertFalse(mCoalescer.isFastScrolling());
+        runFrame();
+        assertTrue(FocusAnimator.get(mFocus).isRunning());
+    }
+
+    @Test
+    public void fastScrollDisabled_alwaysAnimates() {
+        mCoalescer.post(mFixture.first);
+        mCoalescer.post(mFixture.second);
+        assertFalse(mCoalescer.isFastScrolling());
+        runFrame();
+        assertTrue(FocusAnimator.get(mFocus).isRunning());
+    }
+
+    @Test
+    public void flushAndCancel() {
+        FocusStyle.attach(mFixture.root, new FocusStyle.Builder().setShowAnimation(false).build());
+        mCoalescer.post(mFixture.second);
+        mCoalescer.flush();
+        assertEquals(mSecondX, mFocus.getX(), 0f);
+
+        mFocus.mLayoutRequests = 0;
+        mCoalescer.post(mFixture.first);
+        mCoalescer.cancel();
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertEquals(mSecondX, mFocus.getX(), 0f);
+        assertEquals(0, mFocus.mLayoutRequests);
+
+        // 取消后可以继续使用
+        mCoalescer.post((View) null);
+        mCoalescer.post(mFixture.first);
+        ShadowLooper.runUiThreadTasks();
+        assertEquals(mFirstX, mFocus.getX(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeThreshold_throws() {
+        mCoalescer.setFastScrollThreshold(-1);
+    }
+
+    /**
+     * 只执行下一帧的回调，不执行回调中动画请求的后续帧
+     */
+    private static void runFrame() {
+        Robolectric.getForegroundThreadScheduler().runOneTask();
+    }
+}
@@ -0,0 +1,80 @@
+package com.corey.tvfocuslib;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.graphics.drawable.Drawable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 焦点框图片缓存测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusDrawableCacheTest {
+    private static final int RES_ID = android.R.drawable.ic_menu_add;
+
+    private Application mApplication;
+    private int mDensityDpi;
+
+    @Before
+    public void setUp() {
+        mApplication = RuntimeEnvironment.application;
+        mDensityDpi = mApplication.getResources().getDisplayMetrics().densityDpi;
+        FocusDrawableCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        FocusDrawableCache.clear();
+    }
+
+    @Test
+    public void get_sharesDecodedState() {
+        Drawable first = FocusDrawableCache.get(mApplication, RES_ID);
+        assertTrue(FocusDrawableCache.contains(RES_ID, mDensityDpi));
+        Drawable second = FocusDrawableCache.get(mApplication, RES_ID);
+
+        assertNotSame(first, second);
+        assertSame(first.getConstantState(), second.getConstantState());
+    }
+
+    @Test
+    public void trimMemory_dropsEntries() {
+        FocusDrawableCache.get(mApplication, RES_ID);
+        mApplication.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertTrue(FocusDrawableCache.contains(RES_ID, mDensityDpi));
+
+        mApplication.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertFalse(FocusDrawableCache.contains(RES_ID, mDensityDpi));
+    }
+
+    @Test
+    public void prewarm_decodesInBackground() throws InterruptedException {
+        assertTrue(FocusDrawableCache.prewarm(mApplication, RES_ID));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!FocusDrawableCache.contains(RES_ID, mDensityDpi)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(FocusDrawableCache.contains(RES_ID, mDensityDpi));
+    }
+
+    @Test
+    public void prewarm_skipsCachedIds() {
+        FocusDrawableCache.get(mApplication, RES_ID);
+        assertFalse(FocusDrawableCache.prewarm(mApplication, RES_ID));
+        assertFalse(FocusDrawableCache.prewarm(mApplication));
+    }
+}
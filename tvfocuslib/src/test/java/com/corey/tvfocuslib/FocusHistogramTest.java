@@ -0,0 +1,57 @@
+package com.corey.tvfocuslib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FocusHistogramTest {
+
+    @Test
+    public void percentile_returnsBucketUpperBound() {
+        FocusHistogram histogram = new FocusHistogram(10, 20, 50, 100);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(90));
+        assertEquals(10, histogram.getPercentile(0));
+        assertEquals(50.5, histogram.getMean(), 0.001);
+        assertEquals(10, histogram.getBucketValueCount(0));
+        assertEquals(10, histogram.getBucketValueCount(1));
+        assertEquals(30, histogram.getBucketValueCount(2));
+        assertEquals(50, histogram.getBucketValueCount(3));
+    }
+
+    @Test
+    public void percentile_overflowReturnsMax() {
+        FocusHistogram histogram = new FocusHistogram(10, 20);
+        histogram.record(5);
+        histogram.record(500);
+        assertEquals(500, histogram.getPercentile(99));
+        assertEquals(1, histogram.getBucketValueCount(histogram.getBucketCount() - 1));
+        assertEquals(Long.MAX_VALUE, histogram.getBucketUpperBound(histogram.getBucketCount() - 1));
+    }
+
+    @Test
+    public void percentile_neverExceedsMax() {
+        FocusHistogram histogram = new FocusHistogram(10, 1000);
+        histogram.record(42);
+        assertEquals(42, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void reset_clearsRecords() {
+        FocusHistogram histogram = new FocusHistogram(1, 2);
+        histogram.record(1);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getBucketValueCount(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsUnsortedBounds() {
+        new FocusHistogram(10, 5);
+    }
+}
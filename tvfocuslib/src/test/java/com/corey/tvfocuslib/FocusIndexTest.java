@@ -0,0 +1,472 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.graphics.Rect;
+import android.view.FocusFinder;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 焦点查找索引测试
+ * FocusFinder逐个比较候选，比较规则不满足传递性，区域大小、位置杂乱时结果与候选的顺序有关；
+ * 索引分别取光束内外的最佳候选再比较，规则化的布局中结果与FocusFinder一致，
+ * 随机区域与线性遍历的相同规则比较，验证格子的剪枝不会漏掉候选。
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusIndexTest {
+    private static final int[] DIRECTIONS = {
+            View.FOCUS_LEFT, View.FOCUS_UP, View.FOCUS_RIGHT, View.FOCUS_DOWN
+    };
+
+    private Activity mActivity;
+    private FrameLayout mRoot;
+    private final ArrayList<View> mItems = new ArrayList<View>();
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.setupActivity(Activity.class);
+        mRoot = new FrameLayout(mActivity);
+        mActivity.setContentView(mRoot);
+    }
+
+    @Test
+    public void grid_matchesFocusFinder() {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 10; col++) {
+                addItem(40 + col * 180, 40 + row * 120, 160, 100);
+            }
+        }
+        layout();
+        assertMatchesFocusFinder();
+    }
+
+    @Test
+    public void mixedRows_matchFocusFinder() {
+        int[] widths = {300, 180, 240, 420};
+        int[] heights = {200, 120, 160, 260};
+        int top = 40;
+        for (int row = 0; row < 4; row++) {
+            int left = 40 + row * 30;
+            while (left + widths[row] < 1900) {
+                addItem(left, top, widths[row], heights[row]);
+                left += widths[row] + 24;
+            }
+            top += heights[row] + 24;
+        }
+        layout();
+        assertMatchesFocusFinder();
+    }
+
+    @Test
+    public void randomRects_matchLinearSearch() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            addItem(random.nextInt(1800), random.nextInt(1000),
+                    20 + random.nextInt(200), 20 + random.nextInt(150));
+        }
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        for (View item : mItems) {
+            for (int direction : DIRECTIONS) {
+                assertEquals("direction " + direction + " from " + mItems.indexOf(item),
+                        linearSearch(item, direction), mItems.indexOf(index.findNextFocus(item, direction)));
+            }
+        }
+    }
+
+    @Test
+    public void layoutChange_updatesIndex() {
+        View left = addItem(100, 100, 100, 100);
+        View right = addItem(400, 100, 100, 100);
+        View far = addItem(800, 100, 100, 100);
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) right.getLayoutParams();
+        params.leftMargin = 1200;
+        right.setLayoutParams(params);
+        layout();
+        index.invalidate();
+        assertSame(far, index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        mRoot.removeView(far);
+        layout();
+        index.invalidate();
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+        assertNull(index.findNextFocus(right, View.FOCUS_RIGHT));
+    }
+
+    @Test
+    public void itemLayout_updatesOnlyMovedRects() {
+        View left = addItem(100, 100, 100, 100);
+        View right = addItem(400, 100, 100, 100);
+        View far = addItem(800, 100, 100, 100);
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+        int rebuilds = index.getRebuildCount();
+
+        // 不调用invalidate，view自己的布局回调更新区域
+        FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) right.getLayoutParams();
+        params.leftMargin = 1200;
+        right.setLayoutParams(params);
+        layout();
+        assertSame(far, index.findNextFocus(left, View.FOCUS_RIGHT));
+        assertSame(right, index.findNextFocus(far, View.FOCUS_RIGHT));
+        assertEquals(rebuilds, index.getRebuildCount());
+    }
+
+    @Test
+    public void groupLayout_updatesChildRects() {
+        FrameLayout content = new FrameLayout(mActivity);
+        mRoot.addView(content, new FrameLayout.LayoutParams(1920, 600));
+        View outside = addItem(100, 800, 100, 100);
+        View inside = addItem(content, 100, 100, 100, 100);
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        assertSame(inside, index.findNextFocus(outside, View.FOCUS_UP));
+        int rebuilds = index.getRebuildCount();
+
+        // 父布局移动时其中的view不会收到布局回调
+        FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) content.getLayoutParams();
+        params.topMargin = 900;
+        content.setLayoutParams(params);
+        layout();
+        assertSame(inside, index.findNextFocus(outside, View.FOCUS_DOWN));
+        assertNull(index.findNextFocus(outside, View.FOCUS_UP));
+        assertEquals(rebuilds, index.getRebuildCount());
+    }
+
+    @Test
+    public void focusFrameLayout_keepsIndex() {
+        View left = addItem(100, 100, 100, 100);
+        View right = addItem(400, 100, 100, 100);
+        View frame = new View(mActivity);
+        mRoot.addView(frame, new FrameLayout.LayoutParams(120, 120));
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+        int rebuilds = index.getRebuildCount();
+
+        // LAYOUT模式的焦点框放在容器内，每次移动都会让容器重新布局
+        for (int i = 0; i < 10; i++) {
+            FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) frame.getLayoutParams();
+            params.leftMargin = i % 2 == 0 ? 380 : 80;
+            params.width = 140 + i;
+            frame.setLayoutParams(params);
+            layout();
+            assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+        }
+        assertEquals(rebuilds, index.getRebuildCount());
+    }
+
+    @Test
+    public void childrenChanged_rebuildsIndex() {
+        View left = addItem(100, 100, 100, 100);
+        View right = addItem(400, 100, 100, 100);
+        View far = addItem(800, 100, 100, 100);
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        mRoot.removeView(right);
+        layout();
+        assertSame(far, index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        View near = addItem(250, 100, 100, 100);
+        layout();
+        assertSame(near, index.findNextFocus(left, View.FOCUS_RIGHT));
+    }
+
+    @Test
+    public void hiddenResult_searchesAgain() {
+        View left = addItem(100, 100, 100, 100);
+        View right = addItem(400, 100, 100, 100);
+        View far = addItem(800, 100, 100, 100);
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        // 隐藏后还没有重新布局
+        right.setVisibility(View.GONE);
+        assertSame(far, index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        right.setVisibility(View.VISIBLE);
+        layout();
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+    }
+
+    @Test
+    public void nextFocusId_usedBeforeGrid() {
+        View left = addItem(100, 100, 100, 100);
+        View right = addItem(400, 100, 100, 100);
+        View far = addItem(800, 100, 100, 100);
+        View below = addItem(100, 400, 100, 100);
+        right.setId(2);
+        far.setId(3);
+        below.setId(4);
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        FocusFinder finder = FocusFinder.getInstance();
+
+        left.setNextFocusRightId(3);
+        assertSame(far, index.findNextFocus(left, View.FOCUS_RIGHT));
+        assertSame(finder.findNextFocus(mRoot, left, View.FOCUS_RIGHT), index.findNextFocus(left, View.FOCUS_RIGHT));
+        left.setNextFocusUpId(4);
+        assertSame(below, index.findNextFocus(left, View.FOCUS_UP));
+
+        // 指定的view不能获得焦点时，7.1及之前的FocusFinder使用网格查找
+        far.setFocusable(false);
+        far.setNextFocusRightId(4);
+        index.invalidate();
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+        assertSame(finder.findNextFocus(mRoot, left, View.FOCUS_RIGHT), index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        // 容器中没有该id时使用网格查找
+        left.setNextFocusDownId(100);
+        index.invalidate();
+        assertSame(finder.findNextFocus(mRoot, left, View.FOCUS_DOWN), index.findNextFocus(left, View.FOCUS_DOWN));
+    }
+
+    @Test
+    public void scroll_translatesQueryWithoutRebuild() {
+        FrameLayout content = new FrameLayout(mActivity);
+        mRoot.addView(content, new FrameLayout.LayoutParams(1920, 3000));
+        for (int row = 0; row < 20; row++) {
+            for (int col = 0; col < 10; col++) {
+                addItem(content, 40 + col * 180, 40 + row * 140, 160, 100);
+            }
+        }
+        layout();
+        final FocusIndex index = FocusIndex.attach(mRoot);
+        assertMatchesFocusFinder();
+
+        // 模拟滚动，内容整体平移
+        content.offsetTopAndBottom(-900);
+        content.offsetLeftAndRight(-70);
+        index.onScrollChanged();
+        assertMatchesFocusFinder();
+
+        final View[] items = mItems.toArray(new View[mItems.size()]);
+        long bytes = MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue++;
+                index.onScrollChanged();
+                index.findNextFocus(items[(mValue * 7) % items.length], DIRECTIONS[mValue & 3]);
+            }
+        }).bytesPerOp;
+        assertEquals("bytes allocated per search after scroll", 0, bytes);
+    }
+
+    @Test
+    public void scroll_notUniform_rebuildsIndex() {
+        View left = addItem(100, 100, 100, 100);
+        View right = addItem(400, 100, 100, 100);
+        View far = addItem(800, 100, 100, 100);
+        layout();
+        FocusIndex index = FocusIndex.attach(mRoot);
+        assertSame(right, index.findNextFocus(left, View.FOCUS_RIGHT));
+
+        // 只有一个view移动，不是整体平移
+        right.offsetLeftAndRight(1000);
+        index.onScrollChanged();
+        assertSame(far, index.findNextFocus(left, View.FOCUS_RIGHT));
+        assertSame(right, index.findNextFocus(far, View.FOCUS_RIGHT));
+    }
+
+    @Test
+    public void findNextFocus_allocatesNothing() {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 10; col++) {
+                addItem(40 + col * 180, 40 + row * 120, 160, 100);
+            }
+        }
+        layout();
+        final FocusIndex index = FocusIndex.attach(mRoot);
+        long bytes = MicroBenchmark.run(new Runnable() {
+            private int mValue;
+
+            @Override
+            public void run() {
+                mValue++;
+                index.findNextFocus(mItems.get((mValue * 7) % mItems.size()), DIRECTIONS[mValue & 3]);
+            }
+        }).bytesPerOp;
+        assertEquals("bytes allocated per search", 0, bytes);
+    }
+
+    private void assertMatchesFocusFinder() {
+        FocusIndex index = FocusIndex.attach(mRoot);
+        FocusFinder finder = FocusFinder.getInstance();
+        for (View item : mItems) {
+            for (int direction : DIRECTIONS) {
+                View expected = finder.findNextFocus(mRoot, item, direction);
+                View actual = index.findNextFocus(item, direction);
+                assertEquals("direction " + direction + " from " + mItems.indexOf(item),
+                        mItems.indexOf(expected), mItems.indexOf(actual));
+            }
+        }
+    }
+
+    /**
+     * 遍历所有候选，与FocusGrid相同的规则
+     */
+    private int linearSearch(View focused, int direction) {
+        FocusFinderRules rules = new FocusFinderRules(direction, rectOf(focused));
+        int bestIn = -1;
+        long scoreIn = Long.MAX_VALUE;
+        int bestOut = -1;
+        long scoreOut = Long.MAX_VALUE;
+        Rect[] rects = new Rect[mItems.size()];
+        for (int i = 0; i < mItems.size(); i++) {
+            rects[i] = rectOf(mItems.get(i));
+            if (mItems.get(i) == focused || !rules.isCandidate(rects[i])) {
+                continue;
+            }
+            long score = rules.score(rects[i]);
+            if (rules.beamsOverlap(rects[i])) {
+                if (score < scoreIn) {
+                    bestIn = i;
+                    scoreIn = score;
+                }
+            } else if (score < scoreOut) {
+                bestOut = i;
+                scoreOut = score;
+            }
+        }
+        if (bestIn < 0 || bestOut < 0) {
+            return bestIn >= 0 ? bestIn : bestOut;
+        }
+        if (rules.beamBeats(rects[bestIn], rects[bestOut])) {
+            return bestIn;
+        }
+        return scoreOut < scoreIn || (scoreOut == scoreIn && bestOut < bestIn) ? bestOut : bestIn;
+    }
+
+    private Rect rectOf(View view) {
+        Rect rect = new Rect();
+        view.getDrawingRect(rect);
+        mRoot.offsetDescendantRectToMyCoords(view, rect);
+        return rect;
+    }
+
+    /**
+     * FocusFinder的比较规则
+     */
+    private static class FocusFinderRules {
+        final int direction;
+        final Rect source;
+
+        FocusFinderRules(int direction, Rect source) {
+            this.direction = direction;
+            this.source = source;
+        }
+
+        boolean isCandidate(Rect dest) {
+            switch (direction) {
+                case View.FOCUS_LEFT:
+                    return (source.right > dest.right || source.left >= dest.right)
+                            && source.left > dest.left;
+                case View.FOCUS_RIGHT:
+                    return (source.left < dest.left || source.right <= dest.left)
+                            && source.right < dest.right;
+                case View.FOCUS_UP:
+                    return (source.bottom > dest.bottom || source.top >= dest.bottom)
+                            && source.top > dest.top;
+                default:
+                    return (source.top < dest.top || source.bottom <= dest.top)
+                            && source.bottom < dest.bottom;
+            }
+        }
+
+        boolean beamsOverlap(Rect dest) {
+            if (direction == View.FOCUS_LEFT || direction == View.FOCUS_RIGHT) {
+                return dest.bottom >= source.top && dest.top <= source.bottom;
+            }
+            return dest.right >= source.left && dest.left <= source.right;
+        }
+
+        boolean beamBeats(Rect inBeam, Rect outOfBeam) {
+            boolean toDirection;
+            long farEdge;
+            switch (direction) {
+                case View.FOCUS_LEFT:
+                case View.FOCUS_RIGHT:
+                    return true;
+                case View.FOCUS_UP:
+                    toDirection = source.top >= outOfBeam.bottom;
+                    farEdge = Math.max(1, source.top - outOfBeam.top);
+                    break;
+                default:
+                    toDirection = source.bottom <= outOfBeam.top;
+                    farEdge = Math.max(1, outOfBeam.bottom - source.bottom);
+                    break;
+            }
+            return !toDirection || major(inBeam) < farEdge;
+        }
+
+        long major(Rect dest) {
+            switch (direction) {
+                case View.FOCUS_LEFT:
+                    return Math.max(0, source.left - dest.right);
+                case View.FOCUS_RIGHT:
+                    return Math.max(0, dest.left - source.right);
+                case View.FOCUS_UP:
+                    return Math.max(0, source.top - dest.bottom);
+                default:
+                    return Math.max(0, dest.top - source.bottom);
+            }
+        }
+
+        long score(Rect dest) {
+            long major = major(dest);
+            long minor;
+            if (direction == View.FOCUS_LEFT || direction == View.FOCUS_RIGHT) {
+                minor = Math.abs(source.top + source.height() / 2 - (dest.top + dest.height() / 2));
+            } else {
+                minor = Math.abs(source.left + source.width() / 2 - (dest.left + dest.width() / 2));
+            }
+            return 13 * major * major + minor * minor;
+        }
+    }
+
+    private View addItem(int left, int top, int width, int height) {
+        return addItem(mRoot, left, top, width, height);
+    }
+
+    private View addItem(FrameLayout parent, int left, int top, int width, int height) {
+        View view = new View(mActivity);
+        view.setFocusable(true);
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(width, height);
+        params.leftMargin = left;
+        params.topMargin = top;
+        parent.addView(view, params);
+        mItems.add(view);
+        return view;
+    }
+
+    private void layout() {
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, 1920, 1080);
+    }
+}
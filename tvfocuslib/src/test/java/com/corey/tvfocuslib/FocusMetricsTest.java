@@ -0,0 +1,117 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.RelativeLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusMetricsTest {
+    private RelativeLayout mRoot;
+    private View mFirst;
+    private View mSecond;
+    private ImageView mFocus;
+    private int mMoves;
+    private int mLastLayoutPasses;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(activity.getApplicationContext());
+        mRoot = new RelativeLayout(activity);
+        mFirst = addItem(activity, 100, 100, 200, 120);
+        mSecond = addItem(activity, 400, 300, 300, 180);
+        activity.setContentView(mRoot);
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, 1920, 1080);
+        mFocus = new ImageView(activity);
+        FocusUtils.initFocusViewLocation(mFocus, mFirst);
+        mRoot.addView(mFocus);
+        // 帧回调在测试推进主线程消息时执行
+        ShadowLooper.pauseMainLooper();
+
+        FocusMetrics.reset();
+        FocusMetrics.setEnabled(true);
+        FocusMetrics.setListener(new FocusMetrics.Listener() {
+            @Override
+            public void onFocusMove(long latencyNanos, long locateNanos, int layoutPasses, int droppedFrames) {
+                mMoves++;
+                mLastLayoutPasses = layoutPasses;
+                assertTrue(latencyNanos >= locateNanos);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+        ShadowChoreographer.reset();
+        FocusMetrics.setListener(null);
+        FocusMetrics.setEnabled(false);
+        FocusMetrics.reset();
+    }
+
+    @Test
+    public void jump_recordedOnNextFrame() {
+        FocusUtils.setFocusViewLocation(mFocus, mSecond, false);
+        assertEquals(0, mMoves);
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertEquals(1, mMoves);
+        assertEquals(1, mLastLayoutPasses);
+        assertEquals(1, FocusMetrics.getLatencyHistogram().getCount());
+        assertEquals(1, FocusMetrics.getLocateHistogram().getCount());
+    }
+
+    @Test
+    public void animation_recordedWhenFinished() {
+        FocusUtils.setFocusViewLocation(mFocus, mSecond, true);
+        assertEquals(0, mMoves);
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertEquals(1, mMoves);
+        assertTrue(mLastLayoutPasses >= 1);
+    }
+
+    @Test
+    public void newFocus_endsPreviousMove() {
+        FocusUtils.setFocusViewLocation(mFocus, mSecond, true);
+        FocusUtils.setFocusViewLocation(mFocus, mFirst, true);
+        assertEquals(1, mMoves);
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertEquals(2, mMoves);
+    }
+
+    @Test
+    public void disabled_recordsNothing() {
+        FocusMetrics.setEnabled(false);
+        FocusUtils.setFocusViewLocation(mFocus, mSecond, false);
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertEquals(0, mMoves);
+        assertEquals(0, FocusMetrics.getLatencyHistogram().getCount());
+    }
+
+    private View addItem(Activity activity, int left, int top, int width, int height) {
+        View view = new View(activity);
+        RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(width, height);
+        params.leftMargin = left;
+        params.topMargin = top;
+        mRoot.addView(view, params);
+        return view;
+    }
+}
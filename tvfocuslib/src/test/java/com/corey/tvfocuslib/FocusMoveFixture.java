@@ -0,0 +1,43 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.RelativeLayout;
+
+import org.robolectric.Robolectric;
+
+/**
+ * 焦点移动测试共用的布局：1920x1080的根布局中两个大小不同的item，焦点框位于第一个item上
+ */
+final class FocusMoveFixture {
+    final Activity activity;
+    final RelativeLayout root;
+    final View first;
+    final View second;
+    final RecordingFocusView focus;
+
+    FocusMoveFixture() {
+        activity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(activity.getApplicationContext());
+        root = new RelativeLayout(activity);
+        first = addItem(100, 100, 200, 120);
+        second = addItem(400, 300, 300, 180);
+        activity.setContentView(root);
+        root.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        root.layout(0, 0, 1920, 1080);
+
+        focus = new RecordingFocusView(activity);
+        FocusUtils.initFocusViewLocation(focus, first);
+        root.addView(focus);
+    }
+
+    private View addItem(int left, int top, int width, int height) {
+        View view = new View(activity);
+        RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(width, height);
+        params.leftMargin = left;
+        params.topMargin = top;
+        root.addView(view, params);
+        return view;
+    }
+}
@@ -0,0 +1,164 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Build;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 焦点框浮层测试，检查浮层图片的绘制区域
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusOverlayTest {
+    private static final int MARGIN_LEFT = 10;
+    private static final int MARGIN_TOP = 20;
+    private static final int MARGIN_RIGHT = 30;
+    private static final int MARGIN_BOTTOM = 40;
+
+    private FrameLayout mRoot;
+    private View mFirst;
+    private View mSecond;
+    private ColorDrawable mDrawable;
+    private FocusOverlay mOverlay;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(activity.getApplicationContext());
+        mRoot = new FrameLayout(activity);
+        mFirst = addItem(100, 100, 200, 120);
+        mSecond = addItem(500, 400, 300, 180);
+        activity.setContentView(mRoot);
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, 1920, 1080);
+        mDrawable = new ColorDrawable();
+        mOverlay = FocusOverlay.attach(mRoot, mDrawable);
+        mOverlay.setStyle(new FocusStyle.Builder()
+                .setMarginPx(MARGIN_LEFT, MARGIN_TOP, MARGIN_RIGHT, MARGIN_BOTTOM).build());
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void moveTo_boundsWrapItem() {
+        mOverlay.moveTo(mFirst, false);
+        assertEquals(frameOf(mFirst), mDrawable.getBounds());
+        // 加入根布局的浮层
+        assertNotNull(mDrawable.getCallback());
+
+        mOverlay.moveTo(mSecond, false);
+        assertEquals(frameOf(mSecond), mDrawable.getBounds());
+    }
+
+    @Test
+    public void animatedMove_boundsReachTarget() {
+        mOverlay.moveTo(mFirst, true);
+        // 第一次移动没有起点，直接显示在目标位置
+        assertEquals(frameOf(mFirst), mDrawable.getBounds());
+
+        mOverlay.moveTo(mSecond, true);
+        assertEquals(frameOf(mFirst), mDrawable.getBounds());
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertEquals(frameOf(mSecond), mDrawable.getBounds());
+    }
+
+    @Test
+    public void offsetBy_followsScroll() {
+        mOverlay.moveTo(mFirst, false);
+        mOverlay.offsetBy(0, -250);
+        Rect expected = frameOf(mFirst);
+        expected.offset(0, -250);
+        assertEquals(expected, mDrawable.getBounds());
+
+        // 动画的终点一起平移
+        mOverlay.moveTo(mSecond, true);
+        mOverlay.offsetBy(-40, -100);
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        expected = frameOf(mSecond);
+        expected.offset(-40, -100);
+        assertEquals(expected, mDrawable.getBounds());
+    }
+
+    @Test
+    public void scrolledItem_usesNewLocation() {
+        mOverlay.moveTo(mFirst, false);
+        // 与RecyclerView相同，滚动时平移子View
+        mFirst.offsetTopAndBottom(-60);
+        mSecond.offsetTopAndBottom(-60);
+        mOverlay.moveTo(mSecond, false);
+        assertEquals(frameOf(mSecond), mDrawable.getBounds());
+        assertEquals(400 - 60 - MARGIN_TOP, mDrawable.getBounds().top);
+    }
+
+    @Test
+    public void hideAndDetach() {
+        mOverlay.moveTo(mFirst, false);
+        mOverlay.hide();
+        assertNull(mDrawable.getCallback());
+        mOverlay.show();
+        assertNotNull(mDrawable.getCallback());
+
+        // 移除后重新移动时没有起点，不显示动画
+        mOverlay.detach();
+        assertNull(mDrawable.getCallback());
+        mOverlay.moveTo(mSecond, true);
+        assertEquals(frameOf(mSecond), mDrawable.getBounds());
+        assertNotNull(mDrawable.getCallback());
+    }
+
+    @Test
+    public void belowApi18_attachReturnsNull() {
+        int sdk = Build.VERSION.SDK_INT;
+        ReflectionHelpers.setStaticField(Build.VERSION.class, "SDK_INT", 17);
+        try {
+            assertFalse(FocusOverlay.isSupported());
+            assertNull(FocusOverlay.attach(mRoot, new ColorDrawable()));
+            assertNull(FocusOverlay.attach(mRoot, android.R.drawable.btn_default));
+            assertNull(FocusOverlay.attach(mRoot, new FocusStyle.Builder().build()));
+        } finally {
+            ReflectionHelpers.setStaticField(Build.VERSION.class, "SDK_INT", sdk);
+        }
+    }
+
+    /**
+     * 包住item的焦点框区域
+     */
+    private Rect frameOf(View item) {
+        return new Rect(item.getLeft() - MARGIN_LEFT, item.getTop() - MARGIN_TOP,
+                item.getRight() + MARGIN_RIGHT, item.getBottom() + MARGIN_BOTTOM);
+    }
+
+    private View addItem(int left, int top, int width, int height) {
+        View view = new View(mRoot.getContext());
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(width, height);
+        params.leftMargin = left;
+        params.topMargin = top;
+        mRoot.addView(view, params);
+        return view;
+    }
+}
@@ -0,0 +1,195 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.RelativeLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 下一个焦点位置预取测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusPrefetcherTest {
+    private RelativeLayout mRoot;
+    private View[] mItems;
+    private RecordingFocusView mFocus;
+    private FocusPrefetcher mPrefetcher;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(activity.getApplicationContext());
+        mRoot = new RelativeLayout(activity);
+        mItems = new View[9];
+        for (int i = 0; i < mItems.length; i++) {
+            mItems[i] = new View(activity);
+            mItems[i].setFocusable(true);
+            RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(200, 120);
+            params.leftMargin = 100 + (i % 3) * 300;
+            params.topMargin = 100 + (i / 3) * 200;
+            mRoot.addView(mItems[i], params);
+        }
+        activity.setContentView(mRoot);
+        mFocus = new RecordingFocusView(activity);
+        mRoot.addView(mFocus);
+        layout();
+        mPrefetcher = FocusPrefetcher.attach(mFocus, mRoot);
+        FocusUtils.initFocusViewLocation(mFocus, mItems[4]);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+        mPrefetcher.release();
+    }
+
+    @Test
+    public void neighbor_hitsPrefetchedLocation() {
+        mPrefetcher.prefetch();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[5], false);
+
+        assertEquals(1, mPrefetcher.getHitCount());
+        assertEquals(0, mPrefetcher.getMissCount());
+        assertEquals(locationOf(mItems[5])[0] - FocusUtils.getFocusMarginLeft(), mFocus.getX(), 0f);
+        assertEquals(locationOf(mItems[5])[1] - FocusUtils.getFocusMarginTop(), mFocus.getY(), 0f);
+    }
+
+    @Test
+    public void diagonalOrStale_misses() {
+        mPrefetcher.prefetch();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[0], false);
+        assertEquals(1, mPrefetcher.getMissCount());
+
+        mPrefetcher.prefetch();
+        mPrefetcher.onScrollChanged();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[1], false);
+        assertEquals(2, mPrefetcher.getMissCount());
+        assertEquals(0f, mPrefetcher.getHitRate(), 0f);
+
+        mPrefetcher.prefetch();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[4], false);
+        assertEquals(1, mPrefetcher.getHitCount());
+        assertEquals(1f / 3, mPrefetcher.getHitRate(), 0.001f);
+    }
+
+    @Test
+    public void layoutDuringAnimation_keepsTargets() {
+        ShadowLooper.pauseMainLooper();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[5], true);
+        assertTrue(FocusAnimator.get(mFocus).isRunning());
+        assertFalse(mPrefetcher.queueIdle());
+
+        // LAYOUT模式每帧修改焦点框大小并布局，Robolectric推进主线程时动画会直接结束，这里直接布局
+        mFocus.requestLayout();
+        layout();
+        mRoot.getViewTreeObserver().dispatchOnGlobalLayout();
+        // 移动期间不在空闲时处理
+        assertTrue(mPrefetcher.queueIdle());
+
+        // 移动结束后只更新缓存的位置，不重新预取
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertFalse(FocusAnimator.get(mFocus).isRunning());
+        assertFalse(mPrefetcher.queueIdle());
+        layout();
+        mRoot.getViewTreeObserver().dispatchOnGlobalLayout();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[8], false);
+        assertEquals(1, mPrefetcher.getMissCount());
+        assertEquals(1, mPrefetcher.getHitCount());
+        assertEquals(locationOf(mItems[8])[1] - FocusUtils.getFocusMarginTop(), mFocus.getY(), 0f);
+    }
+
+    @Test
+    public void layoutMovingItems_updatesLocationsWhenIdle() {
+        assertFalse(mPrefetcher.queueIdle());
+        for (View item : mItems) {
+            item.offsetTopAndBottom(40);
+        }
+        mRoot.getViewTreeObserver().dispatchOnGlobalLayout();
+        assertFalse(mPrefetcher.queueIdle());
+
+        FocusUtils.setFocusViewLocation(mFocus, mItems[7], false);
+        assertEquals(1, mPrefetcher.getHitCount());
+        assertEquals(locationOf(mItems[7])[1] - FocusUtils.getFocusMarginTop(), mFocus.getY(), 0f);
+    }
+
+    @Test
+    public void neighborMovedDuringAnimation_usesNewLocation() {
+        ShadowLooper.pauseMainLooper();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[5], true);
+        assertFalse(mPrefetcher.queueIdle());
+
+        // 当前焦点不动，下一行的item重新布局
+        int oldY = locationOf(mItems[8])[1];
+        mItems[8].offsetTopAndBottom(30);
+        mRoot.getViewTreeObserver().dispatchOnGlobalLayout();
+        assertTrue(mPrefetcher.queueIdle());
+
+        FocusUtils.setFocusViewLocation(mFocus, mItems[8], false);
+        assertEquals(oldY + 30, locationOf(mItems[8])[1]);
+        assertEquals(locationOf(mItems[8])[1] - FocusUtils.getFocusMarginTop(), mFocus.getY(), 0f);
+        assertEquals(0, mPrefetcher.getHitCount());
+        assertEquals(2, mPrefetcher.getMissCount());
+    }
+
+    @Test
+    public void neighborMoved_updatedWhenIdle() {
+        assertFalse(mPrefetcher.queueIdle());
+        mItems[5].offsetLeftAndRight(50);
+        mRoot.getViewTreeObserver().dispatchOnGlobalLayout();
+        assertFalse(mPrefetcher.queueIdle());
+
+        FocusUtils.setFocusViewLocation(mFocus, mItems[5], false);
+        assertEquals(1, mPrefetcher.getHitCount());
+        assertEquals(locationOf(mItems[5])[0] - FocusUtils.getFocusMarginLeft(), mFocus.getX(), 0f);
+    }
+
+    @Test
+    public void scrollDuringAnimation_defersUntilMoveEnds() {
+        ShadowLooper.pauseMainLooper();
+        FocusUtils.setFocusViewLocation(mFocus, mItems[5], true);
+        assertFalse(mPrefetcher.queueIdle());
+
+        // 列表跟随焦点滚动
+        for (View item : mItems) {
+            item.offsetTopAndBottom(-60);
+        }
+        mPrefetcher.onScrollChanged();
+        assertTrue(mPrefetcher.queueIdle());
+        mPrefetcher.onScrollChanged();
+        assertTrue(mPrefetcher.queueIdle());
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertFalse(FocusAnimator.get(mFocus).isRunning());
+        assertFalse(mPrefetcher.queueIdle());
+        FocusUtils.setFocusViewLocation(mFocus, mItems[2], false);
+        assertEquals(1, mPrefetcher.getHitCount());
+        assertEquals(locationOf(mItems[2])[1] - FocusUtils.getFocusMarginTop(), mFocus.getY(), 0f);
+    }
+
+    private int[] locationOf(View view) {
+        int[] location = new int[2];
+        view.getLocationOnScreen(location);
+        return location;
+    }
+
+    private void layout() {
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, 1920, 1080);
+    }
+}
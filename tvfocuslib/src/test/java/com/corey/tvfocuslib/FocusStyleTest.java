@@ -0,0 +1,170 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.RelativeLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 焦点框样式测试，不同容器中的焦点框使用各自的样式
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusStyleTest {
+    private Activity mActivity;
+    private RelativeLayout mRoot;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(mActivity.getApplicationContext());
+        mRoot = new RelativeLayout(mActivity);
+        mActivity.setContentView(mRoot);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+        FocusUtils.setIsShowFocusMoveAni(true);
+        FocusUtils.setAnimTime(200);
+    }
+
+    @Test
+    public void of_findsNearestAttachedStyle() {
+        FrameLayout container = new FrameLayout(mActivity);
+        mRoot.addView(container);
+        View child = new View(mActivity);
+        container.addView(child);
+        FocusStyle outer = new FocusStyle.Builder().setDuration(100).build();
+        FocusStyle inner = new FocusStyle.Builder().setDuration(300).build();
+
+        assertSame(FocusUtils.getDefaultStyle(), FocusStyle.of(child));
+        FocusStyle.attach(mRoot, outer);
+        assertSame(outer, FocusStyle.of(child));
+        FocusStyle.attach(container, inner);
+        assertSame(inner, FocusStyle.of(child));
+        assertSame(outer, FocusStyle.of(mRoot));
+        FocusStyle.attach(container, null);
+        assertSame(outer, FocusStyle.of(child));
+    }
+
+    @Test
+    public void defaultStyle_followsGlobalSettings() {
+        FocusStyle before = FocusUtils.getDefaultStyle();
+        assertSame(before, FocusUtils.getDefaultStyle());
+
+        FocusUtils.setIsShowFocusMoveAni(false);
+        FocusUtils.setAnimTime(120);
+        FocusStyle after = FocusUtils.getDefaultStyle();
+        assertNotSame(before, after);
+        assertFalse(after.isShowAnimation());
+        assertEquals(120, after.getDuration());
+        // 已创建的样式不受影响
+        assertEquals(200, before.getDuration());
+    }
+
+    @Test
+    public void focusViews_useTheirOwnMargins() {
+        View first = addItem(100, 100, 200, 120);
+        View second = addItem(400, 300, 300, 180);
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, 1920, 1080);
+
+        RecordingFocusView small = new RecordingFocusView(mActivity);
+        FocusStyle.attach(small, new FocusStyle.Builder().setMarginPx(2, 2, 2, 2).build());
+        RecordingFocusView large = new RecordingFocusView(mActivity);
+        FocusStyle.attach(large, new FocusStyle.Builder().setMarginPx(10, 20, 10, 20).build());
+
+        FocusUtils.initFocusViewLocation(small, first);
+        FocusUtils.initFocusViewLocation(large, second);
+
+        assertEquals(204, small.getLayoutParams().width);
+        assertEquals(124, small.getLayoutParams().height);
+        assertEquals(320, large.getLayoutParams().width);
+        assertEquals(220, large.getLayoutParams().height);
+        int[] location = new int[2];
+        first.getLocationOnScreen(location);
+        assertEquals(location[0] - 2, small.getX(), 0f);
+        second.getLocationOnScreen(location);
+        assertEquals(location[1] - 20, large.getY(), 0f);
+    }
+
+    @Test
+    public void transformMode_drawsFrameAtTargetSizeWithoutLayout() {
+        View first = addItem(100, 100, 200, 120);
+        View second = addItem(400, 300, 300, 180);
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, 1920, 1080);
+        RecordingFocusView focus = new RecordingFocusView(mActivity);
+        ColorDrawable image = new ColorDrawable(Color.RED);
+        focus.setBackgroundDrawable(image);
+        FocusStyle.attach(focus, new FocusStyle.Builder().setMarginPx(0, 0, 0, 0)
+                .setMoveMode(FocusUtils.FOCUS_MOVE_MODE_TRANSFORM).build());
+        FocusUtils.initFocusViewLocation(focus, first);
+        FocusFrameDrawable frame = FocusFrameDrawable.peek(focus);
+        assertSame(image, frame.getFrame());
+        assertEquals(ViewGroup.LayoutParams.MATCH_PARENT, focus.getLayoutParams().width);
+        ShadowLooper.pauseMainLooper();
+
+        focus.mLayoutRequests = 0;
+        FocusUtils.setFocusViewLocation(focus, second, true);
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        // 布局大小不变，不缩放，只改变图片的绘制大小
+        assertEquals(0, focus.mLayoutRequests);
+        assertEquals(1f, focus.getScaleX(), 0f);
+        assertEquals(1f, focus.getScaleY(), 0f);
+        assertEquals(ViewGroup.LayoutParams.MATCH_PARENT, focus.getLayoutParams().width);
+        assertEquals(300, frame.getFrameWidth());
+        assertEquals(180, frame.getFrameHeight());
+        frame.setBounds(0, 0, 1920, 1080);
+        frame.draw(new Canvas(Bitmap.createBitmap(1920, 1080, Bitmap.Config.ARGB_8888)));
+        assertEquals(new Rect(0, 0, 300, 180), image.getBounds());
+
+        FocusUtils.setFocusViewLocation(focus, first, false);
+        assertEquals(0, focus.mLayoutRequests);
+        assertEquals(200, frame.getFrameWidth());
+        assertEquals(120, frame.getFrameHeight());
+        int[] location = new int[2];
+        first.getLocationOnScreen(location);
+        assertEquals(location[0], focus.getX(), 0f);
+        assertEquals(location[1], focus.getY(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsUnknownMoveMode() {
+        new FocusStyle.Builder().setMoveMode(5);
+    }
+
+    private View addItem(int left, int top, int width, int height) {
+        View view = new View(mActivity);
+        RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(width, height);
+        params.leftMargin = left;
+        params.topMargin = top;
+        mRoot.addView(view, params);
+        return view;
+    }
+}
@@ -0,0 +1,87 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 焦点框跟随容器滚动测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusTrackerTest {
+    private Activity mActivity;
+    private FrameLayout mRoot;
+    private View mItem;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.setupActivity(Activity.class);
+        ContextProvider.init(mActivity.getApplicationContext());
+        mRoot = new FrameLayout(mActivity);
+        FrameLayout list = new FrameLayout(mActivity);
+        mItem = new View(mActivity);
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(200, 120);
+        params.leftMargin = 100;
+        params.topMargin = 600;
+        list.addView(mItem, params);
+        mRoot.addView(list);
+        mActivity.setContentView(mRoot);
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, 1920, 1080);
+    }
+
+    @Test
+    public void overlay_followsScroll() {
+        ColorDrawable drawable = new ColorDrawable();
+        FocusOverlay overlay = FocusOverlay.attach(mRoot, drawable);
+        overlay.setStyle(new FocusStyle.Builder().setMarginPx(0, 0, 0, 0).build());
+        FocusTracker tracker = FocusTracker.attach(overlay);
+        assertSame(tracker, FocusTracker.attach(overlay));
+        overlay.moveTo(mItem, false);
+        int top = drawable.getBounds().top;
+
+        scroll(250);
+        tracker.onScrollChanged();
+        assertEquals(top - 250, drawable.getBounds().top);
+        assertEquals(120, drawable.getBounds().height());
+
+        tracker.release();
+        scroll(-250);
+        tracker.onScrollChanged();
+        assertEquals(top - 250, drawable.getBounds().top);
+    }
+
+    @Test
+    public void focusView_followsScroll() {
+        RecordingFocusView focus = new RecordingFocusView(mActivity);
+        FocusStyle.attach(focus, new FocusStyle.Builder().setMarginPx(0, 0, 0, 0).build());
+        mRoot.addView(focus);
+        FocusTracker tracker = FocusTracker.attach(focus);
+        FocusUtils.setFocusViewLocation(focus, mItem, false);
+        float y = focus.getY();
+
+        scroll(250);
+        tracker.onScrollChanged();
+        assertEquals(y - 250, focus.getY(), 0f);
+    }
+
+    /**
+     * 与RecyclerView相同，滚动时平移子View
+     */
+    private void scroll(int dy) {
+        mItem.offsetTopAndBottom(-dy);
+    }
+}
@@ -0,0 +1,139 @@
+package com.corey.tvfocuslib;
+
+import android.animation.ValueAnimator;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 焦点移动热路径的内存分配测试，使用线程分配字节数统计每次焦点移动的分配量
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusUtilsAllocationTest {
+    private View mFirst;
+    private View mSecond;
+    private RecordingFocusView mFocus;
+
+    @Before
+    public void setUp() {
+        FocusMoveFixture fixture = new FocusMoveFixture();
+        mFirst = fixture.first;
+        mSecond = fixture.second;
+        mFocus = fixture.focus;
+        // 焦点框请求的布局不在测试中执行，只统计焦点移动本身的分配
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_LAYOUT);
+    }
+
+    @Test
+    public void getLocation_intoArray_allocatesNothing() {
+        final int[] location = new int[2];
+        long bytes = measure(new Runnable() {
+            @Override
+            public void run() {
+                ViewUtil.getLocation(mSecond, location);
+            }
+        });
+        int[] expected = ViewUtil.getLocation(mSecond);
+        assertEquals(expected[0], location[0]);
+        assertEquals(expected[1], location[1]);
+        assertEquals("bytes allocated per lookup", 0, bytes);
+    }
+
+    @Test
+    public void setFocusViewLocation_layoutMode_allocatesNothingPerMove() {
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_LAYOUT);
+        assertEquals("bytes allocated per focus move", 0, measureMoves());
+        assertTrue(mFocus.mLayoutRequests > 0);
+    }
+
+    @Test
+    public void setFocusViewLocation_transformMode_allocatesNothingPerMove() {
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_TRANSFORM);
+        FocusUtils.initFocusViewLocation(mFocus, mFirst);
+        assertEquals("bytes allocated per focus move", 0, measureMoves());
+        // 只改变图片的绘制大小，焦点移动不会触发layout
+        assertEquals("layout requests in transform mode", 0, mFocus.mLayoutRequests);
+        assertTrue(mFocus.mDrawableInvalidations > 0);
+        assertEquals(1f, mFocus.getScaleX(), 0f);
+    }
+
+    @Test
+    public void setFocusViewLocation_layoutMode_animated_allocatesNothingPerMove() {
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_LAYOUT);
+        assertEquals("bytes allocated per animated focus move", 0, measureAnimatedMoves());
+    }
+
+    @Test
+    public void setFocusViewLocation_transformMode_animated_allocatesNothingPerMove() {
+        FocusUtils.setFocusMoveMode(FocusUtils.FOCUS_MOVE_MODE_TRANSFORM);
+        FocusUtils.initFocusViewLocation(mFocus, mFirst);
+        mFocus.mLayoutRequests = 0;
+        assertEquals("bytes allocated per animated focus move", 0, measureAnimatedMoves());
+        assertEquals("layout requests in transform mode", 0, mFocus.mLayoutRequests);
+        // 动画中间帧的图片大小在两个item之间
+        int width = FocusFrameDrawable.peek(mFocus).getFrameWidth()
+                - FocusUtils.getFocusMarginLeft() - FocusUtils.getFocusMarginRight();
+        assertTrue(width > Math.min(mFirst.getWidth(), mSecond.getWidth())
+                && width < Math.max(mFirst.getWidth(), mSecond.getWidth()));
+    }
+
+    private long measureMoves() {
+        mFocus.mLayoutRequests = 0;
+        long bytes = measure(new Runnable() {
+            private boolean mToggle;
+
+            @Override
+            public void run() {
+                mToggle = !mToggle;
+                FocusUtils.setFocusViewLocation(mFocus, mToggle ? mSecond : mFirst, false);
+            }
+        });
+        assertTrue(mFocus.getX() != 0);
+        return bytes;
+    }
+
+    /**
+     * 每次操作开始一次动画移动（正在运行的动画重新定向）并应用一帧，
+     * 帧由测试直接驱动，不统计Robolectric调度器本身的分配
+     */
+    private long measureAnimatedMoves() {
+        final FocusAnimator animator = FocusAnimator.get(mFocus);
+        final ValueAnimator frame = ValueAnimator.ofFloat(0f, 1f);
+        frame.setCurrentFraction(0.5f);
+        long bytes = measure(new Runnable() {
+            private boolean mToggle;
+
+            @Override
+            public void run() {
+                mToggle = !mToggle;
+                FocusUtils.setFocusViewLocation(mFocus, mToggle ? mSecond : mFirst, true);
+                animator.onAnimationUpdate(frame);
+            }
+        });
+        assertTrue(animator.isRunning());
+        return bytes;
+    }
+
+    /**
+     * 返回每次执行task分配的字节数
+     */
+    private static long measure(Runnable task) {
+        return MicroBenchmark.run(task).bytesPerOp;
+    }
+}
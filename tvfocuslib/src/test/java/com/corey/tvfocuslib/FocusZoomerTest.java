@@ -0,0 +1,180 @@
+package com.corey.tvfocuslib;
+
+import android.animation.ValueAnimator;
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Paint;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 焦点item放大动画测试
+ * Robolectric推进主线程时动画直接结束，中间帧由测试直接驱动
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class FocusZoomerTest {
+    private static final float SCALE = 1.2f;
+
+    private FrameLayout mRoot;
+    private View mFirst;
+    private View mSecond;
+    private View mThird;
+    private FocusZoomer mZoomer;
+    private ValueAnimator mHalfFrame;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        mRoot = new FrameLayout(activity);
+        mFirst = new LayeredView(activity);
+        mSecond = new LayeredView(activity);
+        mThird = new LayeredView(activity);
+        mRoot.addView(mFirst);
+        mRoot.addView(mSecond);
+        mRoot.addView(mThird);
+        activity.setContentView(mRoot);
+        mZoomer = FocusZoomer.get(mRoot);
+        mHalfFrame = ValueAnimator.ofFloat(0f, 1f);
+        mHalfFrame.setCurrentFraction(0.5f);
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+        FocusUtils.setHardwareLayerEnabled(true, false);
+    }
+
+    @Test
+    public void get_sharedPerHost() {
+        assertSame(mZoomer, FocusZoomer.get(mRoot));
+    }
+
+    @Test
+    public void zoomTo_shrinksOldAndGrowsNew() {
+        mZoomer.zoomTo(mFirst, SCALE, 200, false);
+        assertScale(SCALE, mFirst);
+        assertEquals(View.LAYER_TYPE_NONE, mFirst.getLayerType());
+
+        mZoomer.zoomTo(mSecond, SCALE, 200, true);
+        // 动画期间两个item都使用硬件层
+        assertEquals(View.LAYER_TYPE_HARDWARE, mFirst.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mSecond.getLayerType());
+        mZoomer.onAnimationUpdate(mHalfFrame);
+        assertScale(1.1f, mFirst);
+        assertScale(1.1f, mSecond);
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertScale(1f, mFirst);
+        assertScale(SCALE, mSecond);
+        assertEquals(View.LAYER_TYPE_NONE, mFirst.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mSecond.getLayerType());
+    }
+
+    @Test
+    public void retarget_restoresShrinkingAndReversesGrowing() {
+        mZoomer.zoomTo(mFirst, SCALE, 200, false);
+        mZoomer.zoomTo(mSecond, SCALE, 200, true);
+        mZoomer.onAnimationUpdate(mHalfFrame);
+
+        mZoomer.zoomTo(mThird, SCALE, 200, true);
+        // 正在缩小的item直接恢复并释放硬件层，正在放大的item从当前大小开始缩小
+        assertScale(1f, mFirst);
+        assertEquals(View.LAYER_TYPE_NONE, mFirst.getLayerType());
+        assertScale(1.1f, mSecond);
+        assertEquals(View.LAYER_TYPE_HARDWARE, mSecond.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mThird.getLayerType());
+        mZoomer.onAnimationUpdate(mHalfFrame);
+        assertScale(1.05f, mSecond);
+        assertScale(1.1f, mThird);
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertScale(1f, mSecond);
+        assertScale(SCALE, mThird);
+        assertEquals(View.LAYER_TYPE_NONE, mSecond.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mThird.getLayerType());
+    }
+
+    @Test
+    public void existingLayer_keptAfterAnimation() {
+        mSecond.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        mZoomer.zoomTo(mFirst, SCALE, 200, false);
+        mZoomer.zoomTo(mSecond, SCALE, 200, true);
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        // 不是放大动画设置的硬件层不释放
+        assertEquals(View.LAYER_TYPE_HARDWARE, mSecond.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mFirst.getLayerType());
+    }
+
+    @Test
+    public void hardwareLayerDisabled_noLayers() {
+        FocusUtils.setHardwareLayerEnabled(false, false);
+        mZoomer.zoomTo(mFirst, SCALE, 200, false);
+        mZoomer.zoomTo(mSecond, SCALE, 200, true);
+        assertEquals(View.LAYER_TYPE_NONE, mFirst.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mSecond.getLayerType());
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertScale(SCALE, mSecond);
+    }
+
+    @Test
+    public void reset_restoresItemsAndReleasesLayers() {
+        mZoomer.zoomTo(mFirst, SCALE, 200, false);
+        mZoomer.zoomTo(mSecond, SCALE, 200, true);
+        mZoomer.onAnimationUpdate(mHalfFrame);
+
+        FocusZoomer.reset(mRoot);
+        assertScale(1f, mFirst);
+        assertScale(1f, mSecond);
+        assertEquals(View.LAYER_TYPE_NONE, mFirst.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, mSecond.getLayerType());
+        ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+        assertScale(1f, mSecond);
+    }
+
+    private static void assertScale(float expected, View view) {
+        assertEquals(expected, view.getScaleX(), 0.001f);
+        assertEquals(expected, view.getScaleY(), 0.001f);
+    }
+
+    /**
+     * Robolectric中没有硬件加速，RenderNode也不会记录硬件层，模拟硬件加速的窗口并记录层类型
+     */
+    private static class LayeredView extends View {
+        private int mLayerType = LAYER_TYPE_NONE;
+
+        LayeredView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean isHardwareAccelerated() {
+            return true;
+        }
+
+        @Override
+        public void setLayerType(int layerType, Paint paint) {
+            mLayerType = layerType;
+        }
+
+        @Override
+        public int getLayerType() {
+            return mLayerType;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.corey.tvfocuslib;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.StringReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GZipCodecTest {
+
+    @Test
+    public void compress_readableByGZIPInputStream() throws Exception {
+        String text = telemetry();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZipCodec.Result result = GZipCodec.compress(new StringReader(text), out);
+
+        byte[] utf8 = text.getBytes("UTF-8");
+        assertArrayEquals(utf8, gunzip(out.toByteArray()));
+        assertEquals(utf8.length, result.getUncompressedSize());
+        assertEquals(out.size(), result.getCompressedSize());
+        assertTrue(result.getRatio() < 0.5f);
+        assertTrue(result.getElapsedNanos() > 0);
+        assertArrayEquals(out.toByteArray(), Utils.GZipCompress(text));
+    }
+
+    @Test
+    public void decompress_readsGZIPOutputStream() throws Exception {
+        byte[] data = new byte[100000];
+        new Random(7).nextBytes(data);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        GZIPOutputStream gzipOut = new GZIPOutputStream(gzip);
+        gzipOut.write(data);
+        gzipOut.close();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZipCodec.Result result = GZipCodec.decompress(new ByteArrayInputStream(gzip.toByteArray()), out);
+        assertArrayEquals(data, out.toByteArray());
+        assertEquals(data.length, result.getUncompressedSize());
+        assertEquals(gzip.size(), result.getCompressedSize());
+    }
+
+    @Test
+    public void roundTrip_levelsAndByteBuffer() throws Exception {
+        byte[] data = telemetry().getBytes("UTF-8");
+        ByteBuffer compressed = ByteBuffer.allocate(data.length + 1024);
+        int[] sizes = new int[2];
+        int[] levels = {Deflater.NO_COMPRESSION, Deflater.BEST_COMPRESSION};
+        for (int i = 0; i < levels.length; i++) {
+            compressed.clear();
+            GZipCodec.compress(new ByteArrayInputStream(data), compressed, levels[i]);
+            sizes[i] = compressed.position();
+            if (levels[i] == Deflater.NO_COMPRESSION) {
+                continue;
+            }
+            compressed.flip();
+            ByteBuffer out = ByteBuffer.allocateDirect(data.length);
+            GZipCodec.decompress(new ByteArrayInputStream(compressed.array(), 0, compressed.limit()), out);
+            byte[] result = new byte[out.position()];
+            out.flip();
+            out.get(result);
+            assertArrayEquals(data, result);
+        }
+        assertTrue(sizes[1] < sizes[0] / 4);
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void compress_byteBufferTooSmall() throws Exception {
+        GZipCodec.compress(new StringReader(telemetry()), ByteBuffer.allocate(64), Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compress_invalidLevel() throws Exception {
+        GZipCodec.compress(new ByteArrayInputStream(new byte[1]), new ByteArrayOutputStream(), 10);
+    }
+
+    @Test
+    public void compress_surrogatePairsAcrossChunks() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append(i % 5 == 0 ? "😀" : "焦a");
+        }
+        builder.append('\ud83d');
+        String text = builder.toString();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZipCodec.compress(new StringReader(text), out);
+        assertArrayEquals(text.getBytes("UTF-8"), gunzip(out.toByteArray()));
+    }
+
+    @Test
+    public void decompress_concatenatedMembers() throws Exception {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        GZipCodec.compress(new StringReader("hello "), gzip);
+        GZipCodec.compress(new StringReader("world"), gzip);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZipCodec.decompress(new ByteArrayInputStream(gzip.toByteArray()), out);
+        assertEquals("hello world", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void decompress_corruptData() throws Exception {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        GZipCodec.compress(new StringReader(telemetry()), gzip);
+        byte[] data = gzip.toByteArray();
+
+        byte[] badCrc = data.clone();
+        badCrc[data.length - 8] ^= 1;
+        assertFails(badCrc, ZipException.class);
+        assertFails(Arrays.copyOf(data, data.length - 3), EOFException.class);
+        assertFails("not gzip".getBytes("UTF-8"), ZipException.class);
+    }
+
+    private static void assertFails(byte[] data, Class<? extends Exception> type) {
+        try {
+            GZipCodec.decompress(new ByteArrayInputStream(data), new ByteArrayOutputStream());
+            fail();
+        } catch (Exception e) {
+            assertEquals(type, e.getClass());
+        }
+    }
+
+    private static byte[] gunzip(byte[] data) throws Exception {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static String telemetry() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            builder.append("{\"event\":\"focus_move\",\"page\":\"首页\",\"index\":").append(i)
+                    .append(",\"cost\":").append(i % 17).append("},");
+        }
+        return builder.append("{}]").toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.corey.tvfocuslib;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 单元测试中使用的简单微基准，统计每次操作的耗时和当前线程分配的字节数
+ */
+final class MicroBenchmark {
+    static final int WARM_UP = 2000;
+    static final int ITERATIONS = 10000;
+    /**
+     * 计时结果输出的文件，设置后才运行FocusBenchmarkTest
+     */
+    static final String OUTPUT = System.getProperty("tvfocus.benchmark");
+
+    /**
+     * 每次操作的平均耗时，纳秒
+     */
+    final long nanosPerOp;
+    /**
+     * 每次操作的平均分配，字节
+     */
+    final long bytesPerOp;
+
+    private MicroBenchmark(long nanosPerOp, long bytesPerOp) {
+        this.nanosPerOp = nanosPerOp;
+        this.bytesPerOp = bytesPerOp;
+    }
+
+    /**
+     * 是否运行计时基准
+     */
+    static boolean isEnabled() {
+        return OUTPUT != null && OUTPUT.length() > 0;
+    }
+
+    /**
+     * 预热后执行ITERATIONS次task
+     */
+    static MicroBenchmark run(Runnable task) {
+        for (int i = 0; i < WARM_UP; i++) {
+            task.run();
+        }
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // 统计本身的开销
+        long overhead = -threadBean.getThreadAllocatedBytes(threadId)
+                + threadBean.getThreadAllocatedBytes(threadId);
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+        long bytes = Math.max(0, after - before - overhead);
+        return new MicroBenchmark(nanos / ITERATIONS, bytes / ITERATIONS);
+    }
+
+    /**
+     * 结果追加到{@link #OUTPUT}文件中，便于对比不同版本
+     */
+    MicroBenchmark report(String name) throws IOException {
+        Writer writer = new FileWriter(OUTPUT, true);
+        try {
+            writer.write(String.format("%-48s %8d ns/op %8d B/op%n", name, nanosPerOp, bytesPerOp));
+        } finally {
+            writer.close();
+        }
+        return this;
+    }
+}
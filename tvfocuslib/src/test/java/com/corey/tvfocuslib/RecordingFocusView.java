@@ -0,0 +1,79 @@
+package com.corey.tvfocuslib;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+/**
+ * 只记录位置、缩放、布局请求和图片重绘的焦点框，排除Robolectric中View属性设置本身的开销，只统计库代码
+ */
+class RecordingFocusView extends ImageView {
+    int mLayoutRequests;
+    int mDrawableInvalidations;
+    private float mX;
+    private float mY;
+    private float mScaleX = 1f;
+    private float mScaleY = 1f;
+
+    RecordingFocusView(Context context) {
+        super(context);
+    }
+
+    @Override
+    public void setX(float x) {
+        mX = x;
+    }
+
+    @Override
+    public float getX() {
+        return mX;
+    }
+
+    @Override
+    public void setY(float y) {
+        mY = y;
+    }
+
+    @Override
+    public float getY() {
+        return mY;
+    }
+
+    @Override
+    public void setScaleX(float scaleX) {
+        mScaleX = scaleX;
+    }
+
+    @Override
+    public float getScaleX() {
+        return mScaleX;
+    }
+
+    @Override
+    public void setScaleY(float scaleY) {
+        mScaleY = scaleY;
+    }
+
+    @Override
+    public float getScaleY() {
+        return mScaleY;
+    }
+
+    @Override
+    public void setPivotX(float pivotX) {
+    }
+
+    @Override
+    public void setPivotY(float pivotY) {
+    }
+
+    @Override
+    public void requestLayout() {
+        mLayoutRequests++;
+    }
+
+    @Override
+    public void invalidateDrawable(Drawable drawable) {
+        mDrawableInvalidations++;
+    }
+}
@@ -0,0 +1,290 @@
+package com.corey.tvfocuslib;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.AttributeSet;
+import android.view.InflateException;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.RadioButton;
+import android.widget.RadioGroup;
+import android.widget.TextView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class ResolutionLayoutFactoryTest {
+    /**
+     * 框架自带的布局，包含padding、margin、固定宽高和字体大小
+     */
+    private static final int ICON_ITEM = android.R.layout.activity_list_item;
+    private static final int TWO_LINE_ITEM = android.R.layout.simple_list_item_2;
+
+    private Activity mActivity;
+    private LayoutInflater mInflater;
+    private LayoutInflater mRawInflater;
+    private ResolutionLayoutFactory mFactory;
+    private ResolutionUtil mUtil;
+
+    @Before
+    public void setUp() {
+        // 设计图是屏幕的一半，适配后的数值与原值不同
+        mActivity = Robolectric.setupActivity(Activity.class);
+        int width = mActivity.getResources().getDisplayMetrics().widthPixels;
+        int height = mActivity.getResources().getDisplayMetrics().heightPixels;
+        ResolutionUtil.setDefaultResolution(Math.min(width, height) / 2, Math.max(width, height) / 2);
+        mRawInflater = LayoutInflater.from(mActivity).cloneInContext(mActivity);
+        mInflater = LayoutInflater.from(mActivity).cloneInContext(mActivity);
+        mFactory = ResolutionLayoutFactory.install(mInflater, null);
+        mUtil = ResolutionUtil.getInstance(mActivity);
+        ResolutionLayoutFactory.clearCache();
+    }
+
+    @After
+    public void tearDown() {
+        ResolutionUtil.setDefaultResolution(1080, 1920);
+    }
+
+    @Test
+    public void plainInflate_scalesChildParamsBeforeMeasure() {
+        View raw = mRawInflater.inflate(ICON_ITEM, null);
+        View view = mInflater.inflate(ICON_ITEM, null);
+
+        assertNull(view.getLayoutParams());
+        assertScaled(raw, view, false);
+        assertEquals(0, mFactory.getCacheHits() + mFactory.getCacheMisses());
+        // 添加到窗口不会再次适配
+        mActivity.setContentView(view);
+        assertScaled(raw, view, false);
+    }
+
+    @Test
+    public void plainInflate_withRoot_scalesParamsOnlyWhenAddedToCreatedParent() {
+        ViewGroup parent = (ViewGroup) mInflater.inflate(ICON_ITEM, null);
+        View raw = mRawInflater.inflate(TWO_LINE_ITEM, (ViewGroup) mRawInflater.inflate(ICON_ITEM, null), false);
+        View view = mInflater.inflate(TWO_LINE_ITEM, parent, true);
+
+        assertSame(parent, view);
+        View child = parent.getChildAt(parent.getChildCount() - 1);
+        // 父布局由本factory创建、还没有空闲，加入时适配根view的布局参数
+        assertScaled(raw, child, true);
+    }
+
+    @Test
+    public void plainInflate_restoresListenersWhenIdle() {
+        ViewGroup parent = (ViewGroup) mInflater.inflate(ICON_ITEM, null);
+        View raw = mRawInflater.inflate(TWO_LINE_ITEM, (ViewGroup) mRawInflater.inflate(ICON_ITEM, null), false);
+        // 加载完成后空闲，恢复父布局的监听
+        mFactory.restoreHierarchyListeners();
+        mInflater.inflate(TWO_LINE_ITEM, parent, true);
+
+        View child = parent.getChildAt(parent.getChildCount() - 1);
+        assertScaled(raw, child, false);
+        assertEquals(raw.getLayoutParams().width, child.getLayoutParams().width);
+        assertEquals(raw.getLayoutParams().height, child.getLayoutParams().height);
+    }
+
+    @Test
+    public void plainInflate_forwardsToOriginalListener() {
+        RadioGroup group = (RadioGroup) mFactory.onCreateView(null, "RadioGroup", mActivity,
+                Robolectric.buildAttributeSet().build());
+        RadioButton first = (RadioButton) mFactory.onCreateView(group, "RadioButton", mActivity,
+                Robolectric.buildAttributeSet().build());
+        group.addView(first, new RadioGroup.LayoutParams(100, 40));
+
+        // 适配布局参数，RadioGroup自己的监听仍然给RadioButton分配id
+        assertEquals(mUtil.px2dp2pxWidth(100), first.getLayoutParams().width);
+        assertEquals(mUtil.px2dp2pxHeight(40), first.getLayoutParams().height);
+        assertNotEquals(View.NO_ID, first.getId());
+
+        final ArrayList<View> added = new ArrayList<View>();
+        group.setOnHierarchyChangeListener(new ViewGroup.OnHierarchyChangeListener() {
+            @Override
+            public void onChildViewAdded(View parent, View child) {
+                added.add(child);
+            }
+
+            @Override
+            public void onChildViewRemoved(View parent, View child) {
+            }
+        });
+        mFactory.restoreHierarchyListeners();
+        RadioButton second = (RadioButton) mFactory.onCreateView(group, "RadioButton", mActivity,
+                Robolectric.buildAttributeSet().build());
+        group.addView(second, new RadioGroup.LayoutParams(100, 40));
+
+        // 恢复后不再适配，RadioGroup和之后设置的监听都还在
+        assertEquals(100, second.getLayoutParams().width);
+        assertNotEquals(View.NO_ID, second.getId());
+        assertEquals(1, added.size());
+        assertSame(second, added.get(0));
+    }
+
+    @Test
+    public void onCreateView_constructorException_throwsInflateException() {
+        try {
+            mFactory.onCreateView(null, ThrowingView.class.getName(), mActivity,
+                    Robolectric.buildAttributeSet().build());
+            fail();
+        } catch (InflateException e) {
+            assertTrue(e.getCause() instanceof java.lang.reflect.InvocationTargetException);
+        }
+    }
+
+    @Test
+    public void inflate_cachesPerLayoutAndScalesRootParams() {
+        FrameLayout root = new FrameLayout(mActivity);
+        View raw = mRawInflater.inflate(ICON_ITEM, root, false);
+
+        View first = mFactory.inflate(ICON_ITEM, root, false);
+        assertEquals(1, mFactory.getCacheMisses());
+        assertEquals(0, mFactory.getCacheHits());
+        assertScaled(raw, first, true);
+
+        View second = mFactory.inflate(ICON_ITEM, root, false);
+        assertEquals(1, mFactory.getCacheMisses());
+        assertEquals(1, mFactory.getCacheHits());
+        assertScaled(raw, second, true);
+
+        // 添加到父布局也不会重复适配
+        root.addView(second);
+        assertScaled(raw, second, true);
+
+        mFactory.inflate(TWO_LINE_ITEM, root, false);
+        assertEquals(2, mFactory.getCacheMisses());
+    }
+
+    @Test
+    public void inflate_rootParamsNotCached() {
+        View rawNoRoot = mRawInflater.inflate(ICON_ITEM, null);
+        View rawFrame = mRawInflater.inflate(ICON_ITEM, new FrameLayout(mActivity), false);
+
+        View noRoot = mFactory.inflate(ICON_ITEM, null, false);
+        assertNull(noRoot.getLayoutParams());
+        assertScaled(rawNoRoot, noRoot, false);
+
+        // 有root时命中缓存，根view的布局参数按本次的root单独适配
+        LinearLayout linear = new LinearLayout(mActivity);
+        View withRoot = mFactory.inflate(ICON_ITEM, linear, false);
+        assertEquals(1, mFactory.getCacheHits());
+        assertTrue(withRoot.getLayoutParams() instanceof LinearLayout.LayoutParams);
+        assertScaled(rawFrame, withRoot, true);
+
+        FrameLayout frame = new FrameLayout(mActivity);
+        View attached = mFactory.inflate(ICON_ITEM, frame, true);
+        assertSame(frame, attached);
+        assertEquals(2, mFactory.getCacheHits());
+        assertScaled(rawFrame, frame.getChildAt(0), true);
+    }
+
+    @Test
+    public void inflate_configurationChange_recomputes() {
+        mFactory.inflate(ICON_ITEM, null, false);
+        mFactory.inflate(ICON_ITEM, null, false);
+        assertEquals(1, mFactory.getCacheMisses());
+
+        Resources resources = mActivity.getResources();
+        Configuration config = new Configuration(resources.getConfiguration());
+        config.fontScale = 1.5f;
+        resources.updateConfiguration(config, resources.getDisplayMetrics());
+
+        View raw = mRawInflater.inflate(ICON_ITEM, null);
+        View view = mFactory.inflate(ICON_ITEM, null, false);
+        assertEquals(2, mFactory.getCacheMisses());
+        assertScaled(raw, view, false);
+        mFactory.inflate(ICON_ITEM, null, false);
+        assertEquals(2, mFactory.getCacheMisses());
+        assertEquals(2, mFactory.getCacheHits());
+    }
+
+    @Test
+    public void staticInflate_usesInstalledFactory() {
+        View raw = mRawInflater.inflate(TWO_LINE_ITEM, null);
+        ResolutionLayoutFactory.inflate(mInflater, TWO_LINE_ITEM, null, false);
+        View view = ResolutionLayoutFactory.inflate(mInflater, TWO_LINE_ITEM, null, false);
+        assertEquals(1, mFactory.getCacheHits());
+        assertScaled(raw, view, false);
+
+        // 没有安装factory的inflater使用共享缓存
+        View shared = ResolutionLayoutFactory.inflate(mRawInflater, TWO_LINE_ITEM, null, false);
+        assertEquals(1, mFactory.getCacheHits());
+        assertScaled(raw, shared, false);
+    }
+
+    @Test
+    public void onCreateView_resolvesFrameworkPackages() {
+        assertTrue(mFactory.onCreateView(null, "FrameLayout", mActivity,
+                Robolectric.buildAttributeSet().build()) instanceof FrameLayout);
+        assertTrue(mFactory.onCreateView(null, "View", mActivity,
+                Robolectric.buildAttributeSet().build()) != null);
+    }
+
+    public static class ThrowingView extends View {
+        public ThrowingView(Context context, AttributeSet attrs) {
+            super(context, attrs);
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * 比较适配后的view与没有适配的view
+     *
+     * @param params 是否比较根view的布局参数
+     */
+    private void assertScaled(View raw, View view, boolean params) {
+        assertEquals(raw.getClass(), view.getClass());
+        assertEquals(mUtil.px2dp2pxWidth(raw.getPaddingLeft()), view.getPaddingLeft());
+        assertEquals(mUtil.px2dp2pxHeight(raw.getPaddingTop()), view.getPaddingTop());
+        assertEquals(mUtil.px2dp2pxWidth(raw.getPaddingRight()), view.getPaddingRight());
+        assertEquals(mUtil.px2dp2pxHeight(raw.getPaddingBottom()), view.getPaddingBottom());
+        if (raw instanceof TextView) {
+            float rawSize = ((TextView) raw).getTextSize();
+            assertNotEquals(rawSize, ((TextView) view).getTextSize(), 0.5f);
+            assertEquals(mUtil.px2dp2pxWidth(rawSize), ((TextView) view).getTextSize(), 0.01f);
+        }
+        if (params) {
+            ViewGroup.LayoutParams expected = raw.getLayoutParams();
+            ViewGroup.LayoutParams actual = view.getLayoutParams();
+            assertEquals(expected.width > 0 ? mUtil.px2dp2pxWidth(expected.width) : expected.width, actual.width);
+            assertEquals(expected.height > 0 ? mUtil.px2dp2pxHeight(expected.height) : expected.height,
+                    actual.height);
+            if (expected instanceof ViewGroup.MarginLayoutParams) {
+                ViewGroup.MarginLayoutParams rawMargin = (ViewGroup.MarginLayoutParams) expected;
+                ViewGroup.MarginLayoutParams margin = (ViewGroup.MarginLayoutParams) actual;
+                assertEquals(mUtil.px2dp2pxWidth(rawMargin.leftMargin), margin.leftMargin);
+                assertEquals(mUtil.px2dp2pxHeight(rawMargin.topMargin), margin.topMargin);
+                assertEquals(mUtil.px2dp2pxWidth(rawMargin.rightMargin), margin.rightMargin);
+                assertEquals(mUtil.px2dp2pxHeight(rawMargin.bottomMargin), margin.bottomMargin);
+            }
+        }
+        if (raw instanceof ViewGroup) {
+            ViewGroup rawGroup = (ViewGroup) raw;
+            ViewGroup group = (ViewGroup) view;
+            assertEquals(rawGroup.getChildCount(), group.getChildCount());
+            for (int i = 0; i < rawGroup.getChildCount(); i++) {
+                assertScaled(rawGroup.getChildAt(i), group.getChildAt(i), true);
+            }
+        }
+    }
+}
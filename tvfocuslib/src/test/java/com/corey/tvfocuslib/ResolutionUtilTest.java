@@ -0,0 +1,189 @@
+package com.corey.tvfocuslib;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 25)
+public class ResolutionUtilTest {
+
+    @After
+    public void tearDown() {
+        ResolutionUtil.setDefaultResolution(1080, 1920);
+    }
+
+    @Test
+    public void getInstance_isShared() {
+        assertSame(ResolutionUtil.getInstance(RuntimeEnvironment.application),
+                ResolutionUtil.getInstance(null));
+    }
+
+    @Test
+    public void setDefaultResolution_reflectedInExistingInstance() {
+        ResolutionUtil util = new ResolutionUtil(RuntimeEnvironment.application);
+        int before = util.px2dp2pxWidth(1000);
+        ResolutionUtil.setDefaultResolution(540, 960);
+        assertEquals(new ResolutionUtil(RuntimeEnvironment.application).px2dp2pxWidth(1000),
+                util.px2dp2pxWidth(1000));
+        assertEquals(before * 2, util.px2dp2pxWidth(1000), 1);
+    }
+
+    @Test
+    public void batched_matchesSingleValues() {
+        ResolutionUtil util = new ResolutionUtil(RuntimeEnvironment.application);
+        int[] widths = {0, 1, 7, 100, 333, 1920};
+        int[] heights = widths.clone();
+        util.px2dp2pxWidth(widths);
+        util.px2dp2pxHeight(heights);
+        int[] source = {0, 1, 7, 100, 333, 1920};
+        for (int i = 0; i < source.length; i++) {
+            assertEquals(util.px2dp2pxWidth(source[i]), widths[i]);
+            assertEquals(util.px2dp2pxHeight(source[i]), heights[i]);
+        }
+    }
+
+    @Test
+    public void scaleView_scalesParamsPaddingAndText() {
+        ResolutionUtil util = new ResolutionUtil(RuntimeEnvironment.application);
+        TextView view = new TextView(RuntimeEnvironment.application);
+        ViewGroup.MarginLayoutParams params = new ViewGroup.MarginLayoutParams(400,
+                ViewGroup.LayoutParams.MATCH_PARENT);
+        params.setMargins(10, 20, 30, 40);
+        view.setLayoutParams(params);
+        view.setPadding(4, 8, 12, 16);
+        view.setTextSize(android.util.TypedValue.COMPLEX_UNIT_PX, 36);
+
+        util.scaleView(view);
+
+        assertEquals(util.px2dp2pxWidth(400), params.width);
+        assertEquals(ViewGroup.LayoutParams.MATCH_PARENT, params.height);
+        assertEquals(util.px2dp2pxWidth(10), params.leftMargin);
+        assertEquals(util.px2dp2pxHeight(20), params.topMargin);
+        assertEquals(util.px2dp2pxWidth(30), params.rightMargin);
+        assertEquals(util.px2dp2pxHeight(40), params.bottomMargin);
+        assertEquals(util.px2dp2pxWidth(4), view.getPaddingLeft());
+        assertEquals(util.px2dp2pxHeight(16), view.getPaddingBottom());
+        assertEquals(util.px2dp2pxWidth(36), view.getTextSize(), 0f);
+    }
+
+    @Test
+    public void configurationChange_recomputesFactors() {
+        TestContext context = new TestContext(metrics(1920, 1080));
+        ResolutionUtil util = ResolutionUtil.create(context);
+        int version = util.getScaleVersion();
+        assertEquals(1000, util.px2dp2pxWidth(1000));
+
+        context.mMetrics = metrics(3840, 2160);
+        assertEquals(1000, util.px2dp2pxWidth(1000));
+        context.mCallbacks.onConfigurationChanged(new Configuration());
+        assertEquals(2000, util.px2dp2pxWidth(1000));
+        assertEquals(2000, util.px2dp2pxHeight(1000));
+        assertEquals(3840, util.getWidth());
+        assertEquals(version + 1, util.getScaleVersion());
+
+        // 屏幕参数没有变化时不重新计算
+        context.mMetrics = metrics(3840, 2160);
+        context.mCallbacks.onConfigurationChanged(new Configuration());
+        assertEquals(version + 1, util.getScaleVersion());
+    }
+
+    @Test
+    public void configurationChange_factorsNeverTear() throws Exception {
+        final TestContext context = new TestContext(metrics(1920, 1080));
+        final ResolutionUtil util = ResolutionUtil.create(context);
+        final AtomicBoolean torn = new AtomicBoolean();
+        final AtomicBoolean done = new AtomicBoolean();
+        Thread[] readers = new Thread[3];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ViewGroup.MarginLayoutParams params = new ViewGroup.MarginLayoutParams(0, 0);
+                    while (!done.get() && !torn.get()) {
+                        params.width = 1920;
+                        params.height = 1080;
+                        util.scaleLayoutParams(params);
+                        // 宽高使用同一组比例，只能是1080P或4K
+                        if (params.width * 1080 != params.height * 1920) {
+                            torn.set(true);
+                        }
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        DisplayMetrics[] sizes = {metrics(3840, 2160), metrics(1920, 1080)};
+        for (int i = 0; i < 20000; i++) {
+            context.mMetrics = sizes[i & 1];
+            context.mCallbacks.onConfigurationChanged(new Configuration());
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertFalse(torn.get());
+    }
+
+    private static DisplayMetrics metrics(int width, int height) {
+        DisplayMetrics metrics = new DisplayMetrics();
+        metrics.setTo(RuntimeEnvironment.application.getResources().getDisplayMetrics());
+        metrics.widthPixels = width;
+        metrics.heightPixels = height;
+        return metrics;
+    }
+
+    /**
+     * 屏幕参数可以替换的application
+     */
+    private static class TestContext extends ContextWrapper {
+        volatile DisplayMetrics mMetrics;
+        ComponentCallbacks mCallbacks;
+        private final Resources mResources;
+
+        TestContext(DisplayMetrics metrics) {
+            super(RuntimeEnvironment.application);
+            mMetrics = metrics;
+            Resources base = RuntimeEnvironment.application.getResources();
+            mResources = new Resources(base.getAssets(), metrics, base.getConfiguration()) {
+                @Override
+                public DisplayMetrics getDisplayMetrics() {
+                    return mMetrics;
+                }
+            };
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+
+        @Override
+        public Resources getResources() {
+            return mResources;
+        }
+
+        @Override
+        public void registerComponentCallbacks(ComponentCallbacks callback) {
+            mCallbacks = callback;
+        }
+    }
+}
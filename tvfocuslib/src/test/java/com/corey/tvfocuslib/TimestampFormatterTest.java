@@ -0,0 +1,127 @@
+package com.corey.tvfocuslib;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimestampFormatterTest {
+    private static final String[] ZONES = {
+            "UTC", "Asia/Shanghai", "America/New_York", "Australia/Lord_Howe", "Asia/Kathmandu"
+    };
+
+    private final TimeZone mDefaultZone = TimeZone.getDefault();
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(mDefaultZone);
+    }
+
+    @Test
+    public void format_matchesSimpleDateFormat() {
+        Random random = new Random(7);
+        // 1900年到2100年
+        long min = -2208988800000L;
+        long max = 4102444800000L;
+        for (String zone : ZONES) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            SimpleDateFormat log = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS");
+            SimpleDateFormat compact = new SimpleDateFormat("yyyyMMddHHmmss");
+            long millis = min;
+            for (int i = 0; i < 5000; i++) {
+                // 随机跳跃，以及同一秒、同一天、跨天的相邻时间
+                switch (i % 4) {
+                    case 0:
+                        millis = min + (long) (random.nextDouble() * (max - min));
+                        break;
+                    case 1:
+                        millis += random.nextInt(1000);
+                        break;
+                    case 2:
+                        millis += random.nextInt(3600000);
+                        break;
+                    default:
+                        millis += 86400000L - random.nextInt(1000);
+                        break;
+                }
+                Date date = new Date(millis);
+                assertEquals(zone + " " + millis, log.format(date), TimestampFormatter.LOG.format(millis));
+                assertEquals(zone + " " + millis, compact.format(date), TimestampFormatter.COMPACT.format(millis));
+            }
+        }
+    }
+
+    @Test
+    public void format_daylightSavingTransition() {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        SimpleDateFormat log = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS");
+        // 2017-03-12 02:00夏令时开始，2017-11-05 02:00结束
+        long[] transitions = {1489302000000L, 1509858000000L};
+        for (long transition : transitions) {
+            for (long millis = transition - 2500; millis < transition + 2500; millis += 250) {
+                assertEquals(log.format(new Date(millis)), TimestampFormatter.LOG.format(millis));
+            }
+        }
+    }
+
+    @Test
+    public void bufferAndBuilder() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Shanghai"));
+        long millis = 1345602207333L;
+        char[] buffer = new char[30];
+        assertEquals(23, TimestampFormatter.LOG.format(millis, buffer, 2));
+        assertEquals("2012-08-22 10:23:27:333", new String(buffer, 2, 23));
+
+        StringBuilder builder = new StringBuilder("[");
+        TimestampFormatter.COMPACT.appendTo(builder, millis).append(']');
+        assertEquals("[20120822102327]", builder.toString());
+        TimestampFormatter.LOG.appendTo(builder, millis + 5);
+        assertEquals("[20120822102327]2012-08-22 10:23:27:338", builder.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void format_bufferTooSmall() {
+        TimestampFormatter.COMPACT.format(0L, new char[20], 7);
+    }
+
+    @Test
+    public void utils_formats() {
+        assertTrue(Utils.getTimeAsString().matches("\\d{4}-\\d\\d-\\d\\d \\d\\d:\\d\\d:\\d\\d:\\d{3}"));
+        assertTrue(Utils.now().matches("\\d{14}"));
+    }
+
+    @Test
+    public void threads_shareCacheSafely() throws Exception {
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Shanghai"));
+        final boolean[] failed = new boolean[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    SimpleDateFormat log = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS");
+                    Random random = new Random(seed);
+                    long base = 1345602207333L;
+                    for (int i = 0; i < 20000 && !failed[0]; i++) {
+                        long millis = base + random.nextInt(5000);
+                        if (!log.format(new Date(millis)).equals(TimestampFormatter.LOG.format(millis))) {
+                            failed[0] = true;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(false, failed[0]);
+    }
+}